@@ -0,0 +1,122 @@
+package io.moyada.medivh.benchmark;
+
+import io.moyada.medivh.benchmark.target.GeneratedTarget;
+import io.moyada.medivh.benchmark.target.HandWrittenTarget;
+import io.moyada.medivh.benchmark.target.UncheckedTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集合元素及数组元素的 TYPE_USE 校验性能，如 {@code List<@NotBlank String>}、{@code @Min(0) int[]}，
+ * 对比生成的下标遍历逻辑、手写的 for-each 遍历逻辑与无校验基准，失败元素位于末尾
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementBenchmark {
+
+    private final GeneratedTarget generated = new GeneratedTarget();
+    private final HandWrittenTarget handWritten = new HandWrittenTarget();
+    private final UncheckedTarget unchecked = new UncheckedTarget();
+
+    // 元素个数
+    @Param({"16", "1024"})
+    public int length;
+
+    // 校验通过的参数
+    private List<String> validTags;
+    private int[] validScores;
+    // 校验失败的参数
+    private List<String> invalidTags;
+    private int[] invalidScores;
+
+    @Setup
+    public void setup() {
+        validTags = new ArrayList<String>(length);
+        for (int i = 0; i < length; i++) {
+            validTags.add("tag");
+        }
+        invalidTags = new ArrayList<String>(validTags);
+        invalidTags.set(length - 1, " ");
+
+        validScores = new int[length];
+        Arrays.fill(validScores, 60);
+        invalidScores = validScores.clone();
+        invalidScores[length - 1] = -1;
+    }
+
+    @Benchmark
+    public Object generatedTagsPass() {
+        return generated.tags(validTags);
+    }
+
+    @Benchmark
+    public Object generatedTagsReject() {
+        try {
+            return generated.tags(invalidTags);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object handWrittenTagsPass() {
+        return handWritten.tags(validTags);
+    }
+
+    @Benchmark
+    public Object handWrittenTagsReject() {
+        try {
+            return handWritten.tags(invalidTags);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object uncheckedTags() {
+        return unchecked.tags(validTags);
+    }
+
+    @Benchmark
+    public Object generatedScoresPass() {
+        return generated.scores(validScores);
+    }
+
+    @Benchmark
+    public Object generatedScoresReject() {
+        try {
+            return generated.scores(invalidScores);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object handWrittenScoresPass() {
+        return handWritten.scores(validScores);
+    }
+
+    @Benchmark
+    public Object handWrittenScoresReject() {
+        try {
+            return handWritten.scores(invalidScores);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object uncheckedScores() {
+        return unchecked.scores(validScores);
+    }
+}
@@ -0,0 +1,154 @@
+package io.moyada.medivh.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工具类 isBlank 方法性能，对比按静态类型选择的重载与统一的 {@link CharSequence} 方法，
+ * 以及 {@code medivh.blank.whitespace} 查表判断与直接调用 {@link Character#isWhitespace(char)}
+ * 方法实现与 META-INF/util 下的模板保持一致
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IsBlankBenchmark {
+
+    // ASCII 空白字符位表，\t \n \u000B \f \r \u001C-\u001F 空格
+    private static final long WHITESPACE_MASK = 0x1F0003E00L;
+
+    // 前导空白长度
+    @Param({"0", "16"})
+    public int padding;
+
+    private String string;
+    private StringBuilder builder;
+    private CharBuffer buffer;
+
+    // 混合类型参数，使 CharSequence 方法内的调用点成为多态
+    private CharSequence[] mixed;
+
+    @Setup
+    public void setup() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < padding; i++) {
+            text.append(i % 2 == 0 ? ' ' : '\t');
+        }
+        text.append("medivh");
+
+        string = text.toString();
+        builder = new StringBuilder(string);
+        buffer = CharBuffer.wrap(string);
+        mixed = new CharSequence[]{string, builder, buffer};
+    }
+
+    @Benchmark
+    public boolean sequenceMixed() {
+        boolean blank = false;
+        for (CharSequence value : mixed) {
+            blank |= isBlank(value);
+        }
+        return blank;
+    }
+
+    @Benchmark
+    public boolean specialized() {
+        return isBlank(string) | isBlank(builder) | isBlank(buffer);
+    }
+
+    @Benchmark
+    public boolean whitespaceTable() {
+        return isWhitespaceBlank(string);
+    }
+
+    @Benchmark
+    public boolean whitespaceCall() {
+        return isCharacterBlank(string);
+    }
+
+    public static boolean isBlank(CharSequence str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(String str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(StringBuilder str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(CharBuffer str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isWhitespaceBlank(String str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch < 64 ? (WHITESPACE_MASK >> ch & 1L) == 0L : ch < 128 || !Character.isWhitespace(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isCharacterBlank(String str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package io.moyada.medivh.benchmark;
+
+import cn.moyada.test.example.Product;
+import io.moyada.medivh.benchmark.target.GeneratedTarget;
+import io.moyada.medivh.benchmark.target.HandWrittenTarget;
+import io.moyada.medivh.benchmark.target.SimpleProduct;
+import io.moyada.medivh.benchmark.target.UncheckedTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 嵌套规则 {@code invalid0} 校验性能，对比生成逻辑、手写逻辑与无校验基准
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedRuleBenchmark {
+
+    private final GeneratedTarget generated = new GeneratedTarget();
+    private final HandWrittenTarget handWritten = new HandWrittenTarget();
+    private final UncheckedTarget unchecked = new UncheckedTarget();
+
+    // 校验通过的参数
+    private Product valid;
+    // 校验失败的参数
+    private Product invalid;
+
+    @Setup
+    public void setup() {
+        valid = new SimpleProduct(1L, "book", "paper", null);
+        invalid = new SimpleProduct(1L, "book", "    ", null);
+    }
+
+    @Benchmark
+    public Object generatedPass() {
+        return generated.nested(valid);
+    }
+
+    @Benchmark
+    public Object generatedReject() {
+        try {
+            return generated.nested(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object handWrittenPass() {
+        return handWritten.nested(valid);
+    }
+
+    @Benchmark
+    public Object handWrittenReject() {
+        try {
+            return handWritten.nested(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object uncheckedPass() {
+        return unchecked.nested(valid);
+    }
+
+    @Benchmark
+    public Object uncheckedReject() {
+        return unchecked.nested(invalid);
+    }
+}
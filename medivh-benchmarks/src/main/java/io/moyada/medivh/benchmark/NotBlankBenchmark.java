@@ -0,0 +1,75 @@
+package io.moyada.medivh.benchmark;
+
+import io.moyada.medivh.benchmark.target.GeneratedTarget;
+import io.moyada.medivh.benchmark.target.HandWrittenTarget;
+import io.moyada.medivh.benchmark.target.UncheckedTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link io.moyada.medivh.regulation.NotBlankRegulation} 校验性能，对比生成逻辑、手写逻辑与无校验基准
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotBlankBenchmark {
+
+    private final GeneratedTarget generated = new GeneratedTarget();
+    private final HandWrittenTarget handWritten = new HandWrittenTarget();
+    private final UncheckedTarget unchecked = new UncheckedTarget();
+
+    // 校验通过的参数
+    private String valid;
+    // 校验失败的参数
+    private String invalid;
+
+    @Setup
+    public void setup() {
+        valid = "medivh benchmark";
+        invalid = "        ";
+    }
+
+    @Benchmark
+    public Object generatedPass() {
+        return generated.notBlank(valid);
+    }
+
+    @Benchmark
+    public Object generatedReject() {
+        try {
+            return generated.notBlank(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object handWrittenPass() {
+        return handWritten.notBlank(valid);
+    }
+
+    @Benchmark
+    public Object handWrittenReject() {
+        try {
+            return handWritten.notBlank(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object uncheckedPass() {
+        return unchecked.notBlank(valid);
+    }
+
+    @Benchmark
+    public Object uncheckedReject() {
+        return unchecked.notBlank(invalid);
+    }
+}
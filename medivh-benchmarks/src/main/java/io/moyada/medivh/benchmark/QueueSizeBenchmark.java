@@ -0,0 +1,111 @@
+package io.moyada.medivh.benchmark;
+
+import io.moyada.medivh.benchmark.target.GeneratedTarget;
+import io.moyada.medivh.benchmark.target.HandWrittenTarget;
+import io.moyada.medivh.benchmark.target.UncheckedTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code size()} 需要遍历元素的集合的 {@link io.moyada.medivh.annotation.Size} 校验性能，
+ * 对比有界计数的生成逻辑、手写逻辑、直接调用 {@code size()} 的校验与无校验基准
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueSizeBenchmark {
+
+    private final GeneratedTarget generated = new GeneratedTarget();
+    private final HandWrittenTarget handWritten = new HandWrittenTarget();
+    private final UncheckedTarget unchecked = new UncheckedTarget();
+
+    // 校验失败的队列长度
+    @Param({"1000", "1000000"})
+    public int length;
+
+    // 校验通过的参数
+    private ConcurrentLinkedQueue<String> valid;
+    // 校验失败的参数
+    private ConcurrentLinkedQueue<String> invalid;
+
+    @Setup
+    public void setup() {
+        valid = new ConcurrentLinkedQueue<String>();
+        for (int i = 0; i < 16; i++) {
+            valid.add("task");
+        }
+        invalid = new ConcurrentLinkedQueue<String>();
+        for (int i = 0; i < length; i++) {
+            invalid.add("task");
+        }
+    }
+
+    @Benchmark
+    public Object generatedPass() {
+        return generated.queue(valid);
+    }
+
+    @Benchmark
+    public Object generatedReject() {
+        try {
+            return generated.queue(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object handWrittenPass() {
+        return handWritten.queue(valid);
+    }
+
+    @Benchmark
+    public Object handWrittenReject() {
+        try {
+            return handWritten.queue(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object sizeCallReject() {
+        try {
+            return sizeCall(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object uncheckedPass() {
+        return unchecked.queue(valid);
+    }
+
+    @Benchmark
+    public Object uncheckedReject() {
+        return unchecked.queue(invalid);
+    }
+
+    /**
+     * 直接调用 size() 的校验，遍历整个队列
+     * @param tasks 队列
+     * @return 队首元素
+     */
+    private static String sizeCall(ConcurrentLinkedQueue<String> tasks) {
+        if (tasks == null) {
+            throw new IllegalArgumentException("Invalid input parameter, cause tasks is null");
+        }
+        if (tasks.size() > 100) {
+            throw new IllegalArgumentException("Invalid input parameter, cause tasks.size() great than 100");
+        }
+        return tasks.peek();
+    }
+}
@@ -0,0 +1,90 @@
+package io.moyada.medivh.benchmark;
+
+import cn.moyada.test.example.Product;
+import io.moyada.medivh.benchmark.target.GeneratedTarget;
+import io.moyada.medivh.benchmark.target.PreallocatedTarget;
+import io.moyada.medivh.benchmark.target.SimpleProduct;
+import io.moyada.medivh.benchmark.target.StacklessTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 校验失败路径性能，对比默认异常、不填充堆栈异常与预创建异常
+ * 通过 depth 模拟业务调用栈深度，默认异常的堆栈填充耗时随深度增长
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectionBenchmark {
+
+    private final GeneratedTarget generated = new GeneratedTarget();
+    private final StacklessTarget stackless = new StacklessTarget();
+    private final PreallocatedTarget preallocated = new PreallocatedTarget();
+
+    // 调用栈深度
+    @Param({"0", "64"})
+    private int depth;
+
+    // 校验失败的参数
+    private int invalidNumber;
+    private Product invalidProduct;
+
+    @Setup
+    public void setup() {
+        invalidNumber = 1024;
+        invalidProduct = new SimpleProduct(1L, "book", "    ", null);
+    }
+
+    @Benchmark
+    public Object generatedNumber() {
+        return call(depth, 0);
+    }
+
+    @Benchmark
+    public Object stacklessNumber() {
+        return call(depth, 1);
+    }
+
+    @Benchmark
+    public Object preallocatedNumber() {
+        return call(depth, 2);
+    }
+
+    @Benchmark
+    public Object generatedNested() {
+        return call(depth, 3);
+    }
+
+    @Benchmark
+    public Object stacklessNested() {
+        return call(depth, 4);
+    }
+
+    private Object call(int depth, int target) {
+        if (depth > 0) {
+            return call(depth - 1, target);
+        }
+        try {
+            switch (target) {
+                case 0:
+                    return generated.number(invalidNumber);
+                case 1:
+                    return stackless.number(invalidNumber);
+                case 2:
+                    return preallocated.number(invalidNumber);
+                case 3:
+                    return generated.nested(invalidProduct);
+                default:
+                    return stackless.nested(invalidProduct);
+            }
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
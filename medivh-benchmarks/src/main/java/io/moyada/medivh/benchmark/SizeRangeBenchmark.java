@@ -0,0 +1,78 @@
+package io.moyada.medivh.benchmark;
+
+import io.moyada.medivh.benchmark.target.GeneratedTarget;
+import io.moyada.medivh.benchmark.target.HandWrittenTarget;
+import io.moyada.medivh.benchmark.target.UncheckedTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link io.moyada.medivh.regulation.SizeRangeRegulation} 校验性能，对比生成逻辑、手写逻辑与无校验基准
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SizeRangeBenchmark {
+
+    private final GeneratedTarget generated = new GeneratedTarget();
+    private final HandWrittenTarget handWritten = new HandWrittenTarget();
+    private final UncheckedTarget unchecked = new UncheckedTarget();
+
+    // 校验通过的参数
+    private List<String> valid;
+    // 校验失败的参数
+    private List<String> invalid;
+
+    @Setup
+    public void setup() {
+        valid = Arrays.asList("a", "b", "c");
+        invalid = Collections.<String>emptyList();
+    }
+
+    @Benchmark
+    public Object generatedPass() {
+        return generated.sizeRange(valid);
+    }
+
+    @Benchmark
+    public Object generatedReject() {
+        try {
+            return generated.sizeRange(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object handWrittenPass() {
+        return handWritten.sizeRange(valid);
+    }
+
+    @Benchmark
+    public Object handWrittenReject() {
+        try {
+            return handWritten.sizeRange(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object uncheckedPass() {
+        return unchecked.sizeRange(valid);
+    }
+
+    @Benchmark
+    public Object uncheckedReject() {
+        return unchecked.sizeRange(invalid);
+    }
+}
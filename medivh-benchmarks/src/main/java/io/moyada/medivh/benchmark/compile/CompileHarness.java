@@ -0,0 +1,202 @@
+package io.moyada.medivh.benchmark.compile;
+
+import com.sun.source.util.JavacTask;
+import io.moyada.medivh.processor.ValidationGenerateProcessor;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 处理器编译吞吐基准，在当前进程内通过 {@link JavaCompiler} 编译合成源码
+ * 分别在不使用处理器与使用 {@link ValidationGenerateProcessor} 时统计各编译阶段的耗时、内存分配与堆峰值
+ *
+ * 参数依次为 类数量、每类成员组数、测量次数、预热次数，默认 50 10 5 3
+ * JDK 9 以上需要以 --add-opens 开放 jdk.compiler 内部包，处理器选项通过系统属性传入
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class CompileHarness {
+
+    private static final long NANOS_PER_MILLI = 1000L * 1000L;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    private final JavaCompiler compiler;
+
+    private final List<JavaFileObject> sources;
+
+    private CompileHarness(JavaCompiler compiler, List<JavaFileObject> sources) {
+        this.compiler = compiler;
+        this.sources = sources;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int classes = getArg(args, 0, 50);
+        int members = getArg(args, 1, 10);
+        int iterations = getArg(args, 2, 5);
+        int warmups = getArg(args, 3, 3);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (null == compiler) {
+            throw new IllegalStateException("No system java compiler, please run with a JDK.");
+        }
+
+        CompileHarness harness = new CompileHarness(compiler, SyntheticSource.generate(classes, members));
+        System.out.println("Compile " + classes * 2 + " classes with " + members + " member groups, "
+                + warmups + " warmup and " + iterations + " measurement iterations, java " + System.getProperty("java.version"));
+
+        for (int i = 0; i < warmups; i++) {
+            harness.compile(false);
+            harness.compile(true);
+        }
+
+        Map<String, PhaseRecorder.Phase> baseline = harness.measure(false, iterations);
+        Map<String, PhaseRecorder.Phase> processed = harness.measure(true, iterations);
+
+        print("without processor", baseline, iterations);
+        print("with ValidationGenerateProcessor", processed, iterations);
+
+        long overhead = getTotal(processed).time - getTotal(baseline).time;
+        System.out.println(String.format(Locale.ROOT, "%nProcessor overhead: %.1f ms per compilation",
+                (double) overhead / iterations / NANOS_PER_MILLI));
+    }
+
+    /**
+     * 多次编译并累加各阶段统计
+     * @param process 是否使用处理器
+     * @param iterations 编译次数
+     * @return 阶段统计
+     */
+    private Map<String, PhaseRecorder.Phase> measure(boolean process, int iterations) throws IOException {
+        Map<String, PhaseRecorder.Phase> result = new LinkedHashMap<String, PhaseRecorder.Phase>();
+        for (int i = 0; i < iterations; i++) {
+            for (Map.Entry<String, PhaseRecorder.Phase> entry : compile(process).entrySet()) {
+                PhaseRecorder.Phase phase = result.get(entry.getKey());
+                if (null == phase) {
+                    phase = new PhaseRecorder.Phase();
+                    result.put(entry.getKey(), phase);
+                }
+                phase.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 编译一次合成源码，输出至临时目录
+     * @param process 是否使用处理器
+     * @return 阶段统计
+     */
+    private Map<String, PhaseRecorder.Phase> compile(boolean process) throws IOException {
+        File output = createTempDir();
+        try {
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+            StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, Charset.forName("UTF-8"));
+
+            List<String> options = new ArrayList<String>(Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", output.getPath(),
+                    "-s", output.getPath(),
+                    "-nowarn"));
+            if (!process) {
+                options.add("-proc:none");
+            }
+
+            JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            if (process) {
+                task.setProcessors(Collections.<Processor>singletonList(new ValidationGenerateProcessor()));
+            }
+
+            // 在调用线程完成编译，阶段统计才能读取线程分配量
+            System.gc();
+            PhaseRecorder recorder = new PhaseRecorder();
+            task.addTaskListener(recorder);
+            recorder.start();
+            boolean success = task.call();
+            Map<String, PhaseRecorder.Phase> phases = recorder.stop();
+            fileManager.close();
+
+            if (!success) {
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                        System.err.println(diagnostic);
+                    }
+                }
+                throw new IllegalStateException("Compile synthetic sources failed.");
+            }
+            return phases;
+        } finally {
+            delete(output);
+        }
+    }
+
+    /**
+     * 输出各阶段平均耗时、平均分配量与最大堆峰值
+     * @param title 标题
+     * @param phases 阶段统计
+     * @param iterations 编译次数
+     */
+    private static void print(String title, Map<String, PhaseRecorder.Phase> phases, int iterations) {
+        System.out.println();
+        System.out.println("== " + title);
+        System.out.println(String.format(Locale.ROOT, "%-28s %12s %14s %14s", "phase", "time(ms)", "alloc(MB)", "peak heap(MB)"));
+        for (Map.Entry<String, PhaseRecorder.Phase> entry : phases.entrySet()) {
+            printRow(entry.getKey(), entry.getValue(), iterations);
+        }
+        printRow("TOTAL", getTotal(phases), iterations);
+    }
+
+    private static void printRow(String name, PhaseRecorder.Phase phase, int iterations) {
+        System.out.println(String.format(Locale.ROOT, "%-28s %12.1f %14.1f %14.1f", name,
+                (double) phase.time / iterations / NANOS_PER_MILLI,
+                phase.allocated / iterations / BYTES_PER_MB,
+                phase.peakHeap / BYTES_PER_MB));
+    }
+
+    private static PhaseRecorder.Phase getTotal(Map<String, PhaseRecorder.Phase> phases) {
+        PhaseRecorder.Phase total = new PhaseRecorder.Phase();
+        for (PhaseRecorder.Phase phase : phases.values()) {
+            total.add(phase);
+        }
+        return total;
+    }
+
+    private static int getArg(String[] args, int index, int defaultValue) {
+        if (args.length <= index) {
+            return defaultValue;
+        }
+        return Integer.parseInt(args[index]);
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = File.createTempFile("medivh-compile", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Can't create directory " + dir);
+        }
+        return dir;
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (null != files) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,164 @@
+package io.moyada.medivh.benchmark.compile;
+
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译阶段记录器，按编译器任务事件统计各阶段的耗时、内存分配与堆峰值
+ * 阶段嵌套时只计入最内层阶段，事件之外的耗时计入 OTHER
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+final class PhaseRecorder implements TaskListener {
+
+    // 任务事件之外的阶段
+    static final String OTHER = "OTHER";
+
+    // 进行中的阶段，栈顶为最内层
+    private final Deque<String> running = new LinkedList<String>();
+
+    // 阶段 - 统计
+    private final Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+
+    // 堆内存池
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+
+    // 线程分配统计，不支持时为 null
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    private final long threadId;
+
+    // 上次记录的时间与分配量
+    private long markTime;
+    private long markAllocated;
+
+    PhaseRecorder() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            this.threadBean = (com.sun.management.ThreadMXBean) bean;
+            this.threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.threadBean = null;
+        }
+        this.threadId = Thread.currentThread().getId();
+    }
+
+    /**
+     * 开始记录，编译需在当前线程执行
+     */
+    void start() {
+        resetPeak();
+        markTime = System.nanoTime();
+        markAllocated = getAllocated();
+    }
+
+    /**
+     * 结束记录
+     * @return 阶段统计
+     */
+    Map<String, Phase> stop() {
+        account();
+        return phases;
+    }
+
+    @Override
+    public void started(TaskEvent e) {
+        account();
+        running.push(e.getKind().name());
+    }
+
+    @Override
+    public void finished(TaskEvent e) {
+        account();
+        running.removeFirstOccurrence(e.getKind().name());
+    }
+
+    /**
+     * 将上次记录至今的消耗计入当前最内层阶段
+     */
+    private void account() {
+        long time = System.nanoTime();
+        long allocated = getAllocated();
+
+        String name = running.isEmpty() ? OTHER : running.peek();
+        Phase phase = phases.get(name);
+        if (null == phase) {
+            phase = new Phase();
+            phases.put(name, phase);
+        }
+        phase.time += time - markTime;
+        if (allocated >= 0) {
+            phase.allocated += allocated - markAllocated;
+        }
+        phase.peakHeap = Math.max(phase.peakHeap, getPeak());
+
+        resetPeak();
+        markTime = System.nanoTime();
+        markAllocated = getAllocated();
+    }
+
+    private long getAllocated() {
+        return null == threadBean ? -1L : threadBean.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * 各堆内存池峰值之和，各池峰值未必同时出现，结果为近似值
+     * @return 峰值字节数
+     */
+    private long getPeak() {
+        long peak = 0L;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private void resetPeak() {
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * 阶段统计
+     */
+    static final class Phase {
+
+        // 耗时，纳秒
+        long time;
+
+        // 内存分配，字节
+        long allocated;
+
+        // 堆峰值，字节
+        long peakHeap;
+
+        /**
+         * 累加其他统计，堆峰值取最大值
+         * @param other 统计
+         */
+        void add(Phase other) {
+            this.time += other.time;
+            this.allocated += other.allocated;
+            this.peakHeap = Math.max(this.peakHeap, other.peakHeap);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.moyada.medivh.benchmark.compile;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译基准的合成源码，生成 N 个规则类与 N 个服务类，每个类包含 M 组字段与方法
+ * 覆盖 io.moyada.medivh.annotation 下的全部注解
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+final class SyntheticSource extends SimpleJavaFileObject {
+
+    // 合成源码包名
+    static final String PACKAGE = "io.moyada.medivh.synthetic";
+
+    private final String content;
+
+    private SyntheticSource(String className, String content) {
+        super(URI.create("string:///" + PACKAGE.replace('.', '/') + "/" + className + Kind.SOURCE.extension), Kind.SOURCE);
+        this.content = content;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return content;
+    }
+
+    /**
+     * 生成源码
+     * @param classes 规则类、服务类各自的数量
+     * @param members 每个类的字段、方法组数
+     * @return 源码
+     */
+    static List<JavaFileObject> generate(int classes, int members) {
+        List<JavaFileObject> sources = new ArrayList<JavaFileObject>(classes * 2);
+        for (int i = 0; i < classes; i++) {
+            sources.add(new SyntheticSource("Model" + i, model(i, members)));
+            sources.add(new SyntheticSource("Service" + i, service(i, members)));
+        }
+        return sources;
+    }
+
+    /**
+     * 规则类，字段与无参方法上的规则生成嵌套校验方法
+     * @param index 类序号
+     * @param members 字段组数
+     * @return 源码
+     */
+    private static String model(int index, int members) {
+        StringBuilder source = header();
+        source.append("@Variable(\"check").append(index).append("\")\n");
+        if (index % 2 == 1) {
+            source.append("@Ordered\n");
+        }
+        source.append("public class Model").append(index).append(" {\n\n");
+        for (int j = 0; j < members; j++) {
+            source.append("    @NotNull @Size(min = 1, max = 32) private String name").append(j).append(";\n");
+            source.append("    @Min(0) @Max(100) private int count").append(j).append(";\n");
+            source.append("    @DecimalMin(0.5) @DecimalMax(99.5) private double ratio").append(j).append(";\n");
+            source.append("    @Nullable @NotBlank private String note").append(j).append(";\n");
+            source.append("    private List<@NotBlank String> tags").append(j).append(";\n");
+            source.append("    private Map<@NotBlank String, @Min(0) Integer> scores").append(j).append(";\n\n");
+
+            source.append("    @Size(max = 8)\n");
+            source.append("    public int[] values").append(j).append("() {\n");
+            source.append("        return new int[count").append(j).append("];\n");
+            source.append("    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * 服务类，方法参数使用基础规则、元素规则与嵌套规则
+     * @param index 类序号
+     * @param members 方法组数
+     * @return 源码
+     */
+    private static String service(int index, int members) {
+        StringBuilder source = header();
+        source.append("@Throw\n");
+        source.append("public class Service").append(index).append(" {\n\n");
+        for (int j = 0; j < members; j++) {
+            source.append("    public String call").append(j).append("(@NotNull Model").append(index).append(" model, ")
+                    .append("@NotBlank String name, @Min(1) @Max(9) int level, @Exclusive String raw) {\n");
+            source.append("        return name;\n");
+            source.append("    }\n\n");
+
+            source.append("    @Return(\"null\")\n");
+            source.append("    public String find").append(j).append("(@Size(max = 8) List<@NotNull String> keys, ")
+                    .append("@Nullable Model").append(index).append(" model) {\n");
+            source.append("        return null;\n");
+            source.append("    }\n\n");
+
+            source.append("    @Return({\"-1\"})\n");
+            source.append("    public int count").append(j).append("(@DecimalMin(0) @DecimalMax(1) double rate, ")
+                    .append("@Size(min = 1) int[] values) {\n");
+            source.append("        return values.length;\n");
+            source.append("    }\n\n");
+
+            source.append("    @Ordered @Variable(\"tmp").append(j).append("\")\n");
+            source.append("    @Throw(message = \"put").append(j).append("\", stackless = true)\n");
+            source.append("    public void put").append(j).append("(Map<@NotBlank String, @Min(0) Integer> values, @Min(0) long version) {\n");
+            source.append("    }\n\n");
+
+            source.append("    @Throw(preallocate = true)\n");
+            source.append("    public void check").append(j).append("(@NotBlank String code) {\n");
+            source.append("    }\n\n");
+
+            source.append("    @Exclusive\n");
+            source.append("    public void skip").append(j).append("(@NotNull Object value) {\n");
+            source.append("    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private static StringBuilder header() {
+        StringBuilder source = new StringBuilder(4096);
+        source.append("package ").append(PACKAGE).append(";\n\n");
+        source.append("import io.moyada.medivh.annotation.*;\n\n");
+        source.append("import java.util.List;\n");
+        source.append("import java.util.Map;\n\n");
+        return source;
+    }
+}
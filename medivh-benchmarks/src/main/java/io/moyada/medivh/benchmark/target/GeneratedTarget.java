@@ -0,0 +1,44 @@
+package io.moyada.medivh.benchmark.target;
+
+import cn.moyada.test.example.Product;
+import io.moyada.medivh.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 由处理器生成校验逻辑的目标方法
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@Throw
+public class GeneratedTarget {
+
+    public int notBlank(@NotBlank String name) {
+        return name.length();
+    }
+
+    public int number(@Min(0) @Max(1000) int count) {
+        return count;
+    }
+
+    public int sizeRange(@Size(min = 1, max = 20) List<String> values) {
+        return values.size();
+    }
+
+    public String queue(@Size(max = 100) ConcurrentLinkedQueue<String> tasks) {
+        return tasks.peek();
+    }
+
+    public int tags(List<@NotBlank String> tags) {
+        return tags.size();
+    }
+
+    public int scores(@Min(0) int[] scores) {
+        return scores.length;
+    }
+
+    public long nested(Product product) {
+        return product.getId();
+    }
+}
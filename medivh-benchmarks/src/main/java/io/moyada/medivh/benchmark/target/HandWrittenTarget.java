@@ -0,0 +1,150 @@
+package io.moyada.medivh.benchmark.target;
+
+import cn.moyada.test.example.Product;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 手写校验逻辑的目标方法，与 {@link GeneratedTarget} 生成逻辑保持一致
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class HandWrittenTarget {
+
+    private static final String MESSAGE = "Invalid input parameter, cause ";
+
+    public int notBlank(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException(MESSAGE + "name is null");
+        }
+        if (isBlank(name)) {
+            throw new IllegalArgumentException(MESSAGE + "name is blank");
+        }
+        return name.length();
+    }
+
+    public int number(int count) {
+        if (count > 1000) {
+            throw new IllegalArgumentException(MESSAGE + "count great than 1000");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException(MESSAGE + "count less than 0");
+        }
+        return count;
+    }
+
+    public int sizeRange(List<String> values) {
+        if (values == null) {
+            throw new IllegalArgumentException(MESSAGE + "values is null");
+        }
+        int size = values.size();
+        if (size > 20) {
+            throw new IllegalArgumentException(MESSAGE + "values.size() great than 20");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException(MESSAGE + "values.size() less than 1");
+        }
+        return size;
+    }
+
+    public String queue(ConcurrentLinkedQueue<String> tasks) {
+        if (tasks == null) {
+            throw new IllegalArgumentException(MESSAGE + "tasks is null");
+        }
+        // size() 需要遍历队列，只计数至上限
+        int count = 0;
+        Iterator<String> iterator = tasks.iterator();
+        while (count < 101 && iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        if (count > 100) {
+            throw new IllegalArgumentException(MESSAGE + "tasks.size() great than 100");
+        }
+        return tasks.peek();
+    }
+
+    public int tags(List<String> tags) {
+        if (tags == null) {
+            throw new IllegalArgumentException(MESSAGE + "tags is null");
+        }
+        // 常见的事后遍历校验，for-each 创建迭代器
+        for (String tag : tags) {
+            if (tag == null) {
+                throw new IllegalArgumentException(MESSAGE + "tags[] is null");
+            }
+            if (isBlank(tag)) {
+                throw new IllegalArgumentException(MESSAGE + "tags[] is blank");
+            }
+        }
+        return tags.size();
+    }
+
+    public int scores(int[] scores) {
+        if (scores == null) {
+            throw new IllegalArgumentException(MESSAGE + "scores is null");
+        }
+        for (int score : scores) {
+            if (score < 0) {
+                throw new IllegalArgumentException(MESSAGE + "scores[] less than 0");
+            }
+        }
+        return scores.length;
+    }
+
+    public long nested(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException(MESSAGE + "product is null");
+        }
+        String info = check(product);
+        if (info != null) {
+            throw new IllegalArgumentException(MESSAGE + info);
+        }
+        return product.getId();
+    }
+
+    /**
+     * 对应 {@link Product} 上的规则
+     * @param product 产品
+     * @return 校验失败信息，通过返回 null
+     */
+    private static String check(Product product) {
+        long id = product.getId();
+        if (id > 80L) {
+            return "getId great than 80";
+        }
+        if (id < -5L) {
+            return "getId less than -5";
+        }
+        String type = product.getType();
+        if (type != null && isBlank(type)) {
+            return "getType is blank";
+        }
+        List<?> store = product.getStore();
+        if (store != null) {
+            int size = store.size();
+            if (size > 10) {
+                return "getStore.size() great than 10";
+            }
+            if (size < 1) {
+                return "getStore.size() less than 1";
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(CharSequence str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
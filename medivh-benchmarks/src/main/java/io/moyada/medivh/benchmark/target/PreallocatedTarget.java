@@ -0,0 +1,21 @@
+package io.moyada.medivh.benchmark.target;
+
+import cn.moyada.test.example.Product;
+import io.moyada.medivh.annotation.*;
+
+/**
+ * 抛出预创建异常的目标方法，嵌套校验信息非常量仍创建异常
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@Throw(value = RuntimeException.class, preallocate = true)
+public class PreallocatedTarget {
+
+    public int number(@Min(0) @Max(1000) int count) {
+        return count;
+    }
+
+    public long nested(Product product) {
+        return product.getId();
+    }
+}
@@ -0,0 +1,49 @@
+package io.moyada.medivh.benchmark.target;
+
+import cn.moyada.test.example.Capacity;
+import cn.moyada.test.example.Product;
+
+import java.util.List;
+
+/**
+ * 使用示例 {@link Product} 规则的实现类
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class SimpleProduct implements Product {
+
+    private final long id;
+
+    private final String name;
+
+    private final String type;
+
+    private final List<Capacity> store;
+
+    public SimpleProduct(long id, String name, String type, List<Capacity> store) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.store = store;
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public List<Capacity> getStore() {
+        return store;
+    }
+}
@@ -0,0 +1,21 @@
+package io.moyada.medivh.benchmark.target;
+
+import cn.moyada.test.example.Product;
+import io.moyada.medivh.annotation.*;
+
+/**
+ * 抛出不填充堆栈异常的目标方法
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@Throw(stackless = true)
+public class StacklessTarget {
+
+    public int number(@Min(0) @Max(1000) int count) {
+        return count;
+    }
+
+    public long nested(Product product) {
+        return product.getId();
+    }
+}
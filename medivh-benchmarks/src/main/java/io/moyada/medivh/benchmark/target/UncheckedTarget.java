@@ -0,0 +1,42 @@
+package io.moyada.medivh.benchmark.target;
+
+import cn.moyada.test.example.Product;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 无校验逻辑的基准方法
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class UncheckedTarget {
+
+    public int notBlank(String name) {
+        return name.length();
+    }
+
+    public int number(int count) {
+        return count;
+    }
+
+    public int sizeRange(List<String> values) {
+        return values.size();
+    }
+
+    public String queue(ConcurrentLinkedQueue<String> tasks) {
+        return tasks.peek();
+    }
+
+    public int tags(List<String> tags) {
+        return tags.size();
+    }
+
+    public int scores(int[] scores) {
+        return scores.length;
+    }
+
+    public long nested(Product product) {
+        return product.getId();
+    }
+}
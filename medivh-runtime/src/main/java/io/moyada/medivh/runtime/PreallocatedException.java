@@ -0,0 +1,17 @@
+package io.moyada.medivh.runtime;
+
+/**
+ * 预创建的校验异常，与 META-INF/PreallocatedException.rs 模板一致
+ * 由 {@code @Throw(preallocate = true)} 的校验逻辑抛出，同一实例由所有调用方共享，需要 Java 7 或以上版本，
+ * 创建时关闭堆栈、抑制异常与异常原因，共享实例不会被 try-with-resources 追加抑制异常或被 initCause 修改
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class PreallocatedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreallocatedException(String message) {
+        super(message, null, false, false);
+    }
+}
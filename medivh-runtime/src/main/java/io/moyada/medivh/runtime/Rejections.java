@@ -0,0 +1,173 @@
+package io.moyada.medivh.runtime;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 校验拒绝计数，由 -Amedivh.metrics 开启
+ * 生成的校验逻辑在类初始化时为每个失败分支注册计数点，将编号保存为静态常量，失败分支执行动作前累加计数，
+ * 校验通过时不执行任何计数逻辑，计数使用 {@link LongAdder} 分段累加，并发拒绝时不争用同一缓存行
+ * 需要 Java 8 或以上版本
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class Rejections {
+
+    // 管理接口注册名
+    public static final String OBJECT_NAME = "io.moyada.medivh:type=Rejections";
+
+    // 是否注册管理接口配置
+    private static final String JMX_KEY = "medivh.rejections.jmx";
+
+    // 计数点标识 - 编号
+    private static final ConcurrentMap<String, Integer> IDS = new ConcurrentHashMap<String, Integer>();
+
+    // 计数点，下标为编号，注册时复制扩容
+    private static volatile Site[] sites = new Site[0];
+
+    static {
+        if (!Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(JMX_KEY))) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Manager(), new ObjectName(OBJECT_NAME));
+            } catch (Exception ignored) {
+                // 已由其他类加载器注册，仍可通过 sites 方法读取
+            } catch (LinkageError ignored) {
+                // 运行环境不包含管理模块，仍可通过 sites 方法读取
+            }
+        }
+    }
+
+    private Rejections() {
+    }
+
+    /**
+     * 注册计数点，相同方法、参数与规则返回同一编号
+     * @param method 校验方法
+     * @param parameter 参数或字段
+     * @param rule 规则
+     * @return 编号
+     */
+    public static int register(String method, String parameter, String rule) {
+        String key = method + '\n' + parameter + '\n' + rule;
+        Integer id = IDS.get(key);
+        if (null != id) {
+            return id;
+        }
+
+        synchronized (IDS) {
+            id = IDS.get(key);
+            if (null == id) {
+                Site[] current = sites;
+                Site[] expand = Arrays.copyOf(current, current.length + 1);
+                expand[current.length] = new Site(method, parameter, rule);
+                sites = expand;
+
+                id = current.length;
+                IDS.put(key, id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 累加拒绝次数
+     * @param id {@link #register(String, String, String)} 返回的编号
+     */
+    public static void reject(int id) {
+        sites[id].counter.increment();
+    }
+
+    /**
+     * 获取已注册的计数点
+     * @return 计数点集合，按注册顺序排列
+     */
+    public static List<Site> sites() {
+        return Collections.unmodifiableList(Arrays.asList(sites));
+    }
+
+    /**
+     * 清空所有计数
+     */
+    public static void reset() {
+        for (Site site : sites) {
+            site.counter.reset();
+        }
+    }
+
+    /**
+     * 计数点
+     */
+    public static final class Site {
+
+        // 校验方法
+        private final String method;
+
+        // 参数或字段
+        private final String parameter;
+
+        // 规则
+        private final String rule;
+
+        // 拒绝次数
+        private final LongAdder counter = new LongAdder();
+
+        private Site(String method, String parameter, String rule) {
+            this.method = method;
+            this.parameter = parameter;
+            this.rule = rule;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public long getCount() {
+            return counter.sum();
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + parameter + " " + rule + " = " + getCount();
+        }
+    }
+
+    /**
+     * 管理接口实现
+     */
+    private static class Manager implements RejectionsMXBean {
+
+        @Override
+        public List<Site> getSites() {
+            return new ArrayList<Site>(sites());
+        }
+
+        @Override
+        public long getTotal() {
+            long total = 0L;
+            for (Site site : sites) {
+                total += site.getCount();
+            }
+            return total;
+        }
+
+        @Override
+        public void reset() {
+            Rejections.reset();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.moyada.medivh.runtime;
+
+import java.util.List;
+
+/**
+ * 校验拒绝计数的管理接口，注册为 {@link Rejections#OBJECT_NAME}
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public interface RejectionsMXBean {
+
+    /**
+     * @return 已注册的计数点，包含校验方法、参数、规则与拒绝次数
+     */
+    List<Rejections.Site> getSites();
+
+    /**
+     * @return 拒绝总次数
+     */
+    long getTotal();
+
+    /**
+     * 清空所有计数
+     */
+    void reset();
+}
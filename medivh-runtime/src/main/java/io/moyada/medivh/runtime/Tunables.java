@@ -0,0 +1,179 @@
+package io.moyada.medivh.runtime;
+
+import javax.management.ObjectName;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 运行期可调整的校验边界，由 {@code @Min(tunable = ...)}、{@code @Max(tunable = ...)}、{@code @Size(tunable = ...)} 使用
+ * 每个名称对应一个 {@link MutableCallSite}，生成的校验逻辑将其调用句柄保存为静态常量，
+ * JIT 将边界视为常量编译，修改时使依赖的编译代码失效后重新编译，校验时无需读取 volatile 变量
+ * 常量折叠依赖 C2 将 {@link #get(MethodHandle)} 内联至校验方法，使句柄作为常量传入 invokeExact，
+ * 该方法字节码很小，通常随调用方内联；解释执行、C1 编译或调用方超过内联上限时经调用点动态读取，结果不变
+ * 需要 Java 7 或以上版本
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class Tunables {
+
+    // 管理接口注册名
+    public static final String OBJECT_NAME = "io.moyada.medivh:type=Tunables";
+
+    // 是否注册管理接口配置
+    private static final String JMX_KEY = "medivh.tunables.jmx";
+
+    // 名称 - 调用点
+    private static final ConcurrentMap<String, MutableCallSite> SITES = new ConcurrentHashMap<String, MutableCallSite>();
+
+    static {
+        if (!Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(JMX_KEY))) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Manager(), new ObjectName(OBJECT_NAME));
+            } catch (Exception ignored) {
+                // 已由其他类加载器注册，仍可通过 set 方法修改
+            } catch (LinkageError ignored) {
+                // 运行环境不包含管理模块，仍可通过 set 方法修改
+            }
+        }
+    }
+
+    private Tunables() {
+    }
+
+    /**
+     * 注册边界，已注册的名称保留当前值
+     * @param name 名称
+     * @param defaultValue 默认值
+     * @return 读取边界的调用句柄，类型为 ()long
+     */
+    public static MethodHandle register(String name, long defaultValue) {
+        return getSite(name, defaultValue).dynamicInvoker();
+    }
+
+    /**
+     * 读取边界，句柄为静态常量且本方法内联至调用方时由 JIT 折叠为常量
+     * @param handle {@link #register(String, long)} 返回的调用句柄
+     * @return 当前值
+     */
+    public static long get(MethodHandle handle) {
+        try {
+            return (long) handle.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 按名称读取边界，每次调用查找调用点，生成的校验逻辑使用静态常量句柄
+     * @param name 名称
+     * @param defaultValue 默认值
+     * @return 当前值
+     */
+    public static long get(String name, long defaultValue) {
+        return get(getSite(name, defaultValue).getTarget());
+    }
+
+    /**
+     * 读取空间上限的计数上限，用于 size() 需要遍历的集合只计数至上限 + 1
+     * @param handle {@link #register(String, long)} 返回的调用句柄
+     * @return 上限 + 1，限制在 [0, Integer.MAX_VALUE] 范围内
+     */
+    public static int limit(MethodHandle handle) {
+        return toLimit(get(handle));
+    }
+
+    /**
+     * 按名称读取空间上限的计数上限，每次调用查找调用点，生成的校验逻辑使用静态常量句柄
+     * @param name 名称
+     * @param defaultValue 默认值
+     * @return 上限 + 1，限制在 [0, Integer.MAX_VALUE] 范围内
+     */
+    public static int limit(String name, long defaultValue) {
+        return toLimit(get(name, defaultValue));
+    }
+
+    private static int toLimit(long max) {
+        if (max < 0L) {
+            return 0;
+        }
+        if (max >= Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) max + 1;
+    }
+
+    /**
+     * 修改边界，未注册的名称直接创建，之后注册时使用该值
+     * @param name 名称
+     * @param value 边界值
+     */
+    public static void set(String name, long value) {
+        MutableCallSite site = getSite(name, value);
+        site.setTarget(MethodHandles.constant(long.class, value));
+        MutableCallSite.syncAll(new MutableCallSite[]{site});
+    }
+
+    /**
+     * 获取边界当前值
+     * @param name 名称
+     * @return 未注册返回 null
+     */
+    public static Long value(String name) {
+        MutableCallSite site = SITES.get(name);
+        return null == site ? null : get(site.getTarget());
+    }
+
+    /**
+     * 获取已注册的名称
+     * @return 名称集合
+     */
+    public static Set<String> names() {
+        return new TreeSet<String>(SITES.keySet());
+    }
+
+    /**
+     * 获取调用点，不存在则使用默认值创建
+     * @param name 名称
+     * @param defaultValue 默认值
+     * @return 调用点
+     */
+    private static MutableCallSite getSite(String name, long defaultValue) {
+        MutableCallSite site = SITES.get(name);
+        if (null == site) {
+            site = new MutableCallSite(MethodHandles.constant(long.class, defaultValue));
+            MutableCallSite exist = SITES.putIfAbsent(name, site);
+            if (null != exist) {
+                site = exist;
+            }
+        }
+        return site;
+    }
+
+    /**
+     * 管理接口实现
+     */
+    private static class Manager implements TunablesMXBean {
+
+        @Override
+        public String[] getNames() {
+            Set<String> names = names();
+            return names.toArray(new String[names.size()]);
+        }
+
+        @Override
+        public Long getValue(String name) {
+            return value(name);
+        }
+
+        @Override
+        public void setValue(String name, long value) {
+            set(name, value);
+        }
+    }
+}
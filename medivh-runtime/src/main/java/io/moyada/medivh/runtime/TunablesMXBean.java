@@ -0,0 +1,27 @@
+package io.moyada.medivh.runtime;
+
+/**
+ * 可调整边界的管理接口，注册为 {@link Tunables#OBJECT_NAME}
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public interface TunablesMXBean {
+
+    /**
+     * @return 已注册的名称
+     */
+    String[] getNames();
+
+    /**
+     * @param name 名称
+     * @return 当前值，未注册返回 null
+     */
+    Long getValue(String name);
+
+    /**
+     * 修改边界，依赖该边界的编译代码失效后重新编译
+     * @param name 名称
+     * @param value 边界值
+     */
+    void setValue(String name, long value);
+}
@@ -0,0 +1,96 @@
+package io.moyada.medivh.runtime;
+
+import java.nio.CharBuffer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 校验工具，生成的校验逻辑调用的公共方法
+ * 编译类路径存在本类时处理器不再为每个模块生成工具类，所有模块共用一份方法及其 JIT 编译结果
+ * 空白字符串仅判断空格，与 META-INF/util/Blank.rs 模板一致
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class Util {
+
+    private Util() {
+    }
+
+    /**
+     * 是否为空白字符串
+     * @param str 字符序列
+     * @return 长度为 0 或仅包含空格返回 true
+     */
+    public static boolean isBlank(CharSequence str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(String str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(StringBuilder str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(CharBuffer str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 有界计数，最多遍历 limit 个元素，用于 size() 需要遍历的集合
+     * @param collection 集合
+     * @param limit 计数上限
+     * @return 元素数量，超过上限返回 limit
+     */
+    public static int sizeOf(Collection<?> collection, int limit) {
+        int count = 0;
+        Iterator<?> iterator = collection.iterator();
+        while (count < limit && iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    public static int sizeOf(Map<?, ?> map, int limit) {
+        return sizeOf(map.keySet(), limit);
+    }
+}
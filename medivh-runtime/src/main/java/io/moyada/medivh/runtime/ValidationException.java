@@ -0,0 +1,44 @@
+package io.moyada.medivh.runtime;
+
+/**
+ * 校验异常，不填充堆栈，与 META-INF/ValidationException.rs 模板一致
+ * 由 {@code @Throw(stackless = true)} 或 {@code @Throw(preallocate = true)} 的校验逻辑抛出
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    // 延迟拼接的异常信息
+    private final String detail;
+
+    public ValidationException(String message) {
+        super(message);
+        this.detail = null;
+    }
+
+    /**
+     * 异常信息在读取时拼接
+     * @param message 信息头
+     * @param detail 信息详情
+     */
+    public ValidationException(String message, String detail) {
+        super(message);
+        this.detail = detail;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        if (null == detail) {
+            return message;
+        }
+        return message + detail;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
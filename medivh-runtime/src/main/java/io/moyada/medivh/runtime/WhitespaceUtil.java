@@ -0,0 +1,97 @@
+package io.moyada.medivh.runtime;
+
+import java.nio.CharBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 校验工具，配置 medivh.blank.whitespace 时使用
+ * 空白字符串按 {@link Character#isWhitespace(char)} 判断，与 META-INF/util/BlankWhitespace.rs 模板一致
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class WhitespaceUtil {
+
+    private WhitespaceUtil() {
+    }
+
+    /**
+     * 是否为空白字符串
+     * ASCII 空白字符均小于 64，通过位表判断，其余字符调用 {@link Character#isWhitespace(char)}
+     * @param str 字符序列
+     * @return 长度为 0 或仅包含空白字符返回 true
+     */
+    public static boolean isBlank(CharSequence str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch < 64 ? (0x1F0003E00L >> ch & 1L) == 0L : ch < 128 || !Character.isWhitespace(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(String str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch < 64 ? (0x1F0003E00L >> ch & 1L) == 0L : ch < 128 || !Character.isWhitespace(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(StringBuilder str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch < 64 ? (0x1F0003E00L >> ch & 1L) == 0L : ch < 128 || !Character.isWhitespace(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(CharBuffer str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch < 64 ? (0x1F0003E00L >> ch & 1L) == 0L : ch < 128 || !Character.isWhitespace(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 有界计数，与 {@link Util#sizeOf(Collection, int)} 共用实现
+     * @param collection 集合
+     * @param limit 计数上限
+     * @return 元素数量，超过上限返回 limit
+     */
+    public static int sizeOf(Collection<?> collection, int limit) {
+        return Util.sizeOf(collection, limit);
+    }
+
+    public static int sizeOf(Map<?, ?> map, int limit) {
+        return Util.sizeOf(map, limit);
+    }
+}
@@ -0,0 +1,208 @@
+package io.moyada.medivh.runtime;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工具类与处理器模板一致性测试
+ * 处理器未开启 medivh.runtime 时将 META-INF/util 下的模板生成到每个模块，两者行为需保持一致
+ * 编译模板后与 {@link Util}、{@link WhitespaceUtil} 逐个比较全部单字符及常见字符串的空白判断与有界计数结果
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class TemplateSyncTest {
+
+    // 处理器模板目录，相对于 medivh-runtime 模块
+    private static final String TEMPLATE_DIR = "../src/main/resources/META-INF/util/";
+
+    private static Class<?> blankUtil;
+
+    private static Class<?> whitespaceUtil;
+
+    @BeforeClass
+    public static void compileTemplates() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(compiler);
+
+        File dir = createTempDir();
+        File blank = writeClass(dir, "BlankUtil", "Blank.rs", "Size.rs");
+        File whitespace = writeClass(dir, "BlankWhitespaceUtil", "BlankWhitespace.rs", "Size.rs");
+        int result = compiler.run(null, null, null, "-d", dir.getPath(), blank.getPath(), whitespace.getPath());
+        Assert.assertEquals("templates failed to compile", 0, result);
+
+        ClassLoader classLoader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, TemplateSyncTest.class.getClassLoader());
+        blankUtil = classLoader.loadClass("BlankUtil");
+        whitespaceUtil = classLoader.loadClass("BlankWhitespaceUtil");
+    }
+
+    @Test
+    public void testBlank() throws Exception {
+        assertBlank(blankUtil, Util.class);
+    }
+
+    @Test
+    public void testBlankWhitespace() throws Exception {
+        assertBlank(whitespaceUtil, WhitespaceUtil.class);
+    }
+
+    @Test
+    public void testSize() throws Exception {
+        assertSize(blankUtil, Util.class);
+        assertSize(whitespaceUtil, WhitespaceUtil.class);
+    }
+
+    /**
+     * 比较各重载方法的空白判断结果
+     * @param template 模板生成的类
+     * @param runtime 工具类
+     */
+    private static void assertBlank(Class<?> template, Class<?> runtime) throws Exception {
+        List<String> samples = getSamples();
+        Class<?>[] types = {CharSequence.class, String.class, StringBuilder.class, CharBuffer.class};
+        for (Class<?> type : types) {
+            Method expected = template.getMethod("isBlank", type);
+            Method actual = runtime.getMethod("isBlank", type);
+            for (String value : samples) {
+                Assert.assertEquals(type.getSimpleName() + " \"" + escape(value) + "\"",
+                        invoke(expected, toArg(type, value)), invoke(actual, toArg(type, value)));
+            }
+        }
+    }
+
+    /**
+     * 比较集合与 Map 的有界计数结果
+     * @param template 模板生成的类
+     * @param runtime 工具类
+     */
+    private static void assertSize(Class<?> template, Class<?> runtime) throws Exception {
+        Method expectedCollection = template.getMethod("sizeOf", Collection.class, int.class);
+        Method actualCollection = runtime.getMethod("sizeOf", Collection.class, int.class);
+        Method expectedMap = template.getMethod("sizeOf", Map.class, int.class);
+        Method actualMap = runtime.getMethod("sizeOf", Map.class, int.class);
+
+        for (int size = 0; size < 5; size++) {
+            List<Integer> list = new ArrayList<Integer>();
+            Map<Integer, Integer> map = new HashMap<Integer, Integer>();
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+                map.put(i, i);
+            }
+            for (int limit = 0; limit < 6; limit++) {
+                Assert.assertEquals(invoke(expectedCollection, list, limit), invoke(actualCollection, list, limit));
+                Assert.assertEquals(invoke(expectedMap, map, limit), invoke(actualMap, map, limit));
+            }
+        }
+    }
+
+    /**
+     * @return 全部单字符字符串及常见的空白组合
+     */
+    private static List<String> getSamples() {
+        List<String> samples = new ArrayList<String>(Character.MAX_VALUE + 8);
+        samples.add("");
+        samples.add("  ");
+        samples.add(" a ");
+        samples.add("\t\n\r ");
+        samples.add(" \u3000 ");
+        samples.add("\u00a0\u2007\u202f");
+        for (int ch = Character.MIN_VALUE; ch <= Character.MAX_VALUE; ch++) {
+            samples.add(String.valueOf((char) ch));
+        }
+        return samples;
+    }
+
+    private static Object toArg(Class<?> type, String value) {
+        if (type == StringBuilder.class) {
+            return new StringBuilder(value);
+        }
+        if (type == CharBuffer.class) {
+            return CharBuffer.wrap(value);
+        }
+        if (type == CharSequence.class) {
+            return new StringBuffer(value);
+        }
+        return value;
+    }
+
+    private static Object invoke(Method method, Object... args) throws Exception {
+        try {
+            return method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            builder.append(String.format("\\u%04x", (int) value.charAt(i)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 将模板方法包装为类
+     * @param dir 源码目录
+     * @param className 类名
+     * @param templates 模板文件名
+     * @return 源码文件
+     */
+    private static File writeClass(File dir, String className, String... templates) throws IOException {
+        File source = new File(dir, className + ".java");
+        OutputStream outputStream = new FileOutputStream(source);
+        try {
+            outputStream.write(("public final class " + className + " {\n").getBytes("UTF-8"));
+            for (String template : templates) {
+                copy(new File(TEMPLATE_DIR + template), outputStream);
+                outputStream.write('\n');
+            }
+            outputStream.write("}\n".getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+        return source;
+    }
+
+    private static void copy(File file, OutputStream outputStream) throws IOException {
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[4096];
+            int read;
+            while ((read = inputStream.read(bytes)) > 0) {
+                outputStream.write(bytes, 0, read);
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = File.createTempFile("medivh-template", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Can't create directory " + dir);
+        }
+        dir.deleteOnExit();
+        return dir;
+    }
+}
@@ -9,8 +9,8 @@ import java.lang.annotation.*;
  * @since 1.3.0
  **/
 @Documented
-@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
-@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.CLASS)
 public @interface DecimalMin {
 
     /**
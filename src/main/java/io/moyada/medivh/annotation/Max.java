@@ -9,12 +9,18 @@ import java.lang.annotation.*;
  * @since 1.3.0
  **/
 @Documented
-@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
-@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.CLASS)
 public @interface Max {
 
     /**
      * @return 整数最大值
      */
     long value();
+
+    /**
+     * 运行期可调整的最大值名称，通过 medivh-runtime 的 Tunables 修改，未修改时使用 value
+     * @return 名称，为空时最大值固定
+     */
+    String tunable() default "";
 }
@@ -0,0 +1,16 @@
+package io.moyada.medivh.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 按声明顺序生成校验
+ * 开启 medivh.order.cost 时按规则估算开销由低到高生成校验，使用该注解的方法或类保持参数、属性及规则的声明顺序
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.CLASS)
+public @interface Ordered {
+
+}
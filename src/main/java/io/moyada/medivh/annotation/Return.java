@@ -9,7 +9,7 @@ import java.lang.annotation.*;
  **/
 @Documented
 @Target({ElementType.PARAMETER, ElementType.METHOD})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Return {
 
     /**
@@ -8,8 +8,8 @@ import java.lang.annotation.*;
  * @since 1.3.0
  **/
 @Documented
-@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
-@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.CLASS)
 public @interface Size {
 
     /**
@@ -23,4 +23,10 @@ public @interface Size {
      * @return 数值
      */
     int max() default Integer.MAX_VALUE;
+
+    /**
+     * 运行期可调整的最大空间大小/长度名称，通过 medivh-runtime 的 Tunables 修改，未修改时使用 max
+     * @return 名称，为空时最大值固定
+     */
+    String tunable() default "";
 }
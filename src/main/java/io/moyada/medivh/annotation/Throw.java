@@ -9,7 +9,7 @@ import java.lang.annotation.*;
  **/
 @Documented
 @Target({ElementType.PARAMETER, ElementType.METHOD, ElementType.TYPE})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Throw {
 
     /**
@@ -23,4 +23,21 @@ public @interface Throw {
      * @return 异常信息
      */
     String message() default "";
+
+    /**
+     * 抛出不填充堆栈的 ValidationException，由处理器生成，继承于 IllegalArgumentException
+     * 配置 value() 时需为 IllegalArgumentException 或其父类
+     * @return 是否不填充堆栈
+     * @since 1.3.2
+     */
+    boolean stackless() default false;
+
+    /**
+     * 校验信息为常量时预先创建异常实例并重复抛出，抛出由处理器生成的 PreallocatedException，继承于 RuntimeException
+     * 共享实例需关闭堆栈、抑制异常与异常原因，IllegalArgumentException 无法关闭抑制异常，因此 value() 需为 RuntimeException 或其父类，
+     * 且源码版本需为 Java 7 或以上
+     * @return 是否预先创建异常
+     * @since 1.3.2
+     */
+    boolean preallocate() default false;
 }
@@ -9,7 +9,7 @@ import java.lang.annotation.*;
  **/
 @Documented
 @Target({ElementType.METHOD, ElementType.TYPE})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Variable {
 
     /**
@@ -2,15 +2,22 @@ package io.moyada.medivh.processor;
 
 
 import com.sun.source.util.Trees;
+import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.TreeTranslator;
 import com.sun.tools.javac.util.Context;
 import io.moyada.medivh.annotation.*;
+import io.moyada.medivh.support.ByteCodeReport;
+import io.moyada.medivh.support.ClassMemberSupport;
+import io.moyada.medivh.support.ClassTypeSupport;
 import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.ProcessorContext;
+import io.moyada.medivh.support.ProcessorProfile;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.util.ClassUtil;
 import io.moyada.medivh.util.ElementUtil;
+import io.moyada.medivh.visitor.ClassMemberTranslator;
 import io.moyada.medivh.visitor.CustomRuleTranslator;
 import io.moyada.medivh.visitor.UtilMethodTranslator;
 import io.moyada.medivh.visitor.ValidationTranslator;
@@ -19,6 +26,7 @@ import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
 import javax.tools.Diagnostic;
 import java.lang.annotation.Annotation;
 import java.util.*;
@@ -34,18 +42,33 @@ public class ValidationGenerateProcessor extends AbstractProcessor {
     // 规则注解
     private List<Class<? extends Annotation>> ruleAnnos;
 
+    // 校验标记注解
+    private List<Class<? extends Annotation>> checkAnnos;
+
+    // 已处理的方法及规则类
+    private Set<Element> processedElements;
+
     // 信息输出体
     private Messager messager;
 
-    // 处理器上下文
+    // 编译器上下文
     private Context context;
 
+    // 本次编译的处理器上下文
+    private ProcessorContext processorContext;
+
     // 语法树
     private Trees trees;
 
     // 文件处理器
     private Filer filer;
 
+    // 字节码增长报告
+    private ByteCodeReport byteCodeReport;
+
+    // 处理轮次
+    private int round;
+
     public ValidationGenerateProcessor() {
         ruleAnnos = new ArrayList<Class<? extends Annotation>>();
         ruleAnnos.add(Nullable.class);
@@ -56,6 +79,12 @@ public class ValidationGenerateProcessor extends AbstractProcessor {
         ruleAnnos.add(Min.class);
         ruleAnnos.add(Max.class);
         ruleAnnos.add(Size.class);
+
+        checkAnnos = new ArrayList<Class<? extends Annotation>>();
+        checkAnnos.add(Throw.class);
+        checkAnnos.add(Return.class);
+
+        processedElements = new HashSet<Element>();
     }
 
     @Override
@@ -64,48 +93,136 @@ public class ValidationGenerateProcessor extends AbstractProcessor {
 
         ClassUtil.disableJava9SillyWarning();
 
-        this.context = ((JavacProcessingEnvironment) processingEnv).getContext();
+        // 文件与信息输出使用构建工具包装的环境，增量构建需要记录生成文件
         this.filer = processingEnv.getFiler();
-        this.trees = Trees.instance(processingEnv);
         this.messager = processingEnv.getMessager();
 
+        // 语法树只能通过 javac 原始环境获取
+        JavacProcessingEnvironment javacEnv = ClassUtil.getJavacProcessingEnvironment(processingEnv);
+        if (null == javacEnv) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Can't find javac processing environment from " +
+                    processingEnv.getClass().getName() + ", medivh only supports javac.");
+            return;
+        }
+        this.context = javacEnv.getContext();
+        this.trees = Trees.instance(javacEnv);
+
+        // 配置与生成状态归属于本次编译，同一 JVM 中的其他编译互不影响
+        this.processorContext = new ProcessorContext(new ElementOptions(processingEnv.getOptions()));
+        this.processorContext.setSourceVersion(processingEnv.getSourceVersion());
+        this.byteCodeReport = new ByteCodeReport(messager, filer);
+        this.round = 0;
+
         messager.printMessage(Diagnostic.Kind.NOTE, "start generated validation processor");
+
+        useRuntime(processingEnv.getElementUtils());
+        checkMetrics(processingEnv.getElementUtils());
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        Set<? extends Element> rootElements = roundEnv.getRootElements();
-        // 获取校验方法
-        Collection<? extends Element> methods = ElementUtil.getMethods(trees, rootElements, Throw.class.getName(), Return.class.getName());
-        if (methods.isEmpty()) {
+        // 非 javac 环境不处理
+        if (null == context) {
+            return true;
+        }
+        // 最后一轮不会产生新的源码元素，输出所有轮次的字节码报告，Filer 中同一文件只能创建一次
+        if (roundEnv.processingOver()) {
+            byteCodeReport.write(processorContext.getOptions().getReportPath());
             return true;
         }
 
-        // 获取对象规则
+        processorContext.bind();
+        try {
+            generate(roundEnv);
+        } finally {
+            ProcessorContext.unbind();
+        }
+        return true;
+    }
+
+    /**
+     * 生成本轮的校验逻辑
+     * @param roundEnv 根环境
+     */
+    private void generate(RoundEnvironment roundEnv) {
+        ElementOptions options = processorContext.getOptions();
+        ProcessorProfile profile = new ProcessorProfile(messager, filer, options.getProfilePath(), ++round);
+
+        Set<? extends Element> rootElements = roundEnv.getRootElements();
+        // 获取校验方法
+        long begin = profile.begin();
+        Set<Element> methods = ElementUtil.getMethods(trees, roundEnv, checkAnnos);
+        methods.removeAll(processedElements);
+        profile.end("getMethods", begin);
+
+        // 获取对象规则，增量编译时规则类可能单独编译，不依赖本次是否存在校验方法
+        begin = profile.begin();
         Map<? extends Element, List<String>> classRules = ElementUtil.aggregateRule(roundEnv, ruleAnnos);
+        classRules.keySet().removeAll(processedElements);
+        profile.end("aggregateRule", begin);
+        if (methods.isEmpty() && classRules.isEmpty()) {
+            profile.write();
+            return;
+        }
+        processedElements.addAll(methods);
+        processedElements.addAll(classRules.keySet());
 
         SyntaxTreeMaker syntaxTreeMaker = SyntaxTreeMaker.newInstance(context);
 
+        begin = profile.begin();
         createUtilMethod(roundEnv, rootElements, syntaxTreeMaker);
+        profile.end("createUtilMethod", begin);
+
+        begin = profile.begin();
+        ElementUtil.createException(filer, processingEnv.getElementUtils(), roundEnv);
+        profile.end("createException", begin);
+
+        // 类型类别缓存，规则类与校验方法共用
+        ClassTypeSupport classTypeSupport = new ClassTypeSupport(syntaxTreeMaker);
+
+        // 校验逻辑依赖的类成员，规则类与校验方法共用
+        ClassMemberSupport classMemberSupport = new ClassMemberSupport(syntaxTreeMaker);
 
         TreeTranslator translator;
         // 校验方法生成器
         if (!classRules.isEmpty()) {
-            translator = new CustomRuleTranslator(syntaxTreeMaker, messager, classRules);
+            begin = profile.begin();
+            translator = new CustomRuleTranslator(syntaxTreeMaker, messager, classTypeSupport, classMemberSupport, profile, classRules);
             for (Element element : classRules.keySet()) {
                 JCTree tree = (JCTree) trees.getTree(element);
+                // 增量编译时由 class 文件提供的类无语法树
+                if (null == tree) {
+                    continue;
+                }
                 tree.accept(translator);
             }
+            profile.addElements(classRules.size());
+            profile.end("customRuleTranslator", begin);
         }
 
         // 校验逻辑生成器
-        translator = new ValidationTranslator(syntaxTreeMaker, messager);
+        begin = profile.begin();
+        translator = new ValidationTranslator(syntaxTreeMaker, messager, classTypeSupport, classMemberSupport,
+                byteCodeReport, profile);
         for (Element element : methods) {
             JCTree tree = (JCTree) trees.getTree(element);
             tree.accept(translator);
         }
+        profile.addElements(methods.size());
+        profile.end("validationTranslator", begin);
 
-        return true;
+        // 追加校验逻辑依赖的成员
+        if (!classMemberSupport.getClasses().isEmpty()) {
+            begin = profile.begin();
+            translator = new ClassMemberTranslator(syntaxTreeMaker, messager, classMemberSupport);
+            for (Symbol classSymbol : classMemberSupport.getClasses()) {
+                JCTree tree = (JCTree) trees.getTree(classSymbol);
+                tree.accept(translator);
+            }
+            profile.end("classMemberTranslator", begin);
+        }
+
+        profile.write();
     }
 
     /**
@@ -116,14 +233,21 @@ public class ValidationGenerateProcessor extends AbstractProcessor {
      * @param syntaxTreeMaker 语句构造器
      */
     private void createUtilMethod(RoundEnvironment roundEnv, Collection<? extends Element> elements, SyntaxTreeMaker syntaxTreeMaker) {
-        boolean createFile = !Boolean.FALSE.toString().equalsIgnoreCase(ElementOptions.UTIL_CREATE);
-        if (createFile) {
-            ElementUtil.createUtil(filer, roundEnv);
-            messager.printMessage(Diagnostic.Kind.NOTE, "Created util class " + ElementOptions.UTIL_CLASS);
+        // 已在之前的轮次中创建
+        if (null != processorContext.getUtilClass()) {
+            return;
+        }
+        if (processorContext.getOptions().isCreateUtil()) {
+            boolean created = ElementUtil.createUtil(filer, processingEnv.getElementUtils(), roundEnv);
+            if (created) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "Created util class " + processorContext.getUtilClass());
+            } else if (null != processorContext.getUtilClass()) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "Reuse unchanged util class " + processorContext.getUtilClass());
+            }
             return;
         }
 
-        Element classElement = ElementUtil.findFirstPublicClass(elements);
+        Element classElement = ElementUtil.findFirstPublicClass(trees, elements);
         if (classElement == null) {
             messager.printMessage(Diagnostic.Kind.ERROR, "cannot find any public class");
             return;
@@ -133,6 +257,61 @@ public class ValidationGenerateProcessor extends AbstractProcessor {
         tree.accept(new UtilMethodTranslator(syntaxTreeMaker, messager, classElement.toString()));
     }
 
+    /**
+     * 指定 medivh.runtime 时调用 medivh-runtime 中的工具类与异常类，不再为每个模块生成副本，类路径缺失则报错
+     * 未指定时始终生成，类路径中传递引入的 medivh-runtime 不会改变抛出的异常类型
+     * @param elements 元素工具
+     */
+    private void useRuntime(Elements elements) {
+        ElementOptions options = processorContext.getOptions();
+        if (!options.isRuntime()) {
+            return;
+        }
+
+        String utilClass = options.isBlankWhitespace() ? ElementOptions.RUNTIME_WHITESPACE_UTIL : ElementOptions.RUNTIME_UTIL;
+        if (null == elements.getTypeElement(utilClass)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Can't find " + utilClass +
+                    ", add medivh-runtime to the compile classpath or remove " + ElementOptions.RUNTIME_KEY + ".");
+            return;
+        }
+
+        processorContext.setUtilClass(utilClass);
+        processorContext.setExceptionClass(ElementOptions.RUNTIME_EXCEPTION);
+        processorContext.setPreallocatedClass(ElementOptions.RUNTIME_PREALLOCATED);
+        messager.printMessage(Diagnostic.Kind.NOTE, "Use runtime util class " + utilClass);
+    }
+
+    /**
+     * 拒绝计数由 medivh-runtime 记录，开启时需存在于编译类路径
+     * @param elements 元素工具
+     */
+    private void checkMetrics(Elements elements) {
+        if (!processorContext.getOptions().isMetrics()) {
+            return;
+        }
+        if (null == elements.getTypeElement(ElementOptions.RUNTIME_REJECTIONS)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Can't find " + ElementOptions.RUNTIME_REJECTIONS +
+                    ", add medivh-runtime to the compile classpath or set " + ElementOptions.METRICS_KEY + " to false.");
+        }
+    }
+
+    /**
+     * 工具类、异常类由所有使用者共同决定，声明为 Gradle 聚合型增量处理器
+     * 将工具方法写入已有类时无法增量处理，不声明增量类型
+     * @return 处理器参数
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<String>(ElementOptions.KEYS);
+        // 初始化前仅能读取系统参数
+        ElementOptions elementOptions = null == processorContext ?
+                new ElementOptions(Collections.<String, String>emptyMap()) : processorContext.getOptions();
+        if (elementOptions.isCreateUtil()) {
+            options.add(ElementOptions.GRADLE_AGGREGATING);
+        }
+        return options;
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         if (SourceVersion.latest().compareTo(SourceVersion.RELEASE_6) > 0) {
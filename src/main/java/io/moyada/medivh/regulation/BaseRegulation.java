@@ -1,11 +1,16 @@
 package io.moyada.medivh.regulation;
 
 import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.support.ActionData;
+import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.RejectionSupport;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.support.TypeTag;
 
+import java.util.ArrayList;
+
 /**
  * 基础处理规则
  * @author xueyikang
@@ -13,19 +18,23 @@ import io.moyada.medivh.support.TypeTag;
  **/
 public abstract class BaseRegulation implements Regulation {
 
+    private static final long serialVersionUID = 1L;
+
     // 新动作模式
     private byte newActionMode = RETURN_STR;
 
-    // 新动作的信息
-    protected String info;
-
     // 新动作的数据
     private ActionData actionData;
 
+    // 拒绝计数的规则描述，为 null 时使用失败信息中的规则
+    private String rule;
+
     // 返回字符串
     public static final byte RETURN_STR = 0;
     // 抛出异常
     public static final byte THROW = 1;
+    // 返回规则码
+    public static final byte RETURN_CODE = 2;
 
     /**
      * 设置处理数据
@@ -39,46 +48,89 @@ public abstract class BaseRegulation implements Regulation {
         this.actionData = actionData;
     }
 
+    /**
+     * 沿用其他规则的处理数据与拒绝计数的规则描述
+     * @param regulation 原规则
+     */
+    void copyActionData(BaseRegulation regulation) {
+        setActionData(regulation.actionData);
+        this.rule = regulation.rule;
+    }
+
+    /**
+     * 设置拒绝计数的规则描述
+     * @param rule 规则描述
+     */
+    public void setRule(String rule) {
+        this.rule = rule;
+    }
+
     @Override
     public ListBuffer<JCTree.JCStatement> handle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
                                                  String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
-        action = createActionIfNull(action, syntaxTreeMaker, fieldName);
-        JCTree.JCStatement exec = doHandle(syntaxTreeMaker, statements, self, action);
+        JCTree.JCStatement exec = doHandle(syntaxTreeMaker, statements, fieldName, self, action);
         statements.append(exec);
         return statements;
     }
 
     /**
      * 处理规则事件，返回构建语句
+     * 元素名称与执行事件作为参数传递，生成语句时不修改规则数据
      * @param syntaxTreeMaker 语句构造器
      * @param statements 语句链
+     * @param fieldName 元素名称
      * @param self 处理元素
-     * @param action 执行事件
+     * @param action 执行事件，为 null 时由规则创建
      * @return 处理语句
      */
     abstract JCTree.JCStatement doHandle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
-                                         JCTree.JCExpression self, JCTree.JCStatement action);
+                                         String fieldName, JCTree.JCExpression self, JCTree.JCStatement action);
 
     /**
-     * 构建输出信息
+     * 构建输出信息前缀，与规则描述拼接为失败信息
      * @param fieldName 元素名称
      * @return 构建信息
      */
     abstract String buildInfo(String fieldName);
 
     /**
-     * 无提供执行则创建处理方式
-     * @param action 处理方式
+     * 获取失败分支的规则描述
+     * @return 规则描述集合
+     */
+    abstract java.util.List<String> getRules();
+
+    /**
+     * 获取规则可能输出的失败信息，用于在创建校验计划时登记规则码
+     * @param fieldName 元素名称
+     * @return 失败信息集合
+     */
+    public java.util.List<String> getMessages(String fieldName) {
+        String info = buildInfo(fieldName);
+        java.util.List<String> rules = getRules();
+        java.util.List<String> messages = new ArrayList<String>(rules.size());
+        for (String rule : rules) {
+            messages.add(info + rule);
+        }
+        return messages;
+    }
+
+    /**
+     * 获取失败分支语句，未提供执行事件时按规则描述创建，开启拒绝计数时在执行动作前累加计数，校验通过时不执行计数
      * @param syntaxTreeMaker 语句构造器
-     * @param info 信息
-     * @return 处理语句
+     * @param fieldName 元素名称
+     * @param action 执行事件
+     * @param rule 规则描述
+     * @return 失败分支语句
      */
-    JCTree.JCStatement createActionIfNull(JCTree.JCStatement action, SyntaxTreeMaker syntaxTreeMaker, String info) {
-        if (null != action) {
+    JCTree.JCStatement failAction(SyntaxTreeMaker syntaxTreeMaker, String fieldName, JCTree.JCStatement action, String rule) {
+        if (null == action) {
+            action = createAction(syntaxTreeMaker, buildInfo(fieldName) + rule);
+        }
+        if (!ElementOptions.current().isMetrics()) {
             return action;
         }
-        this.info = buildInfo(info);
-        return createAction(syntaxTreeMaker, this.info);
+        JCTree.JCStatement reject = RejectionSupport.reject(syntaxTreeMaker, fieldName, null == this.rule ? rule : this.rule);
+        return syntaxTreeMaker.getTreeMaker().Block(0L, List.of(reject, action));
     }
 
     /**
@@ -94,6 +146,9 @@ public abstract class BaseRegulation implements Regulation {
                 JCTree.JCLiteral message = syntaxTreeMaker.newElement(TypeTag.CLASS,actionData.getInfo() + info);
                 action = syntaxTreeMaker.newMsgThrow(actionData.getClassName(), message);
                 break;
+            case RETURN_CODE:
+                action = syntaxTreeMaker.Return(TypeTag.INT, actionData.getCode(info));
+                break;
             default:
                 action = syntaxTreeMaker.Return(TypeTag.CLASS, info);
         }
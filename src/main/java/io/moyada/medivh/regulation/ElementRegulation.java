@@ -0,0 +1,486 @@
+package io.moyada.medivh.regulation;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.ListBuffer;
+import io.moyada.medivh.support.RegulationExecutor;
+import io.moyada.medivh.support.SyntaxTreeMaker;
+import io.moyada.medivh.support.TypeTag;
+import io.moyada.medivh.util.TreeUtil;
+import io.moyada.medivh.util.TypeUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 元素校验规则
+ * 对数组、集合、Map 中的每个元素执行元素类型上标记的规则
+ * 数组使用计数循环，支持随机访问的列表使用下标循环，避免创建迭代器
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ElementRegulation extends BaseRegulation implements Regulation {
+
+    private static final long serialVersionUID = 1L;
+
+    // 数组
+    public static final byte ARRAY = 0;
+    // 支持随机访问的列表
+    public static final byte RANDOM_ACCESS = 1;
+    // 列表，运行时判断是否支持随机访问
+    public static final byte LIST = 2;
+    // 其他集合
+    public static final byte ITERABLE = 3;
+    // Map
+    public static final byte MAP = 4;
+
+    // 循环下标
+    private static final String INDEX = "index$";
+    // 循环上限
+    private static final String LENGTH = "length$";
+    // 不支持随机访问时使用的迭代器
+    private static final String ITERATOR = "iterator$";
+    // Map 键值对
+    private static final String ENTRY = "entry$";
+    // 元素、键
+    private static final String ELEMENT = "element$";
+    // 值
+    private static final String VALUE = "value$";
+    // 遍历原始类型集合时的迭代元素
+    private static final String OBJECT = "object$";
+    // 元素规则临时变量前缀，避免与外层临时变量重名
+    private static final String VAR_PREFIX = "item$";
+
+    // 遍历方式
+    private final byte mode;
+
+    // 是否为嵌套的元素规则，嵌套元素变量声明为原始类型，取出的元素需要转换
+    private final boolean nested;
+
+    // 嵌套层级，最内层为 0，外层循环变量名带层级后缀，避免与内层循环变量重名
+    private final int level;
+
+    // 元素或键类型
+    private final String elementType;
+    // 元素或键规则链
+    private final java.util.List<Regulation> elementRegulations;
+
+    // 值类型
+    private final String valueType;
+    // 值规则链
+    private final java.util.List<Regulation> valueRegulations;
+
+    /**
+     * 创建数组、集合元素校验规则
+     * @param mode 遍历方式
+     * @param elementType 元素类型
+     * @param regulations 元素规则链
+     */
+    public ElementRegulation(byte mode, String elementType, java.util.List<Regulation> regulations) {
+        this(mode, false, elementType, regulations, null, null);
+    }
+
+    /**
+     * 创建 Map 键值校验规则，无需校验的一方规则链为 null
+     * @param keyType 键类型
+     * @param keyRegulations 键规则链
+     * @param valueType 值类型
+     * @param valueRegulations 值规则链
+     */
+    public ElementRegulation(String keyType, java.util.List<Regulation> keyRegulations,
+                             String valueType, java.util.List<Regulation> valueRegulations) {
+        this(MAP, false, keyType, keyRegulations, valueType, valueRegulations);
+    }
+
+    private ElementRegulation(byte mode, boolean nested, String elementType, java.util.List<Regulation> elementRegulations,
+                              String valueType, java.util.List<Regulation> valueRegulations) {
+        this.mode = mode;
+        this.nested = nested;
+        this.level = Math.max(getLevel(elementRegulations), getLevel(valueRegulations));
+        this.elementType = elementType;
+        this.elementRegulations = withVarPrefix(elementRegulations);
+        this.valueType = valueType;
+        this.valueRegulations = withVarPrefix(valueRegulations);
+    }
+
+    /**
+     * 获取包含指定元素规则链时的嵌套层级
+     * @param regulations 元素规则链
+     * @return 规则链中无元素规则为 0，否则为元素规则层级加一
+     */
+    private static int getLevel(java.util.List<Regulation> regulations) {
+        int level = 0;
+        if (null == regulations) {
+            return level;
+        }
+        for (Regulation regulation : regulations) {
+            if (regulation instanceof ElementRegulation) {
+                level = Math.max(level, ((ElementRegulation) regulation).level + 1);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * 元素规则在外层校验语句作用域内执行，临时变量使用独立前缀
+     * @param regulations 规则链
+     * @return 不可修改的规则链，无规则返回 null
+     */
+    private java.util.List<Regulation> withVarPrefix(java.util.List<Regulation> regulations) {
+        if (null == regulations) {
+            return null;
+        }
+        String prefix = 0 == level ? VAR_PREFIX : VAR_PREFIX + level + "$";
+        java.util.List<Regulation> result = new ArrayList<Regulation>(regulations.size());
+        for (Regulation regulation : regulations) {
+            if (regulation instanceof SizeRangeRegulation) {
+                regulation = ((SizeRangeRegulation) regulation).withVarPrefix(prefix);
+            } else if (regulation instanceof ElementRegulation) {
+                regulation = ((ElementRegulation) regulation).asNested();
+            }
+            result.add(regulation);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 作为外层元素规则的规则链使用
+     * @return 嵌套的元素规则
+     */
+    private ElementRegulation asNested() {
+        if (nested) {
+            return this;
+        }
+        ElementRegulation regulation = new ElementRegulation(mode, true, elementType, elementRegulations, valueType, valueRegulations);
+        copyActionData(regulation);
+        return regulation;
+    }
+
+    /**
+     * 获取当前层级的循环变量名
+     * @param name 变量名
+     * @return 最内层使用原变量名，外层增加层级后缀
+     */
+    private String getName(String name) {
+        return 0 == level ? name : name + level;
+    }
+
+    @Override
+    JCTree.JCStatement doHandle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
+                                String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
+        switch (mode) {
+            case ARRAY:
+                return forArray(syntaxTreeMaker, fieldName, self, action);
+            case RANDOM_ACCESS:
+                return forRandomAccess(syntaxTreeMaker, fieldName, self, action);
+            case LIST:
+                return forList(syntaxTreeMaker, fieldName, self, action);
+            case MAP:
+                return forMap(syntaxTreeMaker, fieldName, self, action);
+            default:
+                return forEach(syntaxTreeMaker, fieldName, self, action);
+        }
+    }
+
+    /**
+     * for (int index$ = 0; index$ < self.length; index$++) { T element$ = self[index$]; ... }
+     * @param syntaxTreeMaker 语句构造器
+     * @param fieldName 元素名称
+     * @param self 数组
+     * @param action 执行事件
+     * @return 循环语句
+     */
+    private JCTree.JCStatement forArray(SyntaxTreeMaker syntaxTreeMaker, String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
+        TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
+
+        JCTree.JCVariableDecl index = syntaxTreeMaker.newLocalVar(getName(INDEX), TypeTag.INT, syntaxTreeMaker.newElement(TypeTag.INT, 0));
+        JCTree.JCIdent indexIdent = treeMaker.Ident(index.name);
+        JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.LT, indexIdent, syntaxTreeMaker.Select(self, "length"));
+
+        JCTree.JCVariableDecl element = newVar(syntaxTreeMaker, getName(ELEMENT), elementType, treeMaker.Indexed(self, indexIdent));
+        JCTree.JCBlock body = getBody(syntaxTreeMaker, element, elementRegulations, fieldName + "[]", action);
+
+        return treeMaker.ForLoop(List.<JCTree.JCStatement>of(index), condition, List.of(increase(syntaxTreeMaker, indexIdent)), body);
+    }
+
+    /**
+     * for (int index$ = 0, length$ = self.size(); index$ < length$; index$++) { T element$ = self.get(index$); ... }
+     * @param syntaxTreeMaker 语句构造器
+     * @param fieldName 元素名称
+     * @param self 列表
+     * @param action 执行事件
+     * @return 循环语句
+     */
+    private JCTree.JCStatement forRandomAccess(SyntaxTreeMaker syntaxTreeMaker, String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
+        TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
+
+        JCTree.JCVariableDecl index = syntaxTreeMaker.newLocalVar(getName(INDEX), TypeTag.INT, syntaxTreeMaker.newElement(TypeTag.INT, 0));
+        JCTree.JCIdent indexIdent = treeMaker.Ident(index.name);
+
+        JCTree.JCVariableDecl element = newVar(syntaxTreeMaker, getName(ELEMENT), elementType,
+                cast(syntaxTreeMaker, syntaxTreeMaker.getMethod(self, "get", List.<JCTree.JCExpression>of(indexIdent))));
+        JCTree.JCBlock body = getBody(syntaxTreeMaker, element, elementRegulations, fieldName + "[]", action);
+
+        return newIndexLoop(syntaxTreeMaker, self, index, body);
+    }
+
+    /**
+     * 列表声明类型无法确定是否支持随机访问时，在循环外判断一次，循环内按下标或迭代器取值
+     * Iterator iterator$ = self instanceof RandomAccess ? null : self.iterator();
+     * for (int index$ = 0, length$ = self.size(); index$ < length$; index$++) {
+     *     T element$ = null == iterator$ ? self.get(index$) : (T) iterator$.next(); ...
+     * }
+     * @param syntaxTreeMaker 语句构造器
+     * @param fieldName 元素名称
+     * @param self 列表
+     * @param action 执行事件
+     * @return 循环语句
+     */
+    private JCTree.JCStatement forList(SyntaxTreeMaker syntaxTreeMaker, String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
+        TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
+
+        JCTree.JCExpression isRandomAccess = treeMaker.TypeTest(self, syntaxTreeMaker.findClass(RandomAccess.class.getName()));
+        JCTree.JCExpression getIterator = syntaxTreeMaker.getMethod(self, "iterator", TreeUtil.emptyExpression());
+        JCTree.JCVariableDecl iterator = syntaxTreeMaker.newLocalVar(getName(ITERATOR), Iterator.class.getName(),
+                treeMaker.Conditional(isRandomAccess, syntaxTreeMaker.nullNode, getIterator));
+        JCTree.JCIdent iteratorIdent = treeMaker.Ident(iterator.name);
+
+        JCTree.JCVariableDecl index = syntaxTreeMaker.newLocalVar(getName(INDEX), TypeTag.INT, syntaxTreeMaker.newElement(TypeTag.INT, 0));
+        JCTree.JCIdent indexIdent = treeMaker.Ident(index.name);
+
+        JCTree.JCExpression get = cast(syntaxTreeMaker, syntaxTreeMaker.getMethod(self, "get", List.<JCTree.JCExpression>of(indexIdent)));
+        JCTree.JCExpression next = treeMaker.TypeCast(syntaxTreeMaker.findClass(elementType),
+                syntaxTreeMaker.getMethod(iteratorIdent, "next", TreeUtil.emptyExpression()));
+        JCTree.JCExpression useIndex = syntaxTreeMaker.newBinary(TypeTag.EQ, syntaxTreeMaker.nullNode, iteratorIdent);
+
+        JCTree.JCVariableDecl element = newVar(syntaxTreeMaker, getName(ELEMENT), elementType, treeMaker.Conditional(useIndex, get, next));
+        JCTree.JCBlock body = getBody(syntaxTreeMaker, element, elementRegulations, fieldName + "[]", action);
+
+        return treeMaker.Block(0, List.of(iterator, newIndexLoop(syntaxTreeMaker, self, index, body)));
+    }
+
+    /**
+     * for (T element$ : self) { ... }
+     * @param syntaxTreeMaker 语句构造器
+     * @param fieldName 元素名称
+     * @param self 集合
+     * @param action 执行事件
+     * @return 循环语句
+     */
+    private JCTree.JCStatement forEach(SyntaxTreeMaker syntaxTreeMaker, String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
+        return newForeach(syntaxTreeMaker, getName(ELEMENT), elementType, self, elementRegulations, fieldName + "[]", action);
+    }
+
+    /**
+     * 仅校验键或值时遍历 keySet() 或 values()，否则遍历 entrySet()
+     * @param syntaxTreeMaker 语句构造器
+     * @param fieldName 元素名称
+     * @param self Map
+     * @param action 执行事件
+     * @return 循环语句
+     */
+    private JCTree.JCStatement forMap(SyntaxTreeMaker syntaxTreeMaker, String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
+        TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
+        String keyName = fieldName + ".key";
+        String valueName = fieldName + ".value";
+
+        if (null == valueRegulations) {
+            return newForeach(syntaxTreeMaker, getName(ELEMENT), elementType,
+                    syntaxTreeMaker.getMethod(self, "keySet", TreeUtil.emptyExpression()), elementRegulations, keyName, action);
+        }
+        if (null == elementRegulations) {
+            return newForeach(syntaxTreeMaker, getName(VALUE), valueType,
+                    syntaxTreeMaker.getMethod(self, "values", TreeUtil.emptyExpression()), valueRegulations, valueName, action);
+        }
+
+        String entryType = Map.Entry.class.getCanonicalName();
+        JCTree.JCVariableDecl entry = syntaxTreeMaker.newLocalVar(getName(nested ? OBJECT : ENTRY), nested ? Object.class.getName() : entryType, null);
+        JCTree.JCExpression entryIdent = treeMaker.Ident(entry.name);
+        ListBuffer<JCTree.JCStatement> statements = new ListBuffer<JCTree.JCStatement>();
+        if (nested) {
+            JCTree.JCVariableDecl castEntry = syntaxTreeMaker.newLocalVar(getName(ENTRY), entryType,
+                    treeMaker.TypeCast(syntaxTreeMaker.findClass(entryType), entryIdent));
+            statements.append(castEntry);
+            entryIdent = treeMaker.Ident(castEntry.name);
+        }
+
+        JCTree.JCVariableDecl key = newVar(syntaxTreeMaker, getName(ELEMENT), elementType, treeMaker.TypeCast(syntaxTreeMaker.findClass(elementType),
+                syntaxTreeMaker.getMethod(entryIdent, "getKey", TreeUtil.emptyExpression())));
+        JCTree.JCVariableDecl value = newVar(syntaxTreeMaker, getName(VALUE), valueType, treeMaker.TypeCast(syntaxTreeMaker.findClass(valueType),
+                syntaxTreeMaker.getMethod(entryIdent, "getValue", TreeUtil.emptyExpression())));
+
+        // 键值规则各自位于独立代码块，临时变量互不冲突
+        statements.append(key).append(value)
+                .append(getBody(syntaxTreeMaker, null, elementRegulations, keyName, action, treeMaker.Ident(key.name)))
+                .append(getBody(syntaxTreeMaker, null, valueRegulations, valueName, action, treeMaker.Ident(value.name)));
+
+        return treeMaker.ForeachLoop(entry, syntaxTreeMaker.getMethod(self, "entrySet", TreeUtil.emptyExpression()),
+                treeMaker.Block(0, statements.toList()));
+    }
+
+    /**
+     * for (T element$ : self) { ... }
+     * 嵌套的集合声明为原始类型，循环变量声明为 Object，循环体内转换为元素类型
+     * for (Object object$ : self) { T element$ = (T) object$; ... }
+     * @param syntaxTreeMaker 语句构造器
+     * @param name 元素变量名
+     * @param type 元素类型
+     * @param iterable 遍历对象
+     * @param regulations 元素规则链
+     * @param fieldName 元素名称
+     * @param action 执行事件
+     * @return 循环语句
+     */
+    private JCTree.JCStatement newForeach(SyntaxTreeMaker syntaxTreeMaker, String name, String type, JCTree.JCExpression iterable,
+                                          java.util.List<Regulation> regulations, String fieldName, JCTree.JCStatement action) {
+        TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
+        if (!nested) {
+            JCTree.JCVariableDecl element = newVar(syntaxTreeMaker, name, type, null);
+            JCTree.JCBlock body = getBody(syntaxTreeMaker, null, regulations, fieldName, action, treeMaker.Ident(element.name));
+            return treeMaker.ForeachLoop(element, iterable, body);
+        }
+
+        JCTree.JCVariableDecl object = syntaxTreeMaker.newLocalVar(getName(OBJECT), Object.class.getName(), null);
+        JCTree.JCVariableDecl element = newVar(syntaxTreeMaker, name, type,
+                treeMaker.TypeCast(syntaxTreeMaker.findClass(type), treeMaker.Ident(object.name)));
+        JCTree.JCBlock body = getBody(syntaxTreeMaker, element, regulations, fieldName, action);
+        return treeMaker.ForeachLoop(object, iterable, body);
+    }
+
+    /**
+     * 嵌套的列表声明为原始类型，取出的元素转换为元素类型
+     * @param syntaxTreeMaker 语句构造器
+     * @param expression 取值表达式
+     * @return 嵌套时返回转换表达式
+     */
+    private JCTree.JCExpression cast(SyntaxTreeMaker syntaxTreeMaker, JCTree.JCExpression expression) {
+        if (!nested) {
+            return expression;
+        }
+        return syntaxTreeMaker.getTreeMaker().TypeCast(syntaxTreeMaker.findClass(elementType), expression);
+    }
+
+    /**
+     * 创建缓存上限的下标循环
+     * @param syntaxTreeMaker 语句构造器
+     * @param self 列表
+     * @param index 下标变量
+     * @param body 循环体
+     * @return 循环语句
+     */
+    private JCTree.JCStatement newIndexLoop(SyntaxTreeMaker syntaxTreeMaker, JCTree.JCExpression self,
+                                            JCTree.JCVariableDecl index, JCTree.JCBlock body) {
+        TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
+
+        JCTree.JCVariableDecl length = syntaxTreeMaker.newLocalVar(getName(LENGTH), TypeTag.INT,
+                syntaxTreeMaker.getMethod(self, "size", TreeUtil.emptyExpression()));
+        JCTree.JCIdent indexIdent = treeMaker.Ident(index.name);
+        JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.LT, indexIdent, treeMaker.Ident(length.name));
+
+        return treeMaker.ForLoop(List.<JCTree.JCStatement>of(index, length), condition,
+                List.of(increase(syntaxTreeMaker, indexIdent)), body);
+    }
+
+    /**
+     * 下标自增语句
+     * @param syntaxTreeMaker 语句构造器
+     * @param index 下标
+     * @return index++
+     */
+    private static JCTree.JCExpressionStatement increase(SyntaxTreeMaker syntaxTreeMaker, JCTree.JCIdent index) {
+        return syntaxTreeMaker.getTreeMaker().Exec(syntaxTreeMaker.newUnary(TypeTag.POSTINC, index));
+    }
+
+    /**
+     * 创建元素变量
+     * @param syntaxTreeMaker 语句构造器
+     * @param name 变量名
+     * @param type 类型
+     * @param init 初始值
+     * @return 变量元素
+     */
+    private static JCTree.JCVariableDecl newVar(SyntaxTreeMaker syntaxTreeMaker, String name, String type, JCTree.JCExpression init) {
+        if (TypeUtil.isPrimitive(type)) {
+            return syntaxTreeMaker.newLocalVar(name, TypeUtil.getBaseType(type), init);
+        }
+        return syntaxTreeMaker.newLocalVar(name, type, init);
+    }
+
+    /**
+     * 创建循环体，声明元素变量后执行元素规则
+     * @param syntaxTreeMaker 语句构造器
+     * @param element 元素变量
+     * @param regulations 元素规则链
+     * @param fieldName 元素名称
+     * @param action 执行事件
+     * @return 循环体
+     */
+    private static JCTree.JCBlock getBody(SyntaxTreeMaker syntaxTreeMaker, JCTree.JCVariableDecl element,
+                                          java.util.List<Regulation> regulations, String fieldName, JCTree.JCStatement action) {
+        return getBody(syntaxTreeMaker, element, regulations, fieldName, action, syntaxTreeMaker.getTreeMaker().Ident(element.name));
+    }
+
+    /**
+     * 创建循环体，元素变量由循环声明时 element 为 null
+     * @param syntaxTreeMaker 语句构造器
+     * @param element 元素变量
+     * @param regulations 元素规则链
+     * @param fieldName 元素名称
+     * @param action 执行事件
+     * @param self 元素
+     * @return 循环体
+     */
+    private static JCTree.JCBlock getBody(SyntaxTreeMaker syntaxTreeMaker, JCTree.JCVariableDecl element,
+                                          java.util.List<Regulation> regulations, String fieldName, JCTree.JCStatement action,
+                                          JCTree.JCExpression self) {
+        ListBuffer<JCTree.JCStatement> statements = RegulationExecutor.newExecutor(syntaxTreeMaker, regulations)
+                .setAction(action)
+                .execute(self, fieldName);
+        // 空值校验会前置于语句链，元素变量需在其之前声明
+        if (null != element) {
+            statements.prepend(element);
+        }
+        return syntaxTreeMaker.getTreeMaker().Block(0, statements.toList());
+    }
+
+    @Override
+    public int getCost() {
+        int cost = COST_SCAN;
+        if (null != elementRegulations) {
+            cost += RegulationOptimizer.getCost(elementRegulations);
+        }
+        if (null != valueRegulations) {
+            cost += RegulationOptimizer.getCost(valueRegulations);
+        }
+        return cost;
+    }
+
+    @Override
+    String buildInfo(String fieldName) {
+        return fieldName;
+    }
+
+    @Override
+    java.util.List<String> getRules() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public java.util.List<String> getMessages(String fieldName) {
+        if (MAP != mode) {
+            return RegulationExecutor.getMessages(elementRegulations, fieldName + "[]");
+        }
+        java.util.List<String> messages = new ArrayList<String>();
+        if (null != elementRegulations) {
+            messages.addAll(RegulationExecutor.getMessages(elementRegulations, fieldName + ".key"));
+        }
+        if (null != valueRegulations) {
+            messages.addAll(RegulationExecutor.getMessages(valueRegulations, fieldName + ".value"));
+        }
+        return messages;
+    }
+}
@@ -8,6 +8,8 @@ import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.support.TypeFetchSupport;
 import io.moyada.medivh.support.TypeTag;
 
+import java.util.Collections;
+
 /**
  * 比较规则
  * @author xueyikang
@@ -15,25 +17,28 @@ import io.moyada.medivh.support.TypeTag;
  **/
 public class EqualsRegulation extends BaseRegulation implements Regulation {
 
+    private static final long serialVersionUID = 1L;
+
     // 类型
-    private TypeTag typeTag;
+    private final TypeTag typeTag;
     // 值对象
-    private Object value;
+    private final Object value;
 
     // 类型数据获取
-    private TypeFetchSupport typeFetchSupport;
-
-    // 值语句
-    private JCTree.JCExpression valueExpr;
+    private final TypeFetchSupport typeFetchSupport;
 
     // 比较方式
-    private TypeTag compareTag;
+    private final TypeTag compareTag;
 
     public EqualsRegulation(byte type, boolean equals) {
         this(type, TypeTag.BOT, null ,equals);
     }
 
     public EqualsRegulation(byte type, TypeTag typeTag, Object value, boolean equals) {
+        this(new TypeFetchSupport(type), typeTag, value, equals);
+    }
+
+    public EqualsRegulation(TypeFetchSupport typeFetchSupport, TypeTag typeTag, Object value, boolean equals) {
         this.typeTag = typeTag;
         this.value = value;
         if (equals) {
@@ -41,36 +46,42 @@ public class EqualsRegulation extends BaseRegulation implements Regulation {
         } else {
             this.compareTag = TypeTag.NE;
         }
-        this.typeFetchSupport = new TypeFetchSupport(type);
+        this.typeFetchSupport = typeFetchSupport;
     }
 
     @Override
     JCTree.JCStatement doHandle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
-                                JCTree.JCExpression self, JCTree.JCStatement action) {
+                                String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
         TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
 
         // 使用固定值比较
-        JCTree.JCExpression rival = getValue(syntaxTreeMaker);
+        JCTree.JCExpression rival = syntaxTreeMaker.newElement(typeTag, value);
 
         JCTree.JCExpression condition = syntaxTreeMaker.newBinary(compareTag,
                 typeFetchSupport.getExpr(syntaxTreeMaker, self), rival);
-        return treeMaker.If(condition, action, null);
+        return treeMaker.If(condition, failAction(syntaxTreeMaker, fieldName, action, getRule()), null);
+    }
+
+    @Override
+    public int getCost() {
+        return typeFetchSupport.getCost();
     }
 
     @Override
     String buildInfo(String fieldName) {
-        return fieldName + " " + ElementOptions.EQUALS_INFO + " " + value;
+        return fieldName + " ";
+    }
+
+    @Override
+    java.util.List<String> getRules() {
+        return Collections.singletonList(getRule());
     }
 
     /**
-     * 获取数据语句
-     * @param syntaxTreeMaker 语法创建工具
-     * @return 数据语句元素
+     * 获取规则描述
+     * @return 比较信息与值
      */
-    private JCTree.JCExpression getValue(SyntaxTreeMaker syntaxTreeMaker) {
-        if (null == valueExpr) {
-            valueExpr = syntaxTreeMaker.newElement(typeTag, value);
-        }
-        return valueExpr;
+    private String getRule() {
+        return ElementOptions.current().getEqualsInfo() + " " + value;
     }
 }
@@ -5,9 +5,12 @@ import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.ProcessorContext;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.support.TypeTag;
 
+import java.util.Collections;
+
 /**
  * 非空白字符串校验规则
  * @author xueyikang
@@ -15,22 +18,34 @@ import io.moyada.medivh.support.TypeTag;
  **/
 public class NotBlankRegulation extends BaseRegulation implements Regulation {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     JCTree.JCStatement doHandle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
-                                JCTree.JCExpression self, JCTree.JCStatement action) {
+                                String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
         TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
 
         // 调用方法进行校验
-        JCTree.JCExpression aClass = syntaxTreeMaker.findClass(ElementOptions.UTIL_CLASS);
+        JCTree.JCExpression aClass = syntaxTreeMaker.findClass(ProcessorContext.current().getUtilClass());
         JCTree.JCMethodInvocation isBlank = syntaxTreeMaker.getMethod(aClass, ElementOptions.BLANK_METHOD, List.of(self));
 
         // 返回值为 true 执行动作语句
         JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.EQ, isBlank, syntaxTreeMaker.trueNode);
-        return treeMaker.If(condition, action, null);
+        return treeMaker.If(condition, failAction(syntaxTreeMaker, fieldName, action, ElementOptions.current().getBlankInfo()), null);
+    }
+
+    @Override
+    public int getCost() {
+        return COST_SCAN;
     }
 
     @Override
     String buildInfo(String fieldName) {
-        return fieldName + " " + ElementOptions.BLANK_INFO;
+        return fieldName + " ";
+    }
+
+    @Override
+    java.util.List<String> getRules() {
+        return Collections.singletonList(ElementOptions.current().getBlankInfo());
     }
 }
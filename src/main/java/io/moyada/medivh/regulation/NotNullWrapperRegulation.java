@@ -15,6 +15,8 @@ import io.moyada.medivh.support.TypeTag;
  **/
 public class NotNullWrapperRegulation implements Regulation {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public ListBuffer<JCTree.JCStatement> handle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
                                                  String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
@@ -30,4 +32,9 @@ public class NotNullWrapperRegulation implements Regulation {
         jcStatements.append(exec);
         return jcStatements;
     }
+
+    @Override
+    public int getCost() {
+        return COST_COMPARE;
+    }
 }
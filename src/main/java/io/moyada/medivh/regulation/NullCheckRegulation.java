@@ -7,6 +7,8 @@ import io.moyada.medivh.support.ElementOptions;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.support.TypeTag;
 
+import java.util.Collections;
+
 /**
  * 非空校验规则
  * 默认规则，针对对象判空处理，可以使用 {@link io.moyada.medivh.annotation.Nullable} 取消规则
@@ -15,13 +17,12 @@ import io.moyada.medivh.support.TypeTag;
  **/
 public class NullCheckRegulation extends BaseRegulation implements Regulation {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public ListBuffer<JCTree.JCStatement> handle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
                                                  String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
-        if (null == action) {
-            action = createAction(syntaxTreeMaker, buildInfo(fieldName));
-        }
-        JCTree.JCStatement exec = doHandle(syntaxTreeMaker, statements, self, action);
+        JCTree.JCStatement exec = doHandle(syntaxTreeMaker, statements, fieldName, self, action);
         // 将非空处理提前
         statements.prepend(exec);
         return statements;
@@ -29,15 +30,25 @@ public class NullCheckRegulation extends BaseRegulation implements Regulation {
 
     @Override
     JCTree.JCStatement doHandle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
-                                JCTree.JCExpression self, JCTree.JCStatement action) {
+                                String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
         TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
         // 等于 null 执行动作
         JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.EQ, self, syntaxTreeMaker.nullNode);
-        return treeMaker.If(condition, action, null);
+        return treeMaker.If(condition, failAction(syntaxTreeMaker, fieldName, action, ElementOptions.current().getNullInfo()), null);
+    }
+
+    @Override
+    public int getCost() {
+        return COST_COMPARE;
     }
 
     @Override
     String buildInfo(String fieldName) {
-        return fieldName + " " + ElementOptions.NULL_INFO;
+        return fieldName + " ";
+    }
+
+    @Override
+    java.util.List<String> getRules() {
+        return Collections.singletonList(ElementOptions.current().getNullInfo());
     }
 }
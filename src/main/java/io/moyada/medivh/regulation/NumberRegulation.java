@@ -5,16 +5,21 @@ import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.support.ElementOptions;
 import io.moyada.medivh.support.SyntaxTreeMaker;
+import io.moyada.medivh.support.TunableSupport;
 import io.moyada.medivh.support.TypeTag;
 
+import java.util.ArrayList;
+
 /**
  * 数字范围校验规则
- * 使用固定数值，不于外界因素做比较
+ * 使用固定数值，不于外界因素做比较，指定可调整名称的边界在运行期读取
  * @author xueyikang
  * @since 1.0
  **/
 public class NumberRegulation extends BaseRegulation implements Regulation {
 
+    private static final long serialVersionUID = 1L;
+
     // 数据类型
     private final TypeTag typeTag;
 
@@ -24,56 +29,200 @@ public class NumberRegulation extends BaseRegulation implements Regulation {
     // 最大值
     private final Object max;
 
+    // 可调整的最小值名称，失败信息使用默认值
+    private final String minTunable;
+
+    // 可调整的最大值名称，失败信息使用默认值
+    private final String maxTunable;
+
+    // 使用单次比较判断双边范围
+    private final boolean singleCompare;
+
     public NumberRegulation(TypeTag typeTag, Object min, Object max) {
+        this(typeTag, min, max, null, null);
+    }
+
+    /**
+     * 创建数字范围校验规则
+     * @param typeTag 数据类型
+     * @param min 最小值，可调整时为默认值
+     * @param max 最大值，可调整时为默认值
+     * @param minTunable 可调整的最小值名称，固定时为 null
+     * @param maxTunable 可调整的最大值名称，固定时为 null
+     */
+    public NumberRegulation(TypeTag typeTag, Object min, Object max, String minTunable, String maxTunable) {
+        this(typeTag, min, max, minTunable, maxTunable, false);
+    }
+
+    private NumberRegulation(TypeTag typeTag, Object min, Object max, String minTunable, String maxTunable, boolean singleCompare) {
         this.typeTag = typeTag;
         this.min = min;
         this.max = max;
+        this.minTunable = minTunable;
+        this.maxTunable = maxTunable;
+        this.singleCompare = singleCompare;
+    }
+
+    /**
+     * 整数类型的双边范围合并为单次比较，仅失败时再区分小于或大于
+     * @return 合并后的规则，无法合并返回原规则
+     */
+    NumberRegulation mergeRange() {
+        if (singleCompare || null == min || null == max) {
+            return this;
+        }
+        // 偏移量与上限需要在编译期计算
+        if (null != minTunable || null != maxTunable) {
+            return this;
+        }
+        switch (typeTag) {
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+            case LONG:
+                NumberRegulation regulation = new NumberRegulation(typeTag, min, max, null, null, true);
+                regulation.copyActionData(this);
+                return regulation;
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * 是否使用单次比较判断双边范围
+     * @return 已合并返回 true
+     */
+    boolean isSingleCompare() {
+        return singleCompare;
     }
 
     @Override
     JCTree.JCStatement doHandle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
-                                JCTree.JCExpression self, JCTree.JCStatement action) {
+                                String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
         TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
 
+        if (singleCompare) {
+            return createRange(syntaxTreeMaker, fieldName, self, action);
+        }
+
         JCTree.JCIf expression = null;
 
         // min logic
         if (null != min) {
-            JCTree.JCLiteral minField = syntaxTreeMaker.newElement(typeTag, min);
+            JCTree.JCExpression minField = getBound(syntaxTreeMaker, min, minTunable);
             JCTree.JCExpression minCondition = syntaxTreeMaker.newBinary(TypeTag.LT, self, minField);
 
-            JCTree.JCStatement lessAction;
-            if (null == info) {
-                lessAction = action;
-            } else {
-                String msg = info + ElementOptions.LESS_INFO + " " + min;
-                lessAction = createAction(syntaxTreeMaker, msg);
-            }
-
+            JCTree.JCStatement lessAction = failAction(syntaxTreeMaker, fieldName, action, getLessRule());
             expression = treeMaker.If(minCondition, lessAction, expression);
         }
 
         // max logic
         if (null != max) {
-            JCTree.JCLiteral maxField = syntaxTreeMaker.newElement(typeTag, max);
+            JCTree.JCExpression maxField = getBound(syntaxTreeMaker, max, maxTunable);
             JCTree.JCExpression maxCondition = syntaxTreeMaker.newBinary(TypeTag.GT, self, maxField);
 
-            JCTree.JCStatement greatAction;
-            if (null == info) {
-                greatAction = action;
-            } else {
-                String msg = info + ElementOptions.GREAT_INFO + " " + max;
-                greatAction = createAction(syntaxTreeMaker, msg);
-            }
-
+            JCTree.JCStatement greatAction = failAction(syntaxTreeMaker, fieldName, action, getGreatRule());
             expression = treeMaker.If(maxCondition, greatAction, expression);
         }
 
         return expression;
     }
 
+    /**
+     * 获取边界表达式
+     * @param syntaxTreeMaker 语句构造器
+     * @param value 边界值
+     * @param tunable 可调整名称
+     * @return 固定时为常量，可调整时为运行期读取
+     */
+    private JCTree.JCExpression getBound(SyntaxTreeMaker syntaxTreeMaker, Object value, String tunable) {
+        if (null == tunable) {
+            return syntaxTreeMaker.newElement(typeTag, value);
+        }
+        return TunableSupport.getValue(syntaxTreeMaker, tunable, value);
+    }
+
+    /**
+     * 创建单次比较的范围判断
+     * x 不在 [min, max] 范围内等价于无符号比较 (x - min) > (max - min)，
+     * 两侧同时加上最小值偏移后即为有符号比较 x + (MIN_VALUE - min) > MIN_VALUE + (max - min)
+     * @param syntaxTreeMaker 语句构造器
+     * @param fieldName 元素名称
+     * @param self 处理元素
+     * @param action 执行事件
+     * @return 处理语句
+     */
+    private JCTree.JCStatement createRange(SyntaxTreeMaker syntaxTreeMaker, String fieldName,
+                                           JCTree.JCExpression self, JCTree.JCStatement action) {
+        TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
+
+        long minValue = ((Number) min).longValue();
+        long maxValue = ((Number) max).longValue();
+
+        JCTree.JCLiteral offset, bound;
+        if (typeTag == TypeTag.LONG) {
+            offset = syntaxTreeMaker.newElement(TypeTag.LONG, Long.MIN_VALUE - minValue);
+            bound = syntaxTreeMaker.newElement(TypeTag.LONG, Long.MIN_VALUE + (maxValue - minValue));
+        } else {
+            // byte、short、char 运算时均提升为 int
+            offset = syntaxTreeMaker.newElement(TypeTag.INT, (int) (Integer.MIN_VALUE - minValue));
+            bound = syntaxTreeMaker.newElement(TypeTag.INT, (int) (Integer.MIN_VALUE + (maxValue - minValue)));
+        }
+
+        JCTree.JCExpression shift = syntaxTreeMaker.newBinary(TypeTag.PLUS, self, offset);
+        JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.GT, shift, bound);
+
+        JCTree.JCStatement rangeAction;
+        // 无需区分信息且不计数时两侧共用动作
+        if (null != action && !ElementOptions.current().isMetrics()) {
+            rangeAction = action;
+        } else {
+            JCTree.JCLiteral minField = syntaxTreeMaker.newElement(typeTag, min);
+            JCTree.JCExpression minCondition = syntaxTreeMaker.newBinary(TypeTag.LT, self, minField);
+
+            rangeAction = treeMaker.If(minCondition, failAction(syntaxTreeMaker, fieldName, action, getLessRule()),
+                    failAction(syntaxTreeMaker, fieldName, action, getGreatRule()));
+        }
+
+        return treeMaker.If(condition, rangeAction, null);
+    }
+
+    @Override
+    public int getCost() {
+        return COST_COMPARE;
+    }
+
     @Override
     String buildInfo(String fieldName) {
         return fieldName + " ";
     }
+
+    @Override
+    java.util.List<String> getRules() {
+        java.util.List<String> rules = new ArrayList<String>(2);
+        if (null != min) {
+            rules.add(getLessRule());
+        }
+        if (null != max) {
+            rules.add(getGreatRule());
+        }
+        return rules;
+    }
+
+    /**
+     * 获取小于最小值的规则描述
+     * @return 规则描述
+     */
+    private String getLessRule() {
+        return ElementOptions.current().getLessInfo() + " " + min;
+    }
+
+    /**
+     * 获取大于最大值的规则描述
+     * @return 规则描述
+     */
+    private String getGreatRule() {
+        return ElementOptions.current().getGreatInfo() + " " + max;
+    }
 }
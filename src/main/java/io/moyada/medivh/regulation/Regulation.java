@@ -4,12 +4,28 @@ import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 
+import java.io.Serializable;
+
 /**
  * 规则处理器
+ * 规则只保存校验数据，语法树节点在处理时创建，规则链可随校验计划序列化
  * @author xueyikang
  * @since 1.0
  **/
-public interface Regulation {
+public interface Regulation extends Serializable {
+
+    // 仅调整语句结构
+    int COST_NONE = 0;
+    // 数值或引用比较
+    int COST_COMPARE = 1;
+    // 获取字符串、数组长度
+    int COST_LENGTH = 2;
+    // 方法调用，包括集合大小获取
+    int COST_CALL = 4;
+    // 逐字符扫描
+    int COST_SCAN = 8;
+    // 嵌套校验方法调用
+    int COST_NESTED = 16;
 
     /**
      * 规则处理
@@ -22,4 +38,10 @@ public interface Regulation {
      */
     ListBuffer<JCTree.JCStatement> handle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
                                           String fieldName, JCTree.JCExpression self, JCTree.JCStatement action);
+
+    /**
+     * 估算规则执行开销，用于调整校验顺序
+     * @return 开销
+     */
+    int getCost();
 }
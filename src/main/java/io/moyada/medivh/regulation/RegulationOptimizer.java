@@ -0,0 +1,134 @@
+package io.moyada.medivh.regulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 规则链优化器
+ * 在生成语句前合并重复的空值判断，移除被其他规则包含的校验，并将整数双边范围合并为单次比较
+ * 同时提供按估算开销排序规则，使低开销的比较先于扫描、方法调用执行
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class RegulationOptimizer {
+
+    // 开销由低到高
+    private static final Comparator<Regulation> COST_ORDER = new Comparator<Regulation>() {
+        @Override
+        public int compare(Regulation o1, Regulation o2) {
+            return o1.getCost() - o2.getCost();
+        }
+    };
+
+    private RegulationOptimizer() {
+    }
+
+    /**
+     * 按开销稳定排序校验规则，开销相同保持原有顺序
+     * 非空包装、临时变量等调整语句结构的规则保持原有位置
+     * @param regulations 规则处理链
+     * @return 排序后的规则处理链
+     */
+    public static List<Regulation> order(List<Regulation> regulations) {
+        if (null == regulations || regulations.size() < 2) {
+            return regulations;
+        }
+
+        List<Integer> slots = new ArrayList<Integer>();
+        List<Regulation> checks = new ArrayList<Regulation>();
+        int size = regulations.size();
+        for (int i = 0; i < size; i++) {
+            Regulation regulation = regulations.get(i);
+            if (regulation instanceof BaseRegulation) {
+                slots.add(i);
+                checks.add(regulation);
+            }
+        }
+        if (checks.size() < 2) {
+            return regulations;
+        }
+
+        Collections.sort(checks, COST_ORDER);
+
+        List<Regulation> result = new ArrayList<Regulation>(regulations);
+        size = slots.size();
+        for (int i = 0; i < size; i++) {
+            result.set(slots.get(i), checks.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 获取规则链总开销
+     * @param regulations 规则处理链
+     * @return 开销
+     */
+    public static int getCost(List<Regulation> regulations) {
+        int cost = Regulation.COST_NONE;
+        for (Regulation regulation : regulations) {
+            cost += regulation.getCost();
+        }
+        return cost;
+    }
+
+    /**
+     * 优化规则链，保持规则原有顺序，需要调整的规则以新规则替换，不修改原有规则
+     * @param regulations 规则处理链
+     * @return 优化后的规则处理链
+     */
+    public static List<Regulation> optimize(List<Regulation> regulations) {
+        if (null == regulations || regulations.isEmpty()) {
+            return regulations;
+        }
+
+        boolean hasNullCheck = false;
+        boolean hasNotBlank = false;
+        int lastWrapper = -1;
+
+        int size = regulations.size();
+        for (int i = 0; i < size; i++) {
+            Regulation regulation = regulations.get(i);
+            if (regulation instanceof NullCheckRegulation) {
+                hasNullCheck = true;
+            } else if (regulation instanceof NotBlankRegulation) {
+                hasNotBlank = true;
+            } else if (regulation instanceof NotNullWrapperRegulation) {
+                lastWrapper = i;
+            }
+        }
+
+        List<Regulation> result = new ArrayList<Regulation>(size);
+        boolean nullChecked = false;
+        for (int i = 0; i < size; i++) {
+            Regulation regulation = regulations.get(i);
+
+            if (regulation instanceof NullCheckRegulation) {
+                // 只保留一次空值判断
+                if (nullChecked) {
+                    continue;
+                }
+                nullChecked = true;
+            } else if (regulation instanceof NotNullWrapperRegulation) {
+                // 已校验非空则无需包装，多次包装只保留最外层
+                if (hasNullCheck || i != lastWrapper) {
+                    continue;
+                }
+            } else if (regulation instanceof SizeRangeRegulation) {
+                // 空白判断已包含长度为 0 的情况
+                if (hasNotBlank) {
+                    regulation = ((SizeRangeRegulation) regulation).dropMin(1);
+                    if (null == regulation) {
+                        continue;
+                    }
+                }
+            } else if (regulation instanceof NumberRegulation) {
+                regulation = ((NumberRegulation) regulation).mergeRange();
+            }
+
+            result.add(regulation);
+        }
+        return result;
+    }
+}
@@ -4,6 +4,10 @@ import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.support.*;
+import io.moyada.medivh.util.TreeUtil;
+import io.moyada.medivh.util.TypeUtil;
+
+import java.util.ArrayList;
 
 /**
  * 空间范围校验规则
@@ -12,37 +16,122 @@ import io.moyada.medivh.support.*;
  **/
 public class SizeRangeRegulation extends BaseRegulation implements Regulation {
 
+    private static final long serialVersionUID = 1L;
+
     // 最小值
     private final Integer min;
     // 最大值
     private final Integer max;
+    // 可调整的最大值名称，失败信息使用默认值
+    private final String maxTunable;
+
+    // 类型
+    private final byte type;
+
+    // 是否只计数至上限
+    private final boolean bounded;
+
+    // 最小值为 1 的集合使用 isEmpty() 校验
+    private final boolean emptyCheck;
 
     // 类型数据获取支持
     private final TypeFetchSupport typeFetchSupport;
 
-    // 临时变量支持
-    private final LocalVarSupport localVarSupport;
+    // 临时变量名前缀，为 null 使用默认前缀
+    private final String varPrefix;
 
     public SizeRangeRegulation(Integer min, Integer max, byte type) {
+        this(min, max, type, false);
+    }
+
+    /**
+     * 创建空间范围校验规则
+     * @param min 最小值
+     * @param max 最大值
+     * @param type 类型
+     * @param bounded 集合 size() 需要遍历时为 true，只计数至 max + 1 或 min
+     */
+    public SizeRangeRegulation(Integer min, Integer max, byte type, boolean bounded) {
+        this(min, max, type, bounded, null);
+    }
+
+    /**
+     * 创建空间范围校验规则
+     * @param min 最小值
+     * @param max 最大值，可调整时为默认值
+     * @param type 类型
+     * @param bounded 集合 size() 需要遍历时为 true，只计数至 max + 1 或 min，最大值可调整时计数至运行期 max + 1
+     * @param maxTunable 可调整的最大值名称，固定时为 null
+     */
+    public SizeRangeRegulation(Integer min, Integer max, byte type, boolean bounded, String maxTunable) {
+        this(min, max, type, bounded, maxTunable, null);
+    }
+
+    private SizeRangeRegulation(Integer min, Integer max, byte type, boolean bounded, String maxTunable, String varPrefix) {
         this.min = min;
         this.max = max;
-        this.localVarSupport = new LocalVarSupport(TypeTag.INT);
-        this.typeFetchSupport = new TypeFetchSupport(type);
+        this.maxTunable = maxTunable;
+        this.type = type;
+        this.bounded = bounded;
+        this.varPrefix = varPrefix;
+        this.emptyCheck = type == TypeUtil.COLLECTION && null != min && min == 1;
+
+        if (bounded && null != maxTunable) {
+            this.typeFetchSupport = new TypeFetchSupport(type, max, maxTunable);
+        } else {
+            int limit = 0;
+            if (bounded) {
+                limit = null != max ? max + 1 : min;
+            }
+            this.typeFetchSupport = new TypeFetchSupport(type, limit);
+        }
+    }
+
+    /**
+     * 移除已被其他规则保证的最小值校验
+     * @param implied 已保证的最小值
+     * @return 移除后的规则，无需校验返回 null
+     */
+    SizeRangeRegulation dropMin(int implied) {
+        if (null == min || min > implied) {
+            return this;
+        }
+        if (null == max) {
+            return null;
+        }
+        SizeRangeRegulation regulation = new SizeRangeRegulation(null, max, type, bounded, maxTunable, varPrefix);
+        regulation.copyActionData(this);
+        return regulation;
+    }
+
+    /**
+     * 使用指定前缀命名临时变量，避免与外层作用域的临时变量重名
+     * @param prefix 变量名前缀
+     * @return 使用前缀的规则
+     */
+    SizeRangeRegulation withVarPrefix(String prefix) {
+        SizeRangeRegulation regulation = new SizeRangeRegulation(min, max, type, bounded, maxTunable, prefix);
+        regulation.copyActionData(this);
+        return regulation;
     }
 
     @Override
     JCTree.JCStatement doHandle(SyntaxTreeMaker syntaxTreeMaker, ListBuffer<JCTree.JCStatement> statements,
-                                JCTree.JCExpression self, JCTree.JCStatement action) {
+                                String fieldName, JCTree.JCExpression self, JCTree.JCStatement action) {
 
         TreeMaker treeMaker = syntaxTreeMaker.getTreeMaker();
 
         // 获取大小信息
-        JCTree.JCExpression getLength;
+        JCTree.JCExpression getLength = null;
 
-        if (null != min && null != max) {
+        boolean fetchMin = null != min && !emptyCheck;
+        if (fetchMin && null != max) {
             getLength = typeFetchSupport.getExpr(syntaxTreeMaker, self);
+            // 临时变量每次生成语句时重新声明
+            LocalVarSupport localVarSupport = null == varPrefix ? new LocalVarSupport(TypeTag.INT) :
+                    new LocalVarSupport(TypeTag.INT, varPrefix);
             getLength = localVarSupport.getValue(syntaxTreeMaker, statements, getLength);
-        } else {
+        } else if (fetchMin || null != max) {
             getLength = typeFetchSupport.getExpr(syntaxTreeMaker, self);
         }
 
@@ -50,45 +139,76 @@ public class SizeRangeRegulation extends BaseRegulation implements Regulation {
 
         // min logic
         if (null != min) {
-            JCTree.JCLiteral minField = syntaxTreeMaker.newElement(TypeTag.INT, min);
-
             // 创建对比语句
-            JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.LT, getLength, minField);
-
-            JCTree.JCStatement lessAction;
-            if (null == info) {
-                lessAction = action;
+            JCTree.JCExpression condition;
+            if (emptyCheck) {
+                condition = syntaxTreeMaker.getMethod(self, "isEmpty", TreeUtil.emptyExpression());
             } else {
-                String msg = info + ElementOptions.LESS_INFO + " " + min;
-                lessAction = createAction(syntaxTreeMaker, msg);
+                JCTree.JCLiteral minField = syntaxTreeMaker.newElement(TypeTag.INT, min);
+                condition = syntaxTreeMaker.newBinary(TypeTag.LT, getLength, minField);
             }
 
+            JCTree.JCStatement lessAction = failAction(syntaxTreeMaker, fieldName, action, getLessRule());
             expression = treeMaker.If(condition, lessAction, expression);
         }
 
         // max logic
         if (null != max) {
-            JCTree.JCLiteral minField = syntaxTreeMaker.newElement(TypeTag.INT, max);
-
-            // 创建对比语句
-            JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.GT, getLength, minField);
-
-            JCTree.JCStatement greatAction;
-            if (null == info) {
-                greatAction = action;
+            JCTree.JCExpression maxField;
+            if (null == maxTunable) {
+                maxField = syntaxTreeMaker.newElement(TypeTag.INT, max);
             } else {
-                String msg = info + ElementOptions.GREAT_INFO + " " + max;
-                greatAction = createAction(syntaxTreeMaker, msg);
+                maxField = TunableSupport.getValue(syntaxTreeMaker, maxTunable, max);
             }
 
+            // 创建对比语句
+            JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.GT, getLength, maxField);
+
+            JCTree.JCStatement greatAction = failAction(syntaxTreeMaker, fieldName, action, getGreatRule());
             expression = treeMaker.If(condition, greatAction, expression);
         }
 
         return expression;
     }
 
+    @Override
+    public int getCost() {
+        if (emptyCheck && null == max) {
+            return COST_CALL;
+        }
+        return typeFetchSupport.getCost();
+    }
+
     @Override
     String buildInfo(String fieldName) {
         return fieldName + typeFetchSupport.getMode() + " ";
     }
+
+    @Override
+    java.util.List<String> getRules() {
+        java.util.List<String> rules = new ArrayList<String>(2);
+        if (null != min) {
+            rules.add(getLessRule());
+        }
+        if (null != max) {
+            rules.add(getGreatRule());
+        }
+        return rules;
+    }
+
+    /**
+     * 获取小于最小值的规则描述
+     * @return 规则描述
+     */
+    private String getLessRule() {
+        return ElementOptions.current().getLessInfo() + " " + min;
+    }
+
+    /**
+     * 获取大于最大值的规则描述
+     * @return 规则描述
+     */
+    private String getGreatRule() {
+        return ElementOptions.current().getGreatInfo() + " " + max;
+    }
 }
@@ -1,11 +1,17 @@
 package io.moyada.medivh.support;
 
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * 规则动作信息
  * @author xueyikang
  * @since 1.0
  **/
-public class ActionData {
+public class ActionData implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // 动作模式
     private final byte actionMode;
@@ -16,10 +22,26 @@ public class ActionData {
     // 信息
     private final String info;
 
+    // 规则码信息表，下标加一为规则码
+    private final List<String> codeTable;
+
     public ActionData(byte actionMode, String className, String info) {
         this.actionMode = actionMode;
         this.className = className;
         this.info = info;
+        this.codeTable = null;
+    }
+
+    /**
+     * 创建返回规则码的处理数据
+     * @param actionMode 动作模式
+     * @param codeTable 规则码信息表，在创建校验计划时登记完成，生成语句时只读取
+     */
+    public ActionData(byte actionMode, List<String> codeTable) {
+        this.actionMode = actionMode;
+        this.className = null;
+        this.info = null;
+        this.codeTable = Collections.unmodifiableList(codeTable);
     }
 
     public byte getActionMode() {
@@ -33,4 +55,17 @@ public class ActionData {
     public String getInfo() {
         return info;
     }
+
+    /**
+     * 获取信息对应规则码，相同信息使用同一规则码
+     * @param message 信息
+     * @return 规则码，从 1 开始
+     */
+    public int getCode(String message) {
+        int index = codeTable.indexOf(message);
+        if (index < 0) {
+            throw new IllegalStateException("Rule code of \"" + message + "\" is not registered in validation plan.");
+        }
+        return index + 1;
+    }
 }
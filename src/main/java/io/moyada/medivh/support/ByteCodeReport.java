@@ -0,0 +1,97 @@
+package io.moyada.medivh.support;
+
+import io.moyada.medivh.util.SystemUtil;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 字节码增长报告
+ * 记录校验逻辑带来的方法字节码增长，当方法超过 JIT 内联或编译阈值时给出提示
+ * 默认为 NOTE 级别，避免使用 -Werror 的项目编译失败，指定报告文件 medivh.report 时为 WARNING 级别
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ByteCodeReport {
+
+    // JIT 阈值，超过 MaxInlineSize 仅热点调用可内联，超过 FreqInlineSize 不再内联，超过 HugeMethodLimit 不再编译
+    private static final int[] LIMITS = {35, 325, 8000};
+    private static final String[] LIMIT_NAMES = {"MaxInlineSize", "FreqInlineSize", "HugeMethodLimit"};
+
+    // 报告头
+    private static final String HEADER = "method\tbefore\tafter\tgrowth";
+
+    private final Messager messager;
+
+    private final Filer filer;
+
+    // 报告记录
+    private final List<String> records = new ArrayList<String>();
+
+    public ByteCodeReport(Messager messager, Filer filer) {
+        this.messager = messager;
+        this.filer = filer;
+    }
+
+    /**
+     * 记录方法字节码增长
+     * @param methodName 方法名
+     * @param before 原始方法估算字节数
+     * @param after 增加校验后估算字节数
+     */
+    public void record(String methodName, int before, int after) {
+        int growth = after - before;
+        messager.printMessage(Diagnostic.Kind.NOTE, "processing  =====>  Bytecode of " + methodName +
+                " grows ~" + growth + " bytes, ~" + before + " -> ~" + after);
+
+        Diagnostic.Kind kind = null == ElementOptions.current().getReportPath() ? Diagnostic.Kind.NOTE : Diagnostic.Kind.WARNING;
+        int length = LIMITS.length;
+        for (int i = 0; i < length; i++) {
+            int limit = LIMITS[i];
+            if (before <= limit && after > limit) {
+                messager.printMessage(kind, "[Bytecode Warning] Validation of " + methodName +
+                        " grows bytecode from ~" + before + " to ~" + after + " bytes, exceeds " + LIMIT_NAMES[i] + " (" + limit + ").");
+            }
+        }
+
+        records.add(methodName + "\t" + before + "\t" + after + "\t" + growth);
+    }
+
+    /**
+     * 输出报告文件，记录包含所有轮次，需在处理结束时调用一次
+     * 相对路径位于类输出目录，绝对路径追加类输出目录标识
+     * @param path 文件路径
+     */
+    public void write(String path) {
+        if (null == path || path.isEmpty()) {
+            return;
+        }
+
+        Writer writer = null;
+        try {
+            writer = SystemUtil.openOutput(filer, path);
+            writer.append(HEADER).append("\n");
+            for (String record : records) {
+                writer.append(record).append("\n");
+            }
+            writer.flush();
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Can't write bytecode report to " +
+                    SystemUtil.getOutputPath(filer, path) + ", " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Can't write bytecode report to " + path + ", " + e.getMessage());
+        } finally {
+            if (null != writer) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
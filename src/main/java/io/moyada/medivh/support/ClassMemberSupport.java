@@ -0,0 +1,163 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.ListBuffer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 类成员生成支持，记录校验逻辑需要追加到类中的方法或属性
+ * 无法直接定义静态属性的类将属性定义在嵌套的持有类中
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ClassMemberSupport {
+
+    // 持有类名
+    private static final String HOLDER_NAME = "medivh$Holder";
+
+    // 持有类成员标识前缀
+    private static final String HOLDER_KEY = "holder ";
+
+    // 语法创建工具
+    private final SyntaxTreeMaker syntaxTreeMaker;
+
+    // 类元素 - 持有类
+    private final Map<Symbol, JCTree.JCClassDecl> holders = new HashMap<Symbol, JCTree.JCClassDecl>();
+
+    // 类元素 - 成员标识 - 成员名
+    private final Map<Symbol, Map<String, String>> memberNames = new HashMap<Symbol, Map<String, String>>();
+
+    // 类元素 - 新增成员
+    private final Map<Symbol, ListBuffer<JCTree>> members = new LinkedHashMap<Symbol, ListBuffer<JCTree>>();
+
+    public ClassMemberSupport(SyntaxTreeMaker syntaxTreeMaker) {
+        this.syntaxTreeMaker = syntaxTreeMaker;
+    }
+
+    /**
+     * 获取已创建的成员名
+     * @param classSymbol 类元素
+     * @param key 成员标识
+     * @return 未创建则返回 null
+     */
+    public String getMemberName(Symbol classSymbol, String key) {
+        Map<String, String> names = memberNames.get(classSymbol);
+        if (null == names) {
+            return null;
+        }
+        return names.get(key);
+    }
+
+    /**
+     * 获取类中下一个可用的成员名
+     * @param classSymbol 类元素
+     * @param prefix 名称前缀
+     * @return 成员名
+     */
+    public String nextMemberName(Symbol classSymbol, String prefix) {
+        Map<String, String> names = memberNames.get(classSymbol);
+        int index = 0;
+        if (null != names) {
+            for (String name : names.values()) {
+                if (name.startsWith(prefix)) {
+                    index++;
+                }
+            }
+        }
+        return prefix + index;
+    }
+
+    /**
+     * 记录新增成员
+     * @param classSymbol 类元素
+     * @param key 成员标识
+     * @param name 成员名
+     * @param member 成员节点
+     */
+    public void addMember(Symbol classSymbol, String key, String name, JCTree member) {
+        Map<String, String> names = memberNames.get(classSymbol);
+        if (null == names) {
+            names = new HashMap<String, String>();
+            memberNames.put(classSymbol, names);
+        }
+        names.put(key, name);
+
+        ListBuffer<JCTree> trees = members.get(classSymbol);
+        if (null == trees) {
+            trees = new ListBuffer<JCTree>();
+            members.put(classSymbol, trees);
+        }
+        trees.append(member);
+    }
+
+    /**
+     * 获取持有类中已创建的属性名
+     * @param classSymbol 类元素
+     * @param key 成员标识
+     * @return 未创建则返回 null
+     */
+    public String getHolderMemberName(Symbol classSymbol, String key) {
+        return getMemberName(classSymbol, HOLDER_KEY + key);
+    }
+
+    /**
+     * 记录持有类中的新增属性，持有类为嵌套的静态类，首次访问属性时初始化
+     * 用于无法直接定义静态属性的类，如属性均为公开的接口，构造方法先于新增属性初始化执行的枚举
+     * @param classSymbol 类元素
+     * @param key 成员标识
+     * @param name 属性名
+     * @param field 属性节点
+     */
+    public void addHolderMember(Symbol.ClassSymbol classSymbol, String key, String name, JCTree.JCVariableDecl field) {
+        JCTree.JCClassDecl holder = holders.get(classSymbol);
+        if (null == holder) {
+            // 接口中的嵌套类均为公开类
+            long flags = (classSymbol.flags() & Flags.INTERFACE) != 0 ? Flags.STATIC | Flags.FINAL :
+                    Flags.PRIVATE | Flags.STATIC | Flags.FINAL;
+            holder = syntaxTreeMaker.newClass(HOLDER_NAME, flags);
+            holders.put(classSymbol, holder);
+            addMember(classSymbol, HOLDER_KEY, HOLDER_NAME, holder);
+        }
+        holder.defs = holder.defs.append(field);
+
+        Map<String, String> names = memberNames.get(classSymbol);
+        names.put(HOLDER_KEY + key, name);
+    }
+
+    /**
+     * 获取持有类中的属性
+     * @param name 属性名
+     * @return 属性引用
+     */
+    public JCTree.JCExpression getHolderMember(String name) {
+        return syntaxTreeMaker.Select(syntaxTreeMaker.getTreeMaker().Ident(syntaxTreeMaker.getName(HOLDER_NAME)), name);
+    }
+
+    /**
+     * 获取存在新增成员的类
+     * @return 类元素集合
+     */
+    public Set<Symbol> getClasses() {
+        return members.keySet();
+    }
+
+    /**
+     * 获取类的新增成员
+     * @param classSymbol 类元素
+     * @return 成员节点
+     */
+    public List<JCTree> getMembers(Symbol classSymbol) {
+        ListBuffer<JCTree> trees = members.get(classSymbol);
+        if (null == trees) {
+            return List.nil();
+        }
+        return trees.toList();
+    }
+}
@@ -0,0 +1,118 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.util.List;
+import io.moyada.medivh.util.TypeUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 类型类别支持，按类型元素缓存 字符串、数组、集合、原始类型、对象 的判断结果
+ * 每轮处理创建一次，由规则类与校验方法的生成共用
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ClassTypeSupport {
+
+    private final SyntaxTreeMaker syntaxTreeMaker;
+
+    // 类型元素 - 类别
+    private final Map<Symbol, Byte> classTypes = new HashMap<Symbol, Byte>();
+
+    // 已检查的接口 - 是否属于字符序列
+    private final Map<Symbol, Boolean> stringTypes = new HashMap<Symbol, Boolean>();
+
+    public ClassTypeSupport(SyntaxTreeMaker syntaxTreeMaker) {
+        this.syntaxTreeMaker = syntaxTreeMaker;
+    }
+
+    /**
+     * 获取类型
+     * @param className 类型名称
+     * @return 类型
+     */
+    public byte getClassType(String className) {
+        Symbol.ClassSymbol classSymbol = syntaxTreeMaker.getTypeElement(className);
+        // 数组、primitive 类型
+        if (null == classSymbol) {
+            if (TypeUtil.isArr(className)) {
+                return TypeUtil.ARRAY;
+            }
+            if (TypeUtil.isPrimitive(className)) {
+                return TypeUtil.PRIMITIVE;
+            }
+            return TypeUtil.OBJECT;
+        }
+
+        Byte classType = classTypes.get(classSymbol);
+        if (null == classType) {
+            classType = getClassType(classSymbol);
+            classTypes.put(classSymbol, classType);
+        }
+        return classType;
+    }
+
+    /**
+     * 判断类元素类别
+     * @param classSymbol 类元素
+     * @return 类型
+     */
+    private byte getClassType(Symbol.ClassSymbol classSymbol) {
+        // 字符串逻辑
+        if (isString(classSymbol)) {
+            return TypeUtil.STRING;
+        }
+        // 集合 Collection \ Map，包含父类实现的接口，如继承 ConcurrentLinkedQueue 的子类
+        if (isInstanceOf(classSymbol, syntaxTreeMaker.collectionSymbol) || isInstanceOf(classSymbol, syntaxTreeMaker.mapSymbol)) {
+            return TypeUtil.COLLECTION;
+        }
+        return TypeUtil.OBJECT;
+    }
+
+    /**
+     * 类型是否属于 {@link CharSequence} 或实现类
+     * @param classSymbol 类元素
+     * @return 是否属于字符序列
+     */
+    private boolean isString(Symbol.ClassSymbol classSymbol) {
+        if (classSymbol.isInterface()) {
+            return isStringInterface(classSymbol);
+        }
+
+        List<Type> interfaces = classSymbol.getInterfaces();
+        int size = interfaces.size();
+        // 检查接口
+        for (int i = 0; i < size; i++) {
+            if (isStringInterface(interfaces.get(i).tsym)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 接口是否属于字符序列，记录已检查的接口
+     * @param typeSymbol 接口元素
+     * @return 是否属于 CharSequence
+     */
+    private boolean isStringInterface(Symbol typeSymbol) {
+        Boolean isString = stringTypes.get(typeSymbol);
+        if (null == isString) {
+            isString = isInstanceOf(typeSymbol, syntaxTreeMaker.stringSymbol);
+            stringTypes.put(typeSymbol, isString);
+        }
+        return isString;
+    }
+
+    /**
+     * 判断是否为类型的子类
+     * @param typeSymbol 类型元素
+     * @param classSymbol 类元素
+     * @return 是否相似类型
+     */
+    private boolean isInstanceOf(Symbol typeSymbol, Symbol.ClassSymbol classSymbol) {
+        return typeSymbol.isSubClass(classSymbol, syntaxTreeMaker.getTypes());
+    }
+}
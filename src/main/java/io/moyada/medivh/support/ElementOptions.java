@@ -3,78 +3,362 @@ package io.moyada.medivh.support;
 import io.moyada.medivh.util.CheckUtil;
 import io.moyada.medivh.util.SystemUtil;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * 构造元素
+ * 配置优先读取处理器参数 -Akey=value ，未指定时读取系统参数，每次编译单独解析
  * @author xueyikang
  * @since 1.0
  **/
 public class ElementOptions {
 
-    private ElementOptions() {
-    }
-
     // 校验方法名配置
-    private static final String METHOD_KEY = "medivh.method";
+    public static final String METHOD_KEY = "medivh.method";
     private static final String DEFAULT_METHOD_NAME = "invalid0";
-    public final static String METHOD_NAME = SystemUtil.getProperty(METHOD_KEY, DEFAULT_METHOD_NAME);
-
 
     // 临时变量名配置
-    private static final String VARIABLE_KEY = "medivh.var";
+    public static final String VARIABLE_KEY = "medivh.var";
     private static final String DEFAULT_VARIABLE_NAME = "mvar_0";
-    public final static String LOCAL_VARIABLE = SystemUtil.getProperty(VARIABLE_KEY, DEFAULT_VARIABLE_NAME);
-
 
     // 异常信息头配置
-    private static final String MESSAGE_KEY = "medivh.message";
+    public static final String MESSAGE_KEY = "medivh.message";
     private static final String DEFAULT_MESSAGE = "Invalid input parameter";
-    public final static String MESSAGE = SystemUtil.getProperty(MESSAGE_KEY, DEFAULT_MESSAGE);
 
     public static final String ACTION_INFO = ", cause ";
 
     // 非空信息配置
-    private static final String NULL_KEY = "medivh.info.null";
+    public static final String NULL_KEY = "medivh.info.null";
     private static final String DEFAULT_NULL_INFO = "is null";
-    public final static String NULL_INFO = SystemUtil.getProperty(NULL_KEY, DEFAULT_NULL_INFO);
 
     // 相等信息配置
-    private static final String EQUALS_KEY = "medivh.info.equals";
+    public static final String EQUALS_KEY = "medivh.info.equals";
     private static final String DEFAULT_EQUALS_INFO = "cannot equals";
-    public final static String EQUALS_INFO = SystemUtil.getProperty(EQUALS_KEY, DEFAULT_EQUALS_INFO);
 
     // 小于信息配置
-    private static final String LESS_KEY = "medivh.info.less";
+    public static final String LESS_KEY = "medivh.info.less";
     private static final String DEFAULT_LESS_INFO = "less than";
-    public final static String LESS_INFO = SystemUtil.getProperty(LESS_KEY, DEFAULT_LESS_INFO);
 
     // 大于信息配置
-    private static final String GREAT_KEY = "medivh.info.great";
+    public static final String GREAT_KEY = "medivh.info.great";
     private static final String DEFAULT_GREAT_INFO = "great than";
-    public final static String GREAT_INFO = SystemUtil.getProperty(GREAT_KEY, DEFAULT_GREAT_INFO);
 
-    // 大于信息配置
-    private static final String BLANK_KEY = "medivh.info.blank";
+    // 空白信息配置
+    public static final String BLANK_KEY = "medivh.info.blank";
     private static final String DEFAULT_BLANK_INFO = "is blank";
-    public final static String BLANK_INFO = SystemUtil.getProperty(BLANK_KEY, DEFAULT_BLANK_INFO);
+
+    // 空白字符串按 Character.isWhitespace 判断配置
+    public static final String BLANK_WHITESPACE_KEY = "medivh.blank.whitespace";
+
+    // 失败动作外提配置
+    public static final String OUTLINE_KEY = "medivh.action.outline";
+
+    // 校验方法返回规则码配置
+    public static final String RULE_CODE_KEY = "medivh.rule.code";
+
+    // 规则链优化配置
+    public static final String OPTIMIZE_KEY = "medivh.optimize";
+
+    // 按开销顺序生成校验配置
+    public static final String ORDER_COST_KEY = "medivh.order.cost";
+
+    // 字节码报告输出路径，通过 -Amedivh.report 指定
+    public static final String REPORT_KEY = "medivh.report";
+
+    // 处理器阶段统计输出路径，通过 -Amedivh.profile 指定
+    public static final String PROFILE_KEY = "medivh.profile";
 
     // 是否创建工具类
-    private static final String UTIL_CREATE_KEY = "medivh.util.create";
-    public final static String UTIL_CREATE = SystemUtil.getProperty(UTIL_CREATE_KEY, "true");
+    public static final String UTIL_CREATE_KEY = "medivh.util.create";
 
-    // 工具类
-    public static String UTIL_CLASS;
-    // 非空白字符串方法
-    public static String BLANK_METHOD = "isBlank";
+    // 是否调用 medivh-runtime 提供的工具类与异常类
+    public static final String RUNTIME_KEY = "medivh.runtime";
+
+    // 运行期校验开关读取的系统参数名
+    public static final String SWITCH_KEY = "medivh.switch";
+    private static final String DEFAULT_SWITCH_PROPERTY = "medivh.enabled";
+
+    // 校验失败分支拒绝计数配置
+    public static final String METRICS_KEY = "medivh.metrics";
 
     // 默认原生布尔值返回
-    private static final String RETURN_BOOLEAN_KEY = "medivh.return.boolean";
-    public final static String RETURN_BOOLEAN = CheckUtil.checkBoolean(System.getProperty(RETURN_BOOLEAN_KEY));
+    public static final String RETURN_BOOLEAN_KEY = "medivh.return.boolean";
 
     // 默认原生数字值返回
-    private static final String RETURN_NUMBER_KEY = "medivh.return.number";
-    public final static String RETURN_NUMBER = CheckUtil.checkNumber(System.getProperty(RETURN_NUMBER_KEY));
+    public static final String RETURN_NUMBER_KEY = "medivh.return.number";
 
     // 默认原生字符值返回
-    private static final String RETURN_CHAR_KEY = "medivh.return.char";
-    public final static String RETURN_CHAR = CheckUtil.checkChar(System.getProperty(RETURN_CHAR_KEY));
+    public static final String RETURN_CHAR_KEY = "medivh.return.char";
+
+    // 处理器支持的参数
+    public static final Set<String> KEYS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            METHOD_KEY, VARIABLE_KEY, MESSAGE_KEY, NULL_KEY, EQUALS_KEY, LESS_KEY, GREAT_KEY, BLANK_KEY,
+            BLANK_WHITESPACE_KEY, OUTLINE_KEY, RULE_CODE_KEY, OPTIMIZE_KEY, ORDER_COST_KEY, REPORT_KEY,
+            PROFILE_KEY, UTIL_CREATE_KEY, RUNTIME_KEY, SWITCH_KEY, METRICS_KEY, RETURN_BOOLEAN_KEY,
+            RETURN_NUMBER_KEY, RETURN_CHAR_KEY)));
+
+    // Gradle 聚合型增量处理器标识
+    public static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+    // 不填充堆栈的校验异常
+    public static final String EXCEPTION_NAME = "ValidationException";
+
+    // 预创建的校验异常
+    public static final String PREALLOCATED_NAME = "PreallocatedException";
+
+    // 非空白字符串方法
+    public static final String BLANK_METHOD = "isBlank";
+
+    // 有界集合计数方法
+    public static final String SIZE_METHOD = "sizeOf";
+
+    // medivh-runtime 工具类
+    public static final String RUNTIME_UTIL = "io.moyada.medivh.runtime.Util";
+
+    // medivh-runtime 按 Character.isWhitespace 判断空白的工具类
+    public static final String RUNTIME_WHITESPACE_UTIL = "io.moyada.medivh.runtime.WhitespaceUtil";
+
+    // medivh-runtime 不填充堆栈的校验异常
+    public static final String RUNTIME_EXCEPTION = "io.moyada.medivh.runtime.ValidationException";
+
+    // medivh-runtime 预创建的校验异常
+    public static final String RUNTIME_PREALLOCATED = "io.moyada.medivh.runtime.PreallocatedException";
+
+    // medivh-runtime 可调整边界
+    public static final String RUNTIME_TUNABLES = "io.moyada.medivh.runtime.Tunables";
+
+    // medivh-runtime 拒绝计数
+    public static final String RUNTIME_REJECTIONS = "io.moyada.medivh.runtime.Rejections";
+
+    // 处理器参数
+    private final Map<String, String> options;
+
+    private final String methodName;
+
+    private final String localVariable;
+
+    private final String message;
+
+    private final String nullInfo;
+
+    private final String equalsInfo;
+
+    private final String lessInfo;
+
+    private final String greatInfo;
+
+    private final String blankInfo;
+
+    private final boolean blankWhitespace;
+
+    private final boolean outlineAction;
+
+    private final boolean ruleCode;
+
+    private final boolean optimize;
+
+    // 需显式开启，避免升级后改变已有校验的执行顺序
+    private final boolean orderByCost;
+
+    private final String reportPath;
+
+    private final String profilePath;
+
+    private final boolean createUtil;
+
+    // 需显式开启，避免类路径传递引入 medivh-runtime 时改变抛出的异常类型
+    private final boolean runtime;
+
+    // 未指定为 null，不生成开关
+    private final String switchProperty;
+
+    private final boolean metrics;
+
+    private final String returnBoolean;
+
+    private final String returnNumber;
+
+    private final String returnChar;
+
+    public ElementOptions(Map<String, String> options) {
+        this.options = options;
+
+        this.methodName = getString(METHOD_KEY, DEFAULT_METHOD_NAME);
+        this.localVariable = getString(VARIABLE_KEY, DEFAULT_VARIABLE_NAME);
+        this.message = getString(MESSAGE_KEY, DEFAULT_MESSAGE);
+        this.nullInfo = getString(NULL_KEY, DEFAULT_NULL_INFO);
+        this.equalsInfo = getString(EQUALS_KEY, DEFAULT_EQUALS_INFO);
+        this.lessInfo = getString(LESS_KEY, DEFAULT_LESS_INFO);
+        this.greatInfo = getString(GREAT_KEY, DEFAULT_GREAT_INFO);
+        this.blankInfo = getString(BLANK_KEY, DEFAULT_BLANK_INFO);
+
+        this.blankWhitespace = getBoolean(BLANK_WHITESPACE_KEY, false);
+        this.outlineAction = getBoolean(OUTLINE_KEY, false);
+        this.ruleCode = getBoolean(RULE_CODE_KEY, false);
+        this.optimize = getBoolean(OPTIMIZE_KEY, true);
+        this.orderByCost = getBoolean(ORDER_COST_KEY, false);
+
+        this.reportPath = getString(REPORT_KEY, null);
+        // -Amedivh.profile 未指定路径时使用默认文件名
+        this.profilePath = isFlag(PROFILE_KEY) ? ProcessorProfile.DEFAULT_PATH : getString(PROFILE_KEY, null);
+        this.createUtil = !Boolean.FALSE.toString().equalsIgnoreCase(getString(UTIL_CREATE_KEY, null));
+        this.runtime = getBoolean(RUNTIME_KEY, false);
+        this.switchProperty = getSwitchProperty(isFlag(SWITCH_KEY) ? Boolean.TRUE.toString() : getString(SWITCH_KEY, null));
+        this.metrics = getBoolean(METRICS_KEY, false);
+
+        this.returnBoolean = CheckUtil.checkBoolean(getString(RETURN_BOOLEAN_KEY, null));
+        this.returnNumber = CheckUtil.checkNumber(getString(RETURN_NUMBER_KEY, null));
+        this.returnChar = CheckUtil.checkChar(getString(RETURN_CHAR_KEY, null));
+    }
+
+    /**
+     * 获取当前编译的配置
+     * @return 配置
+     */
+    public static ElementOptions current() {
+        return ProcessorContext.current().getOptions();
+    }
+
+    /**
+     * 获取参数，处理器参数优先于系统参数
+     * @param key 参数名
+     * @param defaultValue 默认值
+     * @return 参数值
+     */
+    private String getString(String key, String defaultValue) {
+        String value = options.get(key);
+        if (null == value) {
+            value = SystemUtil.getProperty(key, defaultValue);
+        }
+        return value;
+    }
+
+    /**
+     * 获取布尔参数，仅指定 -Akey 时视为 true
+     * @param key 参数名
+     * @param defaultValue 默认值
+     * @return 参数值
+     */
+    private boolean getBoolean(String key, boolean defaultValue) {
+        if (isFlag(key)) {
+            return true;
+        }
+        return Boolean.parseBoolean(getString(key, Boolean.toString(defaultValue)));
+    }
+
+    /**
+     * 获取校验开关的系统参数名，指定 true 时使用默认参数名
+     * @param value 配置值
+     * @return 未指定或为 false 时返回 null
+     */
+    private static String getSwitchProperty(String value) {
+        if (null == value || Boolean.FALSE.toString().equalsIgnoreCase(value)) {
+            return null;
+        }
+        if (Boolean.TRUE.toString().equalsIgnoreCase(value)) {
+            return DEFAULT_SWITCH_PROPERTY;
+        }
+        return value;
+    }
+
+    /**
+     * 是否仅指定处理器参数名而未赋值
+     * @param key 参数名
+     * @return 未赋值返回 true
+     */
+    private boolean isFlag(String key) {
+        return options.containsKey(key) && null == options.get(key);
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getLocalVariable() {
+        return localVariable;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getNullInfo() {
+        return nullInfo;
+    }
+
+    public String getEqualsInfo() {
+        return equalsInfo;
+    }
+
+    public String getLessInfo() {
+        return lessInfo;
+    }
+
+    public String getGreatInfo() {
+        return greatInfo;
+    }
+
+    public String getBlankInfo() {
+        return blankInfo;
+    }
+
+    public boolean isBlankWhitespace() {
+        return blankWhitespace;
+    }
+
+    public boolean isOutlineAction() {
+        return outlineAction;
+    }
+
+    public boolean isRuleCode() {
+        return ruleCode;
+    }
+
+    public boolean isOptimize() {
+        return optimize;
+    }
+
+    public boolean isOrderByCost() {
+        return orderByCost;
+    }
+
+    public String getReportPath() {
+        return reportPath;
+    }
+
+    public String getProfilePath() {
+        return profilePath;
+    }
+
+    public boolean isCreateUtil() {
+        return createUtil;
+    }
+
+    public boolean isRuntime() {
+        return runtime;
+    }
+
+    public String getSwitchProperty() {
+        return switchProperty;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public String getReturnBoolean() {
+        return returnBoolean;
+    }
+
+    public String getReturnNumber() {
+        return returnNumber;
+    }
+
+    public String getReturnChar() {
+        return returnChar;
+    }
 }
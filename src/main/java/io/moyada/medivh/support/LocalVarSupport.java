@@ -20,7 +20,16 @@ public class LocalVarSupport {
     private JCTree.JCIdent localValue;
 
     public LocalVarSupport(TypeTag typeTag) {
-        this.name = generateName(typeTag);
+        this(typeTag, "var$");
+    }
+
+    /**
+     * 创建临时变量存储支持
+     * @param typeTag 类型标签
+     * @param prefix 变量名前缀，嵌套在已声明临时变量的作用域内时需使用不同前缀
+     */
+    public LocalVarSupport(TypeTag typeTag, String prefix) {
+        this.name = generateName(typeTag, prefix);
         this.typeTag = typeTag;
         this.localValue = null;
     }
@@ -28,10 +37,11 @@ public class LocalVarSupport {
     /**
      * 创建临时变量名称
      * @param typeTag 原生类型
+     * @param prefix 变量名前缀
      * @return 名称
      */
-    private String generateName(TypeTag typeTag) {
-        return "var$" + typeTag.ordinal();
+    private String generateName(TypeTag typeTag, String prefix) {
+        return prefix + typeTag.ordinal();
     }
 
     /**
@@ -0,0 +1,134 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.code.Symbol;
+import io.moyada.medivh.util.SystemUtil;
+
+import javax.lang.model.SourceVersion;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 处理器上下文，保存一次编译的配置与生成状态
+ * 处理器在每次处理时将上下文绑定到编译线程，同一 JVM 中并行的编译互不影响
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class ProcessorContext {
+
+    // 当前线程处理中的上下文
+    private static final ThreadLocal<ProcessorContext> CURRENT = new ThreadLocal<ProcessorContext>();
+
+    // 编译配置
+    private final ElementOptions options;
+
+    // 类校验方法信息, 类名 - 方法名
+    private final Map<String, String> checkMethods = new HashMap<String, String>();
+
+    // 元素 - 规则描述
+    private final Map<Symbol, RuleDescriptor> descriptors = new HashMap<Symbol, RuleDescriptor>();
+
+    // 资源路径 - 模板内容，每个处理器实例只读取一次
+    private final Map<String, String> templates = new HashMap<String, String>();
+
+    // 工具类
+    private String utilClass;
+
+    // 不填充堆栈的校验异常类
+    private String exceptionClass;
+
+    // 预创建的校验异常类
+    private String preallocatedClass;
+
+    // 源码版本
+    private SourceVersion sourceVersion = SourceVersion.latestSupported();
+
+    public ProcessorContext(ElementOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * 获取当前线程绑定的上下文
+     * @return 上下文
+     */
+    public static ProcessorContext current() {
+        ProcessorContext context = CURRENT.get();
+        if (null == context) {
+            throw new IllegalStateException("No processor context is bound to thread " + Thread.currentThread().getName());
+        }
+        return context;
+    }
+
+    /**
+     * 绑定到当前线程，处理结束后需调用 {@link #unbind()}
+     */
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * 解除当前线程绑定，避免构建守护进程的线程持有上次编译的状态
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 获取源码模板
+     * @param path 资源路径
+     * @return 模板内容
+     * @throws IOException 资源获取失败异常
+     */
+    public String getTemplate(String path) throws IOException {
+        String template = templates.get(path);
+        if (null == template) {
+            template = SystemUtil.getResource(path);
+            templates.put(path, template);
+        }
+        return template;
+    }
+
+    public ElementOptions getOptions() {
+        return options;
+    }
+
+    public Map<String, String> getCheckMethods() {
+        return checkMethods;
+    }
+
+    Map<Symbol, RuleDescriptor> getDescriptors() {
+        return descriptors;
+    }
+
+    public String getUtilClass() {
+        return utilClass;
+    }
+
+    public void setUtilClass(String utilClass) {
+        this.utilClass = utilClass;
+    }
+
+    public String getExceptionClass() {
+        return exceptionClass;
+    }
+
+    public void setExceptionClass(String exceptionClass) {
+        this.exceptionClass = exceptionClass;
+    }
+
+    public String getPreallocatedClass() {
+        return preallocatedClass;
+    }
+
+    public void setPreallocatedClass(String preallocatedClass) {
+        this.preallocatedClass = preallocatedClass;
+    }
+
+    public SourceVersion getSourceVersion() {
+        return sourceVersion;
+    }
+
+    public void setSourceVersion(SourceVersion sourceVersion) {
+        this.sourceVersion = sourceVersion;
+    }
+}
@@ -0,0 +1,201 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeScanner;
+import io.moyada.medivh.util.ClassUtil;
+import io.moyada.medivh.util.SystemUtil;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 处理器阶段统计
+ * 记录每轮处理各阶段耗时，以及访问元素、构建规则、生成语句的数量，每轮输出一个 JSON 文件
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ProcessorProfile {
+
+    // 未指定文件名时的默认输出路径
+    public static final String DEFAULT_PATH = "medivh-profile.json";
+
+    private static final String SUFFIX = ".json";
+
+    private final Messager messager;
+
+    private final Filer filer;
+
+    // 输出路径，为 null 不统计
+    private final String path;
+
+    // 处理轮次
+    private final int round;
+
+    // 阶段 - 耗时纳秒
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+
+    // 访问元素数
+    private int elements;
+
+    // 构建规则数
+    private int rules;
+
+    // 生成语句数
+    private int statements;
+
+    // 本轮开始时的反射缓存计数
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final long cacheEvictions;
+
+    public ProcessorProfile(Messager messager, Filer filer, String path, int round) {
+        this.messager = messager;
+        this.filer = filer;
+        this.path = path;
+        this.round = round;
+
+        this.cacheHits = ClassUtil.getCacheHits();
+        this.cacheMisses = ClassUtil.getCacheMisses();
+        this.cacheEvictions = ClassUtil.getCacheEvictions();
+    }
+
+    public boolean isEnabled() {
+        return null != path;
+    }
+
+    /**
+     * 开始阶段计时
+     * @return 开始时间
+     */
+    public long begin() {
+        return isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 结束阶段计时，同名阶段累加
+     * @param phase 阶段名
+     * @param begin 开始时间
+     */
+    public void end(String phase, long begin) {
+        if (!isEnabled()) {
+            return;
+        }
+        long time = System.nanoTime() - begin;
+        Long total = phases.get(phase);
+        phases.put(phase, null == total ? time : total + time);
+    }
+
+    public void addElements(int count) {
+        elements += count;
+    }
+
+    /**
+     * 记录校验计划中的规则数
+     * @param plan 校验计划
+     */
+    public void addRules(ValidationPlan plan) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (ValidationPlan.Item item : plan.getItems()) {
+            rules += item.getRegulations().size();
+        }
+    }
+
+    /**
+     * 记录生成的语句数，包含嵌套语句
+     * @param tree 生成的语法树
+     */
+    public void addStatements(JCTree tree) {
+        if (!isEnabled() || null == tree) {
+            return;
+        }
+        StatementCounter counter = new StatementCounter();
+        counter.scan(tree);
+        statements += counter.count;
+    }
+
+    /**
+     * 输出本轮统计，文件名追加轮次，如 medivh-profile-1.json
+     * 相对路径位于类输出目录，绝对路径追加类输出目录标识
+     */
+    public void write() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        String name = path.endsWith(SUFFIX) ? path.substring(0, path.length() - SUFFIX.length()) : path;
+        String file = name + "-" + round + SUFFIX;
+
+        Writer writer = null;
+        try {
+            writer = SystemUtil.openOutput(filer, file);
+            writer.append(toJson());
+            writer.flush();
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Can't write processor profile to " +
+                    SystemUtil.getOutputPath(filer, file) + ", " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Can't write processor profile to " + file + ", " + e.getMessage());
+        } finally {
+            if (null != writer) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * 阶段名均为内部定义的标识符，无需转义
+     * 反射缓存计数为本轮期间整个 JVM 的增量，并行编译时包含其他编译的访问
+     * @return JSON 文本
+     */
+    private String toJson() {
+        long total = 0L;
+        StringBuilder phaseJson = new StringBuilder();
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            if (phaseJson.length() > 0) {
+                phaseJson.append(",\n");
+            }
+            phaseJson.append("    \"").append(entry.getKey()).append("\": ").append(entry.getValue());
+            total += entry.getValue();
+        }
+
+        return "{\n" +
+                "  \"round\": " + round + ",\n" +
+                "  \"totalNanos\": " + total + ",\n" +
+                "  \"phaseNanos\": {\n" + phaseJson + "\n  },\n" +
+                "  \"elements\": " + elements + ",\n" +
+                "  \"rules\": " + rules + ",\n" +
+                "  \"statements\": " + statements + ",\n" +
+                "  \"reflectionCache\": {\n" +
+                "    \"hits\": " + (ClassUtil.getCacheHits() - cacheHits) + ",\n" +
+                "    \"misses\": " + (ClassUtil.getCacheMisses() - cacheMisses) + ",\n" +
+                "    \"evictions\": " + (ClassUtil.getCacheEvictions() - cacheEvictions) + "\n" +
+                "  }\n" +
+                "}\n";
+    }
+
+    /**
+     * 语句计数
+     */
+    private static class StatementCounter extends TreeScanner {
+
+        private int count;
+
+        @Override
+        public void scan(JCTree tree) {
+            if (tree instanceof JCTree.JCStatement) {
+                count++;
+            }
+            super.scan(tree);
+        }
+    }
+}
@@ -1,12 +1,7 @@
 package io.moyada.medivh.support;
 
 import com.sun.tools.javac.code.Symbol;
-import io.moyada.medivh.annotation.NotBlank;
-import io.moyada.medivh.annotation.NotNull;
-import io.moyada.medivh.annotation.Nullable;
-import io.moyada.medivh.annotation.Size;
 import io.moyada.medivh.regulation.*;
-import io.moyada.medivh.util.TreeUtil;
 import io.moyada.medivh.util.CheckUtil;
 import io.moyada.medivh.util.TypeUtil;
 
@@ -35,13 +30,12 @@ public final class RegulationBuilder {
             return null;
         }
 
-        NotNull notnull = TreeUtil.getAnnotation(symbol, NotNull.class);
-        Nullable nullable = TreeUtil.getAnnotation(symbol, Nullable.class);
+        RuleDescriptor descriptor = RuleDescriptor.of(symbol);
 
         Boolean nullcheck;
-        if (null != notnull) {
+        if (descriptor.isNotNull()) {
             nullcheck = true;
-        } else if (null != nullable) {
+        } else if (descriptor.isNullable()) {
             nullcheck = false;
         } else {
             nullcheck = hasAnyRule ? true : null;
@@ -64,20 +58,21 @@ public final class RegulationBuilder {
      */
     public static List<Regulation> findBasicRule(Symbol symbol, String className, byte type, ActionData actionData) {
         List<Regulation> regulations = new ArrayList<Regulation>();
+        RuleDescriptor descriptor = RuleDescriptor.of(symbol);
 
-        BaseRegulation notBlankRegulation = buildNotBlank(symbol, type);
+        BaseRegulation notBlankRegulation = buildNotBlank(descriptor, type);
         if (null != notBlankRegulation) {
             notBlankRegulation.setActionData(actionData);
             regulations.add(notBlankRegulation);
         }
 
-        BaseRegulation numRegulation = buildNumber(symbol, className);
+        BaseRegulation numRegulation = buildNumber(descriptor, className);
         if (null != numRegulation) {
             numRegulation.setActionData(actionData);
             regulations.add(numRegulation);
         }
 
-        BaseRegulation sizeRegulation = buildSize(symbol, type);
+        BaseRegulation sizeRegulation = buildSize(symbol, descriptor, type);
         if (null != sizeRegulation) {
             sizeRegulation.setActionData(actionData);
             regulations.add(sizeRegulation);
@@ -88,15 +83,14 @@ public final class RegulationBuilder {
 
     /**
      * 是否需要非空字符串校验
-     * @param symbol 元素
+     * @param descriptor 规则描述
      * @param classType 类别
      * @return 非空字符串处理规则
-     */private static BaseRegulation buildNotBlank(Symbol symbol, byte classType) {
+     */private static BaseRegulation buildNotBlank(RuleDescriptor descriptor, byte classType) {
         if (classType != TypeUtil.STRING) {
             return null;
         }
-        NotBlank notBlank = TreeUtil.getAnnotation(symbol, NotBlank.class);
-        if (null == notBlank) {
+        if (!descriptor.isNotBlank()) {
             return null;
         }
         return new NotBlankRegulation();
@@ -106,24 +100,32 @@ public final class RegulationBuilder {
      * 构建数字处理规则
      * 获取数值规则信息创建
      * 当最小值与最大值相同时返回 {@link EqualsRegulation}，最小值大于最大值返回 null，否则返回 {@link NumberRegulation}
-     * @param symbol 元素
+     * @param descriptor 规则描述
      * @param className 类名
      * @return 基础处理规则
      */
-    private static BaseRegulation buildNumber(Symbol symbol, String className) {
+    private static BaseRegulation buildNumber(RuleDescriptor descriptor, String className) {
         BaseRegulation regulation = null;
         // 数字逻辑
         char numType = TypeUtil.getNumType(className);
         if (numType != TypeUtil.UNKNOWN) {
-            Number minVal = CheckUtil.getMinNumber(symbol, numType);
-            Number maxVal = CheckUtil.getMaxNumber(symbol, numType);
+            Number minVal = CheckUtil.getMinNumber(descriptor, numType);
+            Number maxVal = CheckUtil.getMaxNumber(descriptor, numType);
             if (null == minVal && null == maxVal) {
                 return null;
             }
 
+            // 浮点数优先使用 @DecimalMin、@DecimalMax，不可调整
+            boolean decimal = TypeUtil.isDecimal(numType);
+            String minTunable = decimal && null != descriptor.getDecimalMin() ? null : descriptor.getMinTunable();
+            String maxTunable = decimal && null != descriptor.getDecimalMax() ? null : descriptor.getMaxTunable();
+
+            Number defaultMin = minVal;
+            Number defaultMax = maxVal;
             minVal = TypeUtil.getMin(numType, minVal);
             maxVal = TypeUtil.getMax(numType, maxVal);
 
+            // 可调整的边界同样按默认值判断范围
             int result;
             if (null == minVal || null == maxVal) {
                 result = -1;
@@ -131,6 +133,13 @@ public final class RegulationBuilder {
                 result = TypeUtil.compare(numType, minVal, maxVal);
             }
 
+            if (result <= 0 && (null != minTunable || null != maxTunable)) {
+                // 可调整的边界在运行期确定，不按类型范围省略，也不合并为相等判断
+                return new NumberRegulation(TypeUtil.getTypeTag(numType),
+                        null == minTunable ? minVal : defaultMin,
+                        null == maxTunable ? maxVal : defaultMax, minTunable, maxTunable);
+            }
+
             if (null != minVal || null != maxVal) {
                 if (result == -1) {
                     regulation = new NumberRegulation(TypeUtil.getTypeTag(numType), minVal, maxVal);
@@ -147,27 +156,43 @@ public final class RegulationBuilder {
      * 获得空间规则数据创建
      * 当类型不属于 String 或 Collection, Map 的类型或实现类将返回 null
      * 当最小值与最大值相同时返回 {@link EqualsRegulation}，最小值大于最大值返回 null，否则返回 {@link SizeRangeRegulation}
+     * 当集合 size() 需要遍历元素时，只计数至校验所需的上限
      * @param symbol 元素
+     * @param descriptor 规则描述
      * @param type 类型
      * @return 基础处理规则
      */
-    public static BaseRegulation buildSize(Symbol symbol, byte type) {
+    private static BaseRegulation buildSize(Symbol symbol, RuleDescriptor descriptor, byte type) {
         if (type < TypeUtil.STRING || type > TypeUtil.COLLECTION) {
             return null;
         }
 
-        Size size = TreeUtil.getAnnotation(symbol, Size.class);
-        if (null == size) {
+        if (!descriptor.hasSize()) {
             return null;
         }
-        Integer minSize = getSize(size.min());
-        Integer maxSize = getSize(size.max());
+        Integer minSize = getSize(descriptor.getSizeMin());
+        Integer maxSize = getSize(descriptor.getSizeMax());
+
+        // 可调整的上限同样按默认值判断范围，未指定默认值时不限制
+        String tunable = descriptor.getSizeTunable();
+        if (null != tunable && null == maxSize) {
+            maxSize = Integer.MAX_VALUE;
+        }
 
         if (!isInvalid(minSize, maxSize)) {
+            // size() 需要遍历的集合只计数至上限
+            boolean bounded = type == TypeUtil.COLLECTION && TypeUtil.getElementSizeCost(symbol) == TypeUtil.SIZE_LINEAR;
+            if (null != tunable) {
+                // 可调整的上限在运行期确定，不合并为相等判断
+                return new SizeRangeRegulation(minSize, maxSize, type, bounded, tunable);
+            }
             if (isEquals(minSize, maxSize)) {
+                if (bounded) {
+                    return new EqualsRegulation(new TypeFetchSupport(type, minSize + 1), TypeTag.INT, minSize, false);
+                }
                 return new EqualsRegulation(type, TypeTag.INT, minSize, false);
             }
-            return new SizeRangeRegulation(minSize, maxSize, type);
+            return new SizeRangeRegulation(minSize, maxSize, type, bounded);
         }
 
         return null;
@@ -2,9 +2,13 @@ package io.moyada.medivh.support;
 
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.util.ListBuffer;
+import io.moyada.medivh.regulation.BaseRegulation;
 import io.moyada.medivh.regulation.Regulation;
+import io.moyada.medivh.regulation.RegulationOptimizer;
 import io.moyada.medivh.util.TreeUtil;
 
+import java.util.ArrayList;
+
 /**
  * 规则处理器
  * @author xueyikang
@@ -13,7 +17,7 @@ import io.moyada.medivh.util.TreeUtil;
 public class RegulationExecutor {
 
     // 语法创建工具
-    private static SyntaxTreeMaker maker;
+    private final SyntaxTreeMaker maker;
 
     // 语句链
     private ListBuffer<JCTree.JCStatement> statements;
@@ -24,28 +28,50 @@ public class RegulationExecutor {
     // 分支动作
     private JCTree.JCStatement action;
 
+    private RegulationExecutor(SyntaxTreeMaker maker, java.util.List<Regulation> regulations) {
+        this.maker = maker;
+        this.regulations = regulations;
+    }
+
     /**
-     * 引用语法创建工具
+     * 接收规则创建处理器，开启优化时先对规则链进行优化
      * @param maker 语法创建工具
+     * @param regulations 规则处理链
+     * @return 规则处理器
      */
-    static void init(SyntaxTreeMaker maker) {
-        if (null == maker) {
-            return;
-        }
-        RegulationExecutor.maker = maker;
+    public static RegulationExecutor newExecutor(SyntaxTreeMaker maker, java.util.List<Regulation> regulations) {
+        return new RegulationExecutor(maker, prepare(regulations));
     }
 
-    private RegulationExecutor(java.util.List<Regulation> regulations) {
-        this.regulations = regulations;
+    /**
+     * 获取规则链可能输出的失败信息，与生成语句时使用相同的优化规则链
+     * @param regulations 规则处理链
+     * @param fieldName 元素名称
+     * @return 失败信息集合
+     */
+    public static java.util.List<String> getMessages(java.util.List<Regulation> regulations, String fieldName) {
+        java.util.List<String> messages = new ArrayList<String>();
+        if (null == regulations) {
+            return messages;
+        }
+        for (Regulation regulation : prepare(regulations)) {
+            if (regulation instanceof BaseRegulation) {
+                messages.addAll(((BaseRegulation) regulation).getMessages(fieldName));
+            }
+        }
+        return messages;
     }
 
     /**
-     * 接收规则创建处理器
+     * 开启优化时对规则链进行优化，优化返回新的规则链，不修改原有规则
      * @param regulations 规则处理链
-     * @return 规则处理器
+     * @return 执行的规则链
      */
-    public static RegulationExecutor newExecutor(java.util.List<Regulation> regulations) {
-        return new RegulationExecutor(regulations);
+    private static java.util.List<Regulation> prepare(java.util.List<Regulation> regulations) {
+        if (ElementOptions.current().isOptimize()) {
+            return RegulationOptimizer.optimize(regulations);
+        }
+        return regulations;
     }
 
     /**
@@ -0,0 +1,74 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
+
+/**
+ * 拒绝计数支持，计数通过 medivh-runtime 的 Rejections 记录
+ * 规则先生成按参数与规则计数的调用 Rejections.reject(parameter, rule)，再由校验语句生成器替换为类中静态常量编号的计数
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class RejectionSupport {
+
+    // 累加计数方法
+    public static final String REJECT_METHOD = "reject";
+
+    // 注册计数点方法
+    public static final String REGISTER_METHOD = "register";
+
+    private RejectionSupport() {
+    }
+
+    /**
+     * 创建按参数与规则计数的语句
+     * @param syntaxTreeMaker 语句构造器
+     * @param parameter 参数或字段
+     * @param rule 规则
+     * @return Rejections.reject(parameter, rule);
+     */
+    public static JCTree.JCStatement reject(SyntaxTreeMaker syntaxTreeMaker, String parameter, String rule) {
+        JCTree.JCExpression rejections = syntaxTreeMaker.findClass(ElementOptions.RUNTIME_REJECTIONS);
+        List<JCTree.JCExpression> args = List.<JCTree.JCExpression>of(syntaxTreeMaker.newElement(TypeTag.CLASS, parameter),
+                syntaxTreeMaker.newElement(TypeTag.CLASS, rule));
+        return syntaxTreeMaker.getTreeMaker().Exec(syntaxTreeMaker.getMethod(rejections, REJECT_METHOD, args));
+    }
+
+    /**
+     * 是否为按参数与规则计数的表达式
+     * @param invocation 方法调用
+     * @return 由 {@link #reject(SyntaxTreeMaker, String, String)} 创建返回 true
+     */
+    public static boolean isReject(JCTree.JCMethodInvocation invocation) {
+        if (!isRejectMethod(invocation)) {
+            return false;
+        }
+        return invocation.args.size() == 2 && invocation.args.head instanceof JCTree.JCLiteral;
+    }
+
+    /**
+     * 是否为计数语句
+     * @param statement 语句
+     * @return 调用 Rejections.reject 返回 true
+     */
+    public static boolean isReject(JCTree.JCStatement statement) {
+        if (!(statement instanceof JCTree.JCExpressionStatement)) {
+            return false;
+        }
+        JCTree.JCExpression expr = ((JCTree.JCExpressionStatement) statement).expr;
+        return expr instanceof JCTree.JCMethodInvocation && isRejectMethod((JCTree.JCMethodInvocation) expr);
+    }
+
+    /**
+     * 是否调用计数方法
+     * @param invocation 方法调用
+     * @return 调用 Rejections.reject 返回 true
+     */
+    private static boolean isRejectMethod(JCTree.JCMethodInvocation invocation) {
+        if (!(invocation.meth instanceof JCTree.JCFieldAccess)) {
+            return false;
+        }
+        JCTree.JCFieldAccess method = (JCTree.JCFieldAccess) invocation.meth;
+        return method.name.toString().equals(REJECT_METHOD) && method.selected.toString().equals(ElementOptions.RUNTIME_REJECTIONS);
+    }
+}
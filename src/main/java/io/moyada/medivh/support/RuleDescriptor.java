@@ -0,0 +1,389 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.code.Attribute;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.util.ListBuffer;
+import io.moyada.medivh.annotation.*;
+import io.moyada.medivh.util.Compiler;
+
+import javax.lang.model.type.TypeKind;
+import java.util.Map;
+
+/**
+ * 元素规则描述，一次读取元素上的注解镜像，不创建注解代理对象
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class RuleDescriptor {
+
+    // 无注解元素的描述
+    private static final RuleDescriptor EMPTY = new RuleDescriptor();
+
+    private boolean notNull;
+
+    private boolean nullable;
+
+    private boolean notBlank;
+
+    // 整数范围
+    private Long min;
+    private Long max;
+
+    // 可调整的整数范围名称
+    private String minTunable;
+    private String maxTunable;
+
+    // 浮点数范围
+    private Double decimalMin;
+    private Double decimalMax;
+
+    // 空间范围
+    private boolean size;
+    private int sizeMin = 0;
+    private int sizeMax = Integer.MAX_VALUE;
+    private String sizeTunable;
+
+    private boolean exclusive;
+
+    private boolean ordered;
+
+    // 变量名
+    private String variable;
+
+    // 抛出异常配置
+    private boolean throwing;
+    private String throwType;
+    private String throwMessage = "";
+    private boolean stackless;
+    private boolean preallocate;
+
+    // 返回数据配置
+    private boolean returning;
+    private String[] returnValue = new String[0];
+    private String returnType;
+    private String staticMethod = "";
+
+    private RuleDescriptor() {
+    }
+
+    /**
+     * 获取元素规则描述，同一编译中同一元素只解析一次
+     * @param symbol 元素
+     * @return 规则描述，元素为空返回无规则描述
+     */
+    public static RuleDescriptor of(Symbol symbol) {
+        if (null == symbol) {
+            return EMPTY;
+        }
+        Map<Symbol, RuleDescriptor> descriptors = ProcessorContext.current().getDescriptors();
+        RuleDescriptor descriptor = descriptors.get(symbol);
+        if (null == descriptor) {
+            descriptor = parse(symbol);
+            descriptors.put(symbol, descriptor);
+        }
+        return descriptor;
+    }
+
+    /**
+     * 解析元素注解镜像
+     * @param symbol 元素
+     * @return 规则描述
+     */
+    private static RuleDescriptor parse(Symbol symbol) {
+        com.sun.tools.javac.util.List<Attribute.Compound> mirrors = getMirrors(symbol);
+        if (mirrors.isEmpty()) {
+            return EMPTY;
+        }
+
+        RuleDescriptor descriptor = new RuleDescriptor();
+        for (Attribute.Compound mirror : mirrors) {
+            String name = mirror.getAnnotationType().toString();
+            if (name.equals(NotNull.class.getName())) {
+                descriptor.notNull = true;
+            } else if (name.equals(Nullable.class.getName())) {
+                descriptor.nullable = true;
+            } else if (name.equals(NotBlank.class.getName())) {
+                descriptor.notBlank = true;
+            } else if (name.equals(Min.class.getName())) {
+                descriptor.min = getNumber(mirror, "value").longValue();
+                descriptor.minTunable = getTunable(mirror);
+            } else if (name.equals(Max.class.getName())) {
+                descriptor.max = getNumber(mirror, "value").longValue();
+                descriptor.maxTunable = getTunable(mirror);
+            } else if (name.equals(DecimalMin.class.getName())) {
+                descriptor.decimalMin = getNumber(mirror, "value").doubleValue();
+            } else if (name.equals(DecimalMax.class.getName())) {
+                descriptor.decimalMax = getNumber(mirror, "value").doubleValue();
+            } else if (name.equals(Size.class.getName())) {
+                descriptor.size = true;
+                Number value = getNumber(mirror, "min");
+                if (null != value) {
+                    descriptor.sizeMin = value.intValue();
+                }
+                value = getNumber(mirror, "max");
+                if (null != value) {
+                    descriptor.sizeMax = value.intValue();
+                }
+                descriptor.sizeTunable = getTunable(mirror);
+            } else if (name.equals(Exclusive.class.getName())) {
+                descriptor.exclusive = true;
+            } else if (name.equals(Ordered.class.getName())) {
+                descriptor.ordered = true;
+            } else if (name.equals(Variable.class.getName())) {
+                descriptor.variable = getString(mirror, "value");
+            } else if (name.equals(Throw.class.getName())) {
+                descriptor.throwing = true;
+                descriptor.throwType = getString(mirror, "value");
+                String message = getString(mirror, "message");
+                if (null != message) {
+                    descriptor.throwMessage = message;
+                }
+                descriptor.stackless = getBoolean(mirror, "stackless");
+                descriptor.preallocate = getBoolean(mirror, "preallocate");
+            } else if (name.equals(Return.class.getName())) {
+                descriptor.returning = true;
+                descriptor.returnType = getString(mirror, "type");
+                String staticMethod = getString(mirror, "staticMethod");
+                if (null != staticMethod) {
+                    descriptor.staticMethod = staticMethod;
+                }
+                Attribute value = getAttribute(mirror, "value");
+                if (null != value) {
+                    descriptor.returnValue = getStrings(value);
+                }
+            }
+        }
+        return descriptor;
+    }
+
+    /**
+     * 获取元素注解镜像，数组类型上的类型注解如 String @Size(max = 2) [] 同样作用于数组本身
+     * @param symbol 元素
+     * @return 注解镜像
+     */
+    private static com.sun.tools.javac.util.List<Attribute.Compound> getMirrors(Symbol symbol) {
+        com.sun.tools.javac.util.List<Attribute.Compound> mirrors = symbol.getAnnotationMirrors();
+        // 类型注解自 Java 8 起支持
+        if (Compiler.CURRENT_VERSION < Compiler.JAVA_8) {
+            return mirrors;
+        }
+        Type type = symbol instanceof Symbol.MethodSymbol ? ((Symbol.MethodSymbol) symbol).getReturnType() : symbol.asType();
+        if (null == type || type.getKind() != TypeKind.ARRAY) {
+            return mirrors;
+        }
+
+        ListBuffer<Attribute.Compound> merged = new ListBuffer<Attribute.Compound>();
+        merged.appendList(mirrors);
+        for (Attribute.TypeCompound compound : type.getAnnotationMirrors()) {
+            if (!contains(merged, compound)) {
+                merged.append(compound);
+            }
+        }
+        // Java 8 编译器在注解处理阶段可能未将类型注解填充至类型中，由声明元素读取
+        for (Attribute.TypeCompound compound : TypeUseSupport.getAttributes(symbol)) {
+            if (compound.position.location.isEmpty() && !contains(merged, compound)) {
+                merged.append(compound);
+            }
+        }
+        return merged.size() == mirrors.size() ? mirrors : merged.toList();
+    }
+
+    /**
+     * 是否已包含同类注解
+     * @param mirrors 注解镜像
+     * @param compound 注解
+     * @return 包含返回 true
+     */
+    private static boolean contains(ListBuffer<Attribute.Compound> mirrors, Attribute.Compound compound) {
+        String name = compound.getAnnotationType().toString();
+        for (Attribute.Compound mirror : mirrors) {
+            if (mirror == compound || mirror.getAnnotationType().toString().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取注解属性
+     * @param mirror 注解镜像
+     * @param key 属性名
+     * @return 未显式配置返回 null
+     */
+    private static Attribute getAttribute(Attribute.Compound mirror, String key) {
+        for (Map.Entry<Symbol.MethodSymbol, Attribute> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().name.toString().equals(key)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Number getNumber(Attribute.Compound mirror, String key) {
+        Attribute attribute = getAttribute(mirror, key);
+        return null == attribute ? null : (Number) attribute.getValue();
+    }
+
+    /**
+     * 获取字符串属性，类型属性返回类名
+     * @param mirror 注解镜像
+     * @param key 属性名
+     * @return 未显式配置返回 null
+     */
+    private static String getString(Attribute.Compound mirror, String key) {
+        Attribute attribute = getAttribute(mirror, key);
+        return null == attribute ? null : attribute.getValue().toString();
+    }
+
+    /**
+     * 获取可调整边界名称
+     * @param mirror 注解镜像
+     * @return 未配置或为空返回 null
+     */
+    private static String getTunable(Attribute.Compound mirror) {
+        String tunable = getString(mirror, "tunable");
+        return null == tunable || tunable.isEmpty() ? null : tunable;
+    }
+
+    /**
+     * 获取布尔属性，部分版本常量以整数保存
+     * @param mirror 注解镜像
+     * @param key 属性名
+     * @return 未显式配置返回 false
+     */
+    private static boolean getBoolean(Attribute.Compound mirror, String key) {
+        Attribute attribute = getAttribute(mirror, key);
+        if (null == attribute) {
+            return false;
+        }
+        Object value = attribute.getValue();
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return ((Number) value).intValue() != 0;
+    }
+
+    /**
+     * 获取字符串数组属性
+     * @param attribute 属性
+     * @return 字符串数组
+     */
+    private static String[] getStrings(Attribute attribute) {
+        if (!(attribute instanceof Attribute.Array)) {
+            return new String[]{attribute.getValue().toString()};
+        }
+        Attribute[] values = ((Attribute.Array) attribute).values;
+        String[] strings = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            strings[i] = values[i].getValue().toString();
+        }
+        return strings;
+    }
+
+    public boolean isNotNull() {
+        return notNull;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public boolean isNotBlank() {
+        return notBlank;
+    }
+
+    public Long getMin() {
+        return min;
+    }
+
+    public Long getMax() {
+        return max;
+    }
+
+    public String getMinTunable() {
+        return minTunable;
+    }
+
+    public String getMaxTunable() {
+        return maxTunable;
+    }
+
+    public Double getDecimalMin() {
+        return decimalMin;
+    }
+
+    public Double getDecimalMax() {
+        return decimalMax;
+    }
+
+    public boolean hasSize() {
+        return size;
+    }
+
+    public int getSizeMin() {
+        return sizeMin;
+    }
+
+    public int getSizeMax() {
+        return sizeMax;
+    }
+
+    public String getSizeTunable() {
+        return sizeTunable;
+    }
+
+    public boolean isExclusive() {
+        return exclusive;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    public boolean hasThrow() {
+        return throwing;
+    }
+
+    /**
+     * @return 异常类名，未配置返回 null
+     */
+    public String getThrowType() {
+        return throwType;
+    }
+
+    public String getThrowMessage() {
+        return throwMessage;
+    }
+
+    public boolean isStackless() {
+        return stackless;
+    }
+
+    public boolean isPreallocate() {
+        return preallocate;
+    }
+
+    public boolean hasReturn() {
+        return returning;
+    }
+
+    public String[] getReturnValue() {
+        return returnValue;
+    }
+
+    /**
+     * @return 返回类型名，未配置返回 null
+     */
+    public String getReturnType() {
+        return returnType;
+    }
+
+    public String getStaticMethod() {
+        return staticMethod;
+    }
+}
@@ -14,6 +14,7 @@ import io.moyada.medivh.util.Compiler;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Map;
+import java.util.RandomAccess;
 
 /**
  * 语法创建工具
@@ -52,6 +53,10 @@ public class SyntaxTreeMaker {
     public final Symbol.ClassSymbol collectionSymbol;
     // map
     public final Symbol.ClassSymbol mapSymbol;
+    // list
+    public final Symbol.ClassSymbol listSymbol;
+    // random access
+    public final Symbol.ClassSymbol randomAccessSymbol;
 
     private SyntaxTreeMaker(Context context) {
         this.treeMaker = TreeMaker.instance(context);
@@ -67,9 +72,9 @@ public class SyntaxTreeMaker {
 
         collectionSymbol = javacElements.getTypeElement(Collection.class.getName());
         mapSymbol = javacElements.getTypeElement(Map.class.getName());
+        listSymbol = javacElements.getTypeElement(java.util.List.class.getName());
+        randomAccessSymbol = javacElements.getTypeElement(RandomAccess.class.getName());
         stringSymbol = javacElements.getTypeElement(CharSequence.class.getName());
-
-        RegulationExecutor.init(this);
     }
 
     public static SyntaxTreeMaker newInstance(Context context) {
@@ -177,6 +182,17 @@ public class SyntaxTreeMaker {
         return newVar(name, flags, findClass(type), init);
     }
 
+    /**
+     * 创建空的嵌套类
+     * @param name 类名
+     * @param flags 类标记
+     * @return 类元素
+     */
+    public JCTree.JCClassDecl newClass(String name, long flags) {
+        return treeMaker.ClassDef(treeMaker.Modifiers(flags), getName(name), List.<JCTree.JCTypeParameter>nil(),
+                null, List.<JCTree.JCExpression>nil(), List.<JCTree>nil());
+    }
+
     /**
      * 创建原始类型字段
      * @param name 变量名
@@ -190,13 +206,14 @@ public class SyntaxTreeMaker {
     }
 
     /**
-     * 创建临时变量
+     * 创建字段
      * @param name 变量名
-     * @param type 类型
+     * @param flags 字段标记
+     * @param type 类型节点
      * @param init 初始值
      * @return 变量元素
      */
-    private JCTree.JCVariableDecl newVar(String name, long flags, JCTree.JCExpression type, JCTree.JCExpression init) {
+    public JCTree.JCVariableDecl newVar(String name, long flags, JCTree.JCExpression type, JCTree.JCExpression init) {
         return treeMaker.VarDef(treeMaker.Modifiers(flags), getName(name), type, init);
     }
 
@@ -268,10 +285,16 @@ public class SyntaxTreeMaker {
 
     /**
      * 查询类引用
-     * @param className 类名
+     * @param className 类名，数组类型以 [] 结尾
      * @return 类元素
      */
     public JCTree.JCExpression findClass(String className) {
+        if (className.endsWith("[]")) {
+            String componentName = className.substring(0, className.length() - 2);
+            JCTree.JCExpression component = TypeUtil.isPrimitive(componentName) ?
+                    getPrimitiveType(TypeUtil.getBaseType(componentName)) : findClass(componentName);
+            return treeMaker.TypeArray(component);
+        }
         String[] elems = className.split("\\.");
 
         Name name = getName(elems[0]);
@@ -337,6 +360,11 @@ public class SyntaxTreeMaker {
      * @return 类型元素
      */
     public JCTree.JCLiteral newElement(TypeTag typeTag, Object value) {
+        // 编译器使用 Integer 存储 byte、short 字面量
+        if (value instanceof Byte || value instanceof Short) {
+            value = ((Number) value).intValue();
+        }
+
         Method method;
 
         if (Compiler.CURRENT_VERSION < Compiler.JAVA_8) {
@@ -376,6 +404,30 @@ public class SyntaxTreeMaker {
         return ClassUtil.invoke(method, treeMaker, field, left, right);
     }
 
+    /**
+     * 获取 Unary 表达式
+     * @param typeTag 类型标签
+     * @param arg 表达式
+     * @return 运算语句元素
+     */
+    public JCTree.JCExpression newUnary(TypeTag typeTag, JCTree.JCExpression arg) {
+        String target;
+        Method method;
+
+        if (Compiler.CURRENT_VERSION < Compiler.JAVA_8) {
+            method = ClassUtil.getMethod(TreeMaker.class, "Unary", int.class, JCTree.JCExpression.class);
+            target = "com.sun.tools.javac.tree.JCTree";
+        } else {
+            Class<?> param = ClassUtil.getClass("com.sun.tools.javac.tree.JCTree$Tag");
+            method = ClassUtil.getMethod(TreeMaker.class, "Unary", param, JCTree.JCExpression.class);
+            target = "com.sun.tools.javac.tree.JCTree$Tag";
+        }
+
+        Class<?> targetClass = ClassUtil.getClass(target);
+        Object field = ClassUtil.getStaticField(targetClass, typeTag.name());
+        return ClassUtil.invoke(method, treeMaker, field, arg);
+    }
+
     /**
      * 生成抛出异常语句
      * @param exceptionType 异常类型元素
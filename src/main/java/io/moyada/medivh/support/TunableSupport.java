@@ -0,0 +1,74 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
+
+/**
+ * 可调整边界支持，边界通过 medivh-runtime 的 Tunables 读取
+ * 规则先生成按名称读取的调用 Tunables.get(name, defaultValue) 或 Tunables.limit(name, defaultValue)，再由校验语句生成器替换为类中静态常量句柄的读取
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class TunableSupport {
+
+    // 读取边界方法
+    public static final String GET_METHOD = "get";
+
+    // 读取计数上限方法
+    public static final String LIMIT_METHOD = "limit";
+
+    // 注册边界方法
+    public static final String REGISTER_METHOD = "register";
+
+    // 边界句柄类型
+    public static final String HANDLE_CLASS = "java.lang.invoke.MethodHandle";
+
+    private TunableSupport() {
+    }
+
+    /**
+     * 创建按名称读取边界的表达式
+     * @param syntaxTreeMaker 语句构造器
+     * @param name 名称
+     * @param defaultValue 默认值
+     * @return Tunables.get(name, defaultValue)
+     */
+    public static JCTree.JCExpression getValue(SyntaxTreeMaker syntaxTreeMaker, String name, Object defaultValue) {
+        return invoke(syntaxTreeMaker, GET_METHOD, name, defaultValue);
+    }
+
+    /**
+     * 创建按名称读取计数上限的表达式，用于 size() 需要遍历的集合只计数至上限 + 1
+     * @param syntaxTreeMaker 语句构造器
+     * @param name 名称
+     * @param defaultValue 上限默认值
+     * @return Tunables.limit(name, defaultValue)
+     */
+    public static JCTree.JCExpression getLimit(SyntaxTreeMaker syntaxTreeMaker, String name, Object defaultValue) {
+        return invoke(syntaxTreeMaker, LIMIT_METHOD, name, defaultValue);
+    }
+
+    private static JCTree.JCExpression invoke(SyntaxTreeMaker syntaxTreeMaker, String method, String name, Object defaultValue) {
+        JCTree.JCExpression tunables = syntaxTreeMaker.findClass(ElementOptions.RUNTIME_TUNABLES);
+        List<JCTree.JCExpression> args = List.<JCTree.JCExpression>of(syntaxTreeMaker.newElement(TypeTag.CLASS, name),
+                syntaxTreeMaker.newElement(TypeTag.LONG, ((Number) defaultValue).longValue()));
+        return syntaxTreeMaker.getMethod(tunables, method, args);
+    }
+
+    /**
+     * 是否为按名称读取边界的表达式
+     * @param invocation 方法调用
+     * @return 由 {@link #getValue(SyntaxTreeMaker, String, Object)} 或 {@link #getLimit(SyntaxTreeMaker, String, Object)} 创建返回 true
+     */
+    public static boolean isValue(JCTree.JCMethodInvocation invocation) {
+        if (!(invocation.meth instanceof JCTree.JCFieldAccess)) {
+            return false;
+        }
+        JCTree.JCFieldAccess method = (JCTree.JCFieldAccess) invocation.meth;
+        String name = method.name.toString();
+        if (!(name.equals(GET_METHOD) || name.equals(LIMIT_METHOD)) || !method.selected.toString().equals(ElementOptions.RUNTIME_TUNABLES)) {
+            return false;
+        }
+        return invocation.args.size() == 2 && invocation.args.head instanceof JCTree.JCLiteral;
+    }
+}
@@ -2,21 +2,57 @@ package io.moyada.medivh.support;
 
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.List;
+import io.moyada.medivh.regulation.Regulation;
 import io.moyada.medivh.util.TreeUtil;
 import io.moyada.medivh.util.TypeUtil;
 
+import java.io.Serializable;
+
 /**
  * 类型取值规则
  * @author xueyikang
  * @since 1.0
  **/
-public class TypeFetchSupport {
+public class TypeFetchSupport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // 类型
     private final byte type;
 
+    // 集合计数上限，大于 0 时遍历计数至上限为止，上限可调整时为上限默认值
+    private final int limit;
+
+    // 可调整的上限名称，不为 null 时遍历计数至运行期上限 + 1 为止
+    private final String limitTunable;
+
     public TypeFetchSupport(byte type) {
+        this(type, 0);
+    }
+
+    public TypeFetchSupport(byte type, int limit) {
+        this(type, limit, null);
+    }
+
+    /**
+     * 创建类型取值规则
+     * @param type 类型
+     * @param limit 集合计数上限，上限可调整时为上限默认值
+     * @param limitTunable 可调整的上限名称，固定时为 null
+     */
+    public TypeFetchSupport(byte type, int limit, String limitTunable) {
         this.type = type;
+        this.limit = limit;
+        this.limitTunable = limitTunable;
+    }
+
+    /**
+     * 集合是否遍历计数至上限
+     * @return 计数至上限返回 true
+     */
+    private boolean isBounded() {
+        return limit > 0 || null != limitTunable;
     }
 
     /**
@@ -41,6 +77,22 @@ public class TypeFetchSupport {
         return mode;
     }
 
+    /**
+     * 根据类型返回取值开销
+     * @return 开销
+     */
+    public final int getCost() {
+        switch (type) {
+            case TypeUtil.STRING:
+            case TypeUtil.ARRAY:
+                return Regulation.COST_LENGTH;
+            case TypeUtil.COLLECTION:
+                return isBounded() ? Regulation.COST_SCAN : Regulation.COST_CALL;
+            default:
+                return Regulation.COST_COMPARE;
+        }
+    }
+
     /**
      * 根据类型取值方式
      * @param syntaxTreeMaker 语句创建器
@@ -61,7 +113,15 @@ public class TypeFetchSupport {
                 out = syntaxTreeMaker.Select(origin, "length");
                 break;
             case TypeUtil.COLLECTION:
-                out = treeMaker.Exec(syntaxTreeMaker.getMethod(origin, "size", TreeUtil.emptyExpression())).getExpression();
+                if (isBounded()) {
+                    // size() 需要遍历的集合只计数至上限
+                    JCTree.JCExpression utilClass = syntaxTreeMaker.findClass(ProcessorContext.current().getUtilClass());
+                    JCTree.JCExpression limitField = null == limitTunable ? syntaxTreeMaker.newElement(TypeTag.INT, limit) :
+                            TunableSupport.getLimit(syntaxTreeMaker, limitTunable, limit);
+                    out = syntaxTreeMaker.getMethod(utilClass, ElementOptions.SIZE_METHOD, List.of(origin, limitField));
+                } else {
+                    out = treeMaker.Exec(syntaxTreeMaker.getMethod(origin, "size", TreeUtil.emptyExpression())).getExpression();
+                }
                 break;
             default:
                 return origin;
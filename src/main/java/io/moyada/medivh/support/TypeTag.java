@@ -15,11 +15,18 @@ public enum TypeTag {
     FLOAT, // 单精度浮点数
     DOUBLE, // 双精度浮点数
     CHAR, // 字符
+    VOID, // 无返回
     NE, // 不等于
     EQ, // 等于
     GT, // 大于
     LT, // 小于
     PLUS, // + 操作
+    AND, // && 操作
+    OR, // || 操作
+    NOT, // ! 操作
+    BITAND, // & 操作
+    SR, // >> 操作
+    POSTINC, // 后置 ++ 操作
     BOT, // null
     CLASS, // 对象
     ;
@@ -0,0 +1,213 @@
+package io.moyada.medivh.support;
+
+import com.sun.tools.javac.code.Attribute;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.TargetType;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.TypeAnnotationPosition;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.ListBuffer;
+import io.moyada.medivh.annotation.NotNull;
+import io.moyada.medivh.util.Compiler;
+
+import javax.lang.model.type.TypeKind;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 类型注解读取支持，按类型路径读取属性、参数或方法返回类型上的类型注解
+ * Java 8 编译器在注解处理阶段不会将类型参数、通配符上的注解填充至类型中，
+ * 但声明元素保存了由类型注解语法树解析的注解及其类型路径，各版本均可读取，
+ * 记录已读取的注解，用于提示未生效的规则
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class TypeUseSupport {
+
+    // 根路径，属性、参数或方法返回类型本身
+    public static final List<TypeAnnotationPosition.TypePathEntry> ROOT = List.nil();
+
+    // 规则注解包名前缀
+    private static final String RULE_PACKAGE = NotNull.class.getPackage().getName() + ".";
+
+    // 声明元素上的类型注解
+    private final List<Attribute.TypeCompound> attributes;
+
+    // 已读取的注解
+    private final Set<Attribute.TypeCompound> used;
+
+    public TypeUseSupport(Symbol symbol) {
+        this.attributes = getAttributes(symbol);
+        this.used = new HashSet<Attribute.TypeCompound>();
+    }
+
+    /**
+     * 获取路径上的类型注解并记录为已读取
+     * @param location 类型路径，为 null 时无法对应声明的类型
+     * @return 类型注解
+     */
+    public List<Attribute.TypeCompound> get(List<TypeAnnotationPosition.TypePathEntry> location) {
+        if (null == location) {
+            return List.nil();
+        }
+        ListBuffer<Attribute.TypeCompound> compounds = new ListBuffer<Attribute.TypeCompound>();
+        for (Attribute.TypeCompound compound : attributes) {
+            if (compound.position.location.equals(location)) {
+                compounds.append(compound);
+                used.add(compound);
+            }
+        }
+        return compounds.toList();
+    }
+
+    /**
+     * 路径下的嵌套类型中是否存在类型注解
+     * @param location 类型路径
+     * @return 存在返回 true
+     */
+    public boolean hasNested(List<TypeAnnotationPosition.TypePathEntry> location) {
+        if (null == location) {
+            return false;
+        }
+        for (Attribute.TypeCompound compound : attributes) {
+            if (isNested(compound.position.location, location)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取未读取的嵌套类型上的规则注解
+     * @return 规则注解
+     */
+    public List<Attribute.TypeCompound> getUnused() {
+        ListBuffer<Attribute.TypeCompound> compounds = new ListBuffer<Attribute.TypeCompound>();
+        for (Attribute.TypeCompound compound : attributes) {
+            if (!used.contains(compound) && isNested(compound.position.location, ROOT) && isRule(compound)) {
+                compounds.append(compound);
+            }
+        }
+        return compounds.toList();
+    }
+
+    /**
+     * 获取类型参数路径
+     * @param location 类型路径
+     * @param index 类型参数下标
+     * @return 路径为 null 返回 null
+     */
+    public static List<TypeAnnotationPosition.TypePathEntry> typeArgument(List<TypeAnnotationPosition.TypePathEntry> location, int index) {
+        if (null == location) {
+            return null;
+        }
+        return location.append(new TypeAnnotationPosition.TypePathEntry(TypeAnnotationPosition.TypePathEntryKind.TYPE_ARGUMENT, index));
+    }
+
+    /**
+     * 获取数组元素类型路径
+     * @param location 类型路径
+     * @return 路径为 null 返回 null
+     */
+    public static List<TypeAnnotationPosition.TypePathEntry> array(List<TypeAnnotationPosition.TypePathEntry> location) {
+        return null == location ? null : location.append(TypeAnnotationPosition.TypePathEntry.ARRAY);
+    }
+
+    /**
+     * 获取通配符边界路径
+     * @param location 类型路径
+     * @return 路径为 null 返回 null
+     */
+    public static List<TypeAnnotationPosition.TypePathEntry> wildcard(List<TypeAnnotationPosition.TypePathEntry> location) {
+        return null == location ? null : location.append(TypeAnnotationPosition.TypePathEntry.WILDCARD);
+    }
+
+    /**
+     * 获取路径对应的类型
+     * @param type 声明的类型
+     * @param location 类型路径
+     * @return 路径与类型结构不符返回 null
+     */
+    public static Type getType(Type type, List<TypeAnnotationPosition.TypePathEntry> location) {
+        for (TypeAnnotationPosition.TypePathEntry entry : location) {
+            if (null == type) {
+                return null;
+            }
+            switch (entry.tag) {
+                case ARRAY:
+                    type = type.getKind() == TypeKind.ARRAY ? ((Type.ArrayType) type).elemtype : null;
+                    break;
+                case WILDCARD:
+                    type = type.getKind() == TypeKind.WILDCARD ? ((Type.WildcardType) type).type : null;
+                    break;
+                case TYPE_ARGUMENT:
+                    List<Type> arguments = type.getTypeArguments();
+                    type = entry.arg < arguments.size() ? arguments.get(entry.arg) : null;
+                    break;
+                default:
+                    // 嵌套类型的外部类
+                    break;
+            }
+        }
+        return type;
+    }
+
+    /**
+     * 获取声明元素上的类型注解，类型注解自 Java 8 起支持
+     * @param symbol 属性、参数或方法
+     * @return 作用于属性、参数类型或方法返回类型的注解
+     */
+    public static List<Attribute.TypeCompound> getAttributes(Symbol symbol) {
+        if (Compiler.CURRENT_VERSION < Compiler.JAVA_8) {
+            return List.nil();
+        }
+        ListBuffer<Attribute.TypeCompound> compounds = new ListBuffer<Attribute.TypeCompound>();
+        for (Attribute.TypeCompound compound : symbol.getRawTypeAttributes()) {
+            if (null == compound.position) {
+                continue;
+            }
+            TargetType targetType = compound.position.type;
+            // 方法上同时保存了参数的类型注解
+            if (symbol instanceof Symbol.MethodSymbol ? targetType == TargetType.METHOD_RETURN :
+                    targetType == TargetType.FIELD || targetType == TargetType.METHOD_FORMAL_PARAMETER) {
+                compounds.append(compound);
+            }
+        }
+        return compounds.toList();
+    }
+
+    /**
+     * 是否为规则注解
+     * @param compound 注解
+     * @return 属于规则注解包返回 true
+     */
+    public static boolean isRule(Attribute.Compound compound) {
+        return compound.getAnnotationType().toString().startsWith(RULE_PACKAGE);
+    }
+
+    /**
+     * 是否为路径下的嵌套类型，嵌套类型的外部类路径不视为嵌套
+     * @param location 注解路径
+     * @param parent 上级路径
+     * @return 为嵌套类型返回 true
+     */
+    private static boolean isNested(List<TypeAnnotationPosition.TypePathEntry> location, List<TypeAnnotationPosition.TypePathEntry> parent) {
+        if (location.size() <= parent.size()) {
+            return false;
+        }
+        boolean nested = false;
+        for (TypeAnnotationPosition.TypePathEntry entry : location) {
+            if (!parent.isEmpty()) {
+                if (!entry.equals(parent.head)) {
+                    return false;
+                }
+                parent = parent.tail;
+                continue;
+            }
+            if (entry.tag != TypeAnnotationPosition.TypePathEntryKind.INNER_TYPE) {
+                nested = true;
+            }
+        }
+        return nested;
+    }
+}
@@ -0,0 +1,225 @@
+package io.moyada.medivh.support;
+
+import io.moyada.medivh.regulation.BaseRegulation;
+import io.moyada.medivh.regulation.Regulation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 校验计划，由元素分析得到 方法/类 - 元素 - 规则链 - 校验动作 的结构，不持有语法树节点
+ * 计划创建后不再修改，可按源码缓存复用，由生成器转换为语法树语句
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public final class ValidationPlan implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // 方法参数
+    public static final byte PARAM = 0;
+    // 类字段
+    public static final byte FIELD = 1;
+    // 类无参方法
+    public static final byte METHOD = 2;
+
+    // 校验目标，方法全名或类名
+    private final String target;
+
+    // 校验方法的临时变量名，或自定义规则的校验方法名
+    private final String variable;
+
+    // 元素校验项，已按执行顺序排列
+    private final List<Item> items;
+
+    // 规则码信息表，返回规则码时在创建计划时按信息登记，否则为 null
+    private final List<String> codeTable;
+
+    public ValidationPlan(String target, String variable, List<Item> items, List<String> codeTable) {
+        this.target = target;
+        this.variable = variable;
+        this.items = Collections.unmodifiableList(new ArrayList<Item>(items));
+        this.codeTable = null == codeTable ? null : Collections.unmodifiableList(new ArrayList<String>(codeTable));
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public List<String> getCodeTable() {
+        return codeTable;
+    }
+
+    /**
+     * 元素校验项
+     */
+    public static final class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        // 元素类别
+        private final byte kind;
+
+        // 参数名、字段名或方法名
+        private final String name;
+
+        // 规则链
+        private final List<Regulation> regulations;
+
+        // 嵌套校验方法名，无嵌套校验为 null
+        private final String checkMethod;
+
+        // 嵌套规则码信息方法名，不使用规则码为 null
+        private final String messageMethod;
+
+        // 校验失败动作，为 null 时由规则创建返回信息动作
+        private final Action action;
+
+        // 估算开销
+        private final int cost;
+
+        public Item(byte kind, String name, List<Regulation> regulations, String checkMethod, String messageMethod,
+                    Action action, int cost) {
+            this.kind = kind;
+            this.name = name;
+            this.regulations = Collections.unmodifiableList(new ArrayList<Regulation>(regulations));
+            this.checkMethod = checkMethod;
+            this.messageMethod = messageMethod;
+            this.action = action;
+            this.cost = cost;
+        }
+
+        public byte getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Regulation> getRegulations() {
+            return regulations;
+        }
+
+        public String getCheckMethod() {
+            return checkMethod;
+        }
+
+        public String getMessageMethod() {
+            return messageMethod;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    /**
+     * 校验失败动作，抛出异常或返回数据
+     */
+    public static final class Action implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        // 抛出异常时的规则处理数据，返回数据时为 null
+        private final ActionData actionData;
+
+        // 异常类名
+        private final String exceptionName;
+
+        // 异常信息
+        private final String info;
+
+        // 预创建常量信息异常
+        private final boolean preallocate;
+
+        // 返回类型
+        private final String returnType;
+
+        // 返回静态方法名
+        private final String staticMethod;
+
+        // 返回数据
+        private final String[] values;
+
+        private Action(ActionData actionData, String exceptionName, String info, boolean preallocate,
+                       String returnType, String staticMethod, String[] values) {
+            this.actionData = actionData;
+            this.exceptionName = exceptionName;
+            this.info = info;
+            this.preallocate = preallocate;
+            this.returnType = returnType;
+            this.staticMethod = staticMethod;
+            this.values = values;
+        }
+
+        /**
+         * 创建抛出异常动作
+         * @param exceptionName 异常类名
+         * @param info 异常信息
+         * @param preallocate 是否预创建异常
+         * @return 动作
+         */
+        public static Action newThrow(String exceptionName, String info, boolean preallocate) {
+            ActionData actionData = new ActionData(BaseRegulation.THROW, exceptionName, info);
+            return new Action(actionData, exceptionName, info, preallocate, null, null, null);
+        }
+
+        /**
+         * 创建返回数据动作
+         * @param returnType 返回类型
+         * @param staticMethod 静态方法名，使用构造方法或字面量时为空字符串
+         * @param values 返回数据
+         * @return 动作
+         */
+        public static Action newReturn(String returnType, String staticMethod, String[] values) {
+            return new Action(null, null, null, false, returnType, staticMethod, values.clone());
+        }
+
+        public boolean isThrow() {
+            return null != actionData;
+        }
+
+        public ActionData getActionData() {
+            return actionData;
+        }
+
+        public String getExceptionName() {
+            return exceptionName;
+        }
+
+        public String getInfo() {
+            return info;
+        }
+
+        public boolean isPreallocate() {
+            return preallocate;
+        }
+
+        public String getReturnType() {
+            return returnType;
+        }
+
+        public String getStaticMethod() {
+            return staticMethod;
+        }
+
+        public String[] getValues() {
+            return values.clone();
+        }
+    }
+}
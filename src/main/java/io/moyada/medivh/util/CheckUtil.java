@@ -1,14 +1,15 @@
 package io.moyada.medivh.util;
 
 import com.sun.tools.javac.code.Symbol;
-import com.sun.tools.javac.tree.JCTree;
-import io.moyada.medivh.annotation.*;
 import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.ProcessorContext;
+import io.moyada.medivh.support.RuleDescriptor;
 
-import javax.lang.model.element.AnnotationMirror;
-import java.util.HashMap;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.ElementKind;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 校验工具
@@ -20,25 +21,65 @@ public final class CheckUtil {
     private CheckUtil() {
     }
 
-    // 类校验方法信息, 类名 - 方法名
-    private static final Map<String, String> methodNameMap = new HashMap<String, String>();
+    // 规则码信息方法后缀
+    public static final String MESSAGE_METHOD_SUFFIX = "$message";
 
     /**
-     * 存储类校验方法
+     * 存储类校验方法，记录于当前编译的上下文
      * @param className 类名
      * @param methodName 方法名
      */
     public static void addCheckMethod(String className, String methodName) {
-        methodNameMap.put(className, methodName);
+        ProcessorContext.current().getCheckMethods().put(className, methodName);
     }
 
     /**
-     * 是否自定规则类
+     * 是否自定规则类，本次编译未创建校验方法时从已编译的类中查找
+     * 增量编译时未变更的规则类不会再次处理，以其 class 文件中的校验方法为准
+     * 已编译的校验方法返回类型与 medivh.rule.code 不一致时输出错误，避免嵌套校验被忽略
+     * @param messager 信息输出
      * @param className 类名
+     * @param typeSymbol 类型元素
      * @return 存在返回 true
      */
-    public static boolean isRegulable(String className) {
-        return methodNameMap.containsKey(className);
+    public static boolean isRegulable(Messager messager, String className, Symbol typeSymbol) {
+        if (ProcessorContext.current().getCheckMethods().containsKey(className)) {
+            return true;
+        }
+        if (!(typeSymbol instanceof Symbol.ClassSymbol)) {
+            return false;
+        }
+
+        Symbol.ClassSymbol classSymbol = (Symbol.ClassSymbol) typeSymbol;
+        // 仅查找已编译的类，源码类以本次编译结果为准，基本类型没有类文件
+        JavaFileObject classfile = classSymbol.classfile;
+        if (null == classfile || classfile.getKind() != JavaFileObject.Kind.CLASS) {
+            return false;
+        }
+        List<Symbol> members = classSymbol.getEnclosedElements();
+
+        String methodName = getTmpMethod(classSymbol);
+        String returnType = ElementOptions.current().isRuleCode() ? "int" : String.class.getName();
+        for (Symbol member : members) {
+            if (member.getKind() != ElementKind.METHOD || !member.name.toString().equals(methodName)) {
+                continue;
+            }
+            Symbol.MethodSymbol methodSymbol = (Symbol.MethodSymbol) member;
+            if (!methodSymbol.getParameters().isEmpty()) {
+                continue;
+            }
+            String actualType = methodSymbol.getReturnType().toString();
+            if (!actualType.equals(returnType)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "[Rule Error] " + className + "." + methodName +
+                        "() returns " + actualType + " but " + returnType + " is expected when " +
+                        ElementOptions.RULE_CODE_KEY + " is " + ElementOptions.current().isRuleCode() +
+                        ", please recompile " + className + " with the same " + ElementOptions.RULE_CODE_KEY + " option.");
+                return false;
+            }
+            addCheckMethod(className, methodName);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -47,7 +88,7 @@ public final class CheckUtil {
      * @return 方法名
      */
     public static String getCheckMethod(String className) {
-        String methodName = methodNameMap.get(className);
+        String methodName = ProcessorContext.current().getCheckMethods().get(className);
         if (null == methodName) {
             throw new NullPointerException("cannot find " + className + " invalid method.");
         }
@@ -55,58 +96,33 @@ public final class CheckUtil {
     }
 
     /**
-     * 是否存在校验标识
-     * @param classDecl 类元素
-     * @return 存在校验标识返回 true
-     */
-    public static boolean isCheckClass(JCTree.JCClassDecl classDecl) {
-        if (null == classDecl) {
-            return false;
-        }
-        return isCheckSymbol(classDecl.sym);
-    }
-
-    /**
-     * 是否存在校验标识
-     * @param methodDecl 方法元素
-     * @return 存在校验标识返回 true
+     * 获取定义规则类所创建的规则码信息方法名
+     * @param className 类名
+     * @return 方法名
      */
-    public static boolean isCheckMethod(JCTree.JCMethodDecl methodDecl) {
-        if (null == methodDecl) {
-            return false;
-        }
-        return isCheckSymbol(methodDecl.sym);
+    public static String getMessageMethod(String className) {
+        return getCheckMethod(className) + MESSAGE_METHOD_SUFFIX;
     }
 
     /**
-     * 是否存在校验标识
+     * 是否排除校验标识
      * @param symbol 元素
-     * @@return 存在校验标识返回 true
+     * @return 存在排除标识返回 true
      */
-    private static boolean isCheckSymbol(Symbol symbol) {
-        List<? extends AnnotationMirror> mirrors = symbol.getAnnotationMirrors();
-        if (mirrors.isEmpty()) {
-            return false;
-        }
-        int size = mirrors.size();
-        for (int i = 0; i < size; i++) {
-            String name = mirrors.get(i).getAnnotationType().toString();
-            if (name.equals(Throw.class.getName())) {
-                return true;
-            } else if (name.equals(Return.class.getName())) {
-                return true;
-            }
-        }
-        return false;
+    public static boolean isExclusive(Symbol symbol) {
+        return RuleDescriptor.of(symbol).isExclusive();
     }
 
     /**
-     * 是否排除校验标识
-     * @param symbol 元素
-     * @return 存在排除标识返回 true
+     * 是否保持声明顺序生成校验
+     * @param symbol 方法或类元素
+     * @return 关闭开销排序或元素、所属类存在顺序标识返回 true
      */
-    public static boolean isExclusive(Symbol symbol) {
-        return null != TreeUtil.getAnnotation(symbol, Exclusive.class);
+    public static boolean isOrdered(Symbol symbol) {
+        if (!ElementOptions.current().isOrderByCost()) {
+            return true;
+        }
+        return RuleDescriptor.of(symbol).isOrdered() || RuleDescriptor.of(symbol.enclClass()).isOrdered();
     }
 
     /**
@@ -115,8 +131,7 @@ public final class CheckUtil {
      * @return 名称
      */
     public static String getTmpVar(Symbol symbol) {
-        Variable variable = TreeUtil.getAnnotation(symbol, Variable.class);
-        return getValue(variable, ElementOptions.LOCAL_VARIABLE);
+        return getValue(RuleDescriptor.of(symbol).getVariable(), ElementOptions.current().getLocalVariable());
     }
 
     /**
@@ -125,21 +140,19 @@ public final class CheckUtil {
      * @return 名称
      */
     public static String getTmpMethod(Symbol symbol) {
-        Variable variable = TreeUtil.getAnnotation(symbol, Variable.class);
-        return getValue(variable, ElementOptions.METHOD_NAME);
+        return getValue(RuleDescriptor.of(symbol).getVariable(), ElementOptions.current().getMethodName());
     }
 
     /**
      * 获取变量值，无效则返回默认值
-     * @param variable 名称注解
+     * @param var 配置名称
      * @param defaultValue 默认名称
      * @return 名称
      */
-    private static String getValue(Variable variable, String defaultValue) {
-        if (null == variable) {
+    private static String getValue(String var, String defaultValue) {
+        if (null == var) {
             return defaultValue;
         }
-        String var = variable.value();
         if (var.isEmpty()) {
             return defaultValue;
         }
@@ -156,26 +169,22 @@ public final class CheckUtil {
 
     /**
      * 获取最小数值
-     * @param symbol 元素
+     * @param descriptor 规则描述
      * @param numType 元素
      * @return 数值
      */
-    public static Number getMinNumber(Symbol symbol, char numType) {
-        Double decimal = getMinDecimal(symbol);
-        Long value = getMin(symbol);
-        return getNumber(numType, decimal, value);
+    public static Number getMinNumber(RuleDescriptor descriptor, char numType) {
+        return getNumber(numType, descriptor.getDecimalMin(), descriptor.getMin());
     }
 
     /**
      * 获取最大数值
-     * @param symbol 元素
+     * @param descriptor 规则描述
      * @param numType 元素
      * @return 数值
      */
-    public static Number getMaxNumber(Symbol symbol, char numType) {
-        Double decimal = getMaxDecimal(symbol);
-        Long value = getMax(symbol);
-        return getNumber(numType, decimal, value);
+    public static Number getMaxNumber(RuleDescriptor descriptor, char numType) {
+        return getNumber(numType, descriptor.getDecimalMax(), descriptor.getMax());
     }
 
     /**
@@ -204,43 +213,6 @@ public final class CheckUtil {
         return num;
     }
 
-    private static Long getMin(Symbol symbol) {
-        Min min = TreeUtil.getAnnotation(symbol, Min.class);
-        if (null == min) {
-            return null;
-        }
-        return min.value();
-    }
-
-    /**
-     * 获取最大整数
-     * @param symbol 元素
-     * @return 数值
-     */
-    private static Long getMax(Symbol symbol) {
-        Max max = TreeUtil.getAnnotation(symbol, Max.class);
-        if (null == max) {
-            return null;
-        }
-        return max.value();
-    }
-
-    private static Double getMinDecimal(Symbol symbol) {
-        DecimalMin decimalMin = TreeUtil.getAnnotation(symbol, DecimalMin.class);
-        if (null == decimalMin) {
-            return null;
-        }
-        return decimalMin.value();
-    }
-
-    private static Double getMaxDecimal(Symbol symbol) {
-        DecimalMax decimalMax = TreeUtil.getAnnotation(symbol, DecimalMax.class);
-        if (null == decimalMax) {
-            return null;
-        }
-        return decimalMax.value();
-    }
-
     /**
      * 是否标记返回空值
      * @param values 数据
@@ -283,13 +255,13 @@ public final class CheckUtil {
         String r;
         switch (classType) {
             case TypeUtil.BOOLEAN:
-                r = ElementOptions.RETURN_BOOLEAN;
+                r = ElementOptions.current().getReturnBoolean();
                 break;
             case TypeUtil.CHAR:
-                r = ElementOptions.RETURN_CHAR;
+                r = ElementOptions.current().getReturnChar();
                 break;
             default:
-                r = ElementOptions.RETURN_NUMBER;
+                r = ElementOptions.current().getReturnNumber();
         }
         return r;
     }
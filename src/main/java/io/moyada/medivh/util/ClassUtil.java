@@ -1,13 +1,13 @@
 package io.moyada.medivh.util;
 
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import sun.misc.Unsafe;
 
-import java.lang.ref.SoftReference;
+import javax.annotation.processing.ProcessingEnvironment;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.reflect.Proxy;
 
 /**
  * 类相关工具
@@ -19,20 +19,40 @@ public final class ClassUtil {
     private ClassUtil() {
     }
 
-    private static Map<String, SoftReference<Class<?>>> classMap = new HashMap<String, SoftReference<Class<?>>>();
-    private static Map<String, SoftReference<Method>> methodMap = new HashMap<String, SoftReference<Method>>();
-    private static Map<String, SoftReference<Field>> fieldMap = new HashMap<String, SoftReference<Field>>();
+    // 每个类加载器缓存的反射对象上限
+    private static final int CACHE_SIZE = 256;
 
-    private static <K, T> T getReference(Map<K, SoftReference<T>> refMap, K key) {
-        SoftReference<T> ref = refMap.get(key);
-        if (null == ref) {
-            return null;
-        }
-        return ref.get();
+    // 反射对象缓存，按类加载器分区
+    private static final ReflectionCache<Class<?>> classCache = new ReflectionCache<Class<?>>(CACHE_SIZE);
+    private static final ReflectionCache<Method> methodCache = new ReflectionCache<Method>(CACHE_SIZE);
+    private static final ReflectionCache<Field> fieldCache = new ReflectionCache<Field>(CACHE_SIZE);
+
+    // 构建工具包装处理环境时保存原始环境的属性名
+    // Gradle 增量处理为 delegate ，Kotlin kapt 为 processingEnv ，匿名内部类包装为 val$delegate
+    private static final String[] DELEGATE_FIELDS = {"delegate", "processingEnv", "val$delegate"};
+
+    /**
+     * 获取反射缓存命中次数，为当前 JVM 中所有编译的总和
+     * @return 命中次数
+     */
+    public static long getCacheHits() {
+        return classCache.getHits() + methodCache.getHits() + fieldCache.getHits();
     }
 
-    private static <K, T> void putReference(Map<K, SoftReference<T>> refMap, K key, T value) {
-        refMap.put(key, new SoftReference<T>(value));
+    /**
+     * 获取反射缓存未命中次数，为当前 JVM 中所有编译的总和
+     * @return 未命中次数
+     */
+    public static long getCacheMisses() {
+        return classCache.getMisses() + methodCache.getMisses() + fieldCache.getMisses();
+    }
+
+    /**
+     * 获取反射缓存淘汰次数，为当前 JVM 中所有编译的总和
+     * @return 淘汰次数
+     */
+    public static long getCacheEvictions() {
+        return classCache.getEvictions() + methodCache.getEvictions() + fieldCache.getEvictions();
     }
 
     /**
@@ -61,7 +81,9 @@ public final class ClassUtil {
      * @return 类对象
      */
     public static Class<?> getClass(String className) {
-        Class<?> clazz = getReference(classMap, className);
+        // 与 Class.forName 使用相同的类加载器
+        ClassLoader loader = ClassUtil.class.getClassLoader();
+        Class<?> clazz = classCache.get(loader, className);
         if (null != clazz) {
             return clazz;
         }
@@ -71,19 +93,20 @@ public final class ClassUtil {
             throw new RuntimeException(e);
         }
 
-        putReference(classMap, className, clazz);
+        classCache.put(loader, className, clazz);
         return clazz;
     }
 
     /**
      * 获取类下方法
      * @param clazz 类对象
-     * @param name 方法米
+     * @param name 方法名
      * @param parameterTypes 方法参数
      * @return 方法对象
      */
     public static Method getMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
-        Method method = getReference(methodMap, name);
+        String methodKey = getMethodKey(clazz, name, parameterTypes);
+        Method method = methodCache.get(clazz.getClassLoader(), methodKey);
         if (null != method) {
             return method;
         }
@@ -95,10 +118,29 @@ public final class ClassUtil {
             throw new RuntimeException(e);
         }
 
-        putReference(methodMap, name, method);
+        methodCache.put(clazz.getClassLoader(), methodKey, method);
         return method;
     }
 
+    /**
+     * 获取方法缓存键，同名重载方法与不同类的同名方法互不覆盖
+     * @param clazz 类对象
+     * @param name 方法名
+     * @param parameterTypes 方法参数
+     * @return 缓存键
+     */
+    private static String getMethodKey(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        StringBuilder key = new StringBuilder(64);
+        key.append(clazz.getName()).append('#').append(name).append('(');
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameterTypes[i].getName());
+        }
+        return key.append(')').toString();
+    }
+
     /**
      * 方法调用
      * @param method 方法对象
@@ -129,6 +171,61 @@ public final class ClassUtil {
         return getField(clazz, null, file);
     }
 
+    /**
+     * 获取 javac 处理环境
+     * 构建工具会包装处理环境以记录生成文件，如 Gradle 增量处理的 IncrementalProcessingEnvironment ，逐层读取被包装的环境
+     * @param processingEnv 处理环境
+     * @return 无法获取返回 null
+     */
+    public static JavacProcessingEnvironment getJavacProcessingEnvironment(Object processingEnv) {
+        Object env = processingEnv;
+        while (null != env) {
+            if (env instanceof JavacProcessingEnvironment) {
+                return (JavacProcessingEnvironment) env;
+            }
+            // 动态代理包装时读取调用处理器
+            if (Proxy.isProxyClass(env.getClass())) {
+                env = getDelegate(Proxy.getInvocationHandler(env));
+            } else {
+                env = getDelegate(env);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取被包装的处理环境
+     * @param target 包装对象
+     * @return 不存在返回 null
+     */
+    private static Object getDelegate(Object target) {
+        for (Class<?> clazz = target.getClass(); null != clazz; clazz = clazz.getSuperclass()) {
+            for (String name : DELEGATE_FIELDS) {
+                Field field;
+                try {
+                    field = clazz.getDeclaredField(name);
+                } catch (NoSuchFieldException e) {
+                    continue;
+                }
+
+                Object value;
+                try {
+                    field.setAccessible(true);
+                    value = field.get(target);
+                } catch (IllegalAccessException e) {
+                    continue;
+                } catch (RuntimeException e) {
+                    // 模块未开放时无法访问
+                    continue;
+                }
+                if (value instanceof ProcessingEnvironment) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * 获取对象属性
      * @param clazz 类对象
@@ -137,8 +234,8 @@ public final class ClassUtil {
      * @return 属性对象
      */
     static Object getField(Class<?> clazz, Object target, String file) {
-        String fileName = clazz.getName() + file;
-        Field field = getReference(fieldMap, fileName);
+        String fileName = clazz.getName() + "." + file;
+        Field field = fieldCache.get(clazz.getClassLoader(), fileName);
         if (null != field) {
             return getValue(field, target);
         }
@@ -150,7 +247,7 @@ public final class ClassUtil {
             throw new RuntimeException(e);
         }
 
-        putReference(fieldMap, fileName, field);
+        fieldCache.put(clazz.getClassLoader(), fileName, field);
         return getValue(field, target);
     }
 
@@ -1,15 +1,24 @@
 package io.moyada.medivh.util;
 
 import com.sun.source.util.Trees;
+import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.tree.JCTree;
 import io.moyada.medivh.annotation.NotBlank;
+import io.moyada.medivh.annotation.Size;
+import io.moyada.medivh.annotation.Throw;
 import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.ProcessorContext;
+import io.moyada.medivh.support.RuleDescriptor;
+import io.moyada.medivh.support.TypeUseSupport;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.*;
 import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.*;
@@ -24,67 +33,32 @@ public final class ElementUtil {
     private ElementUtil() {
     }
 
+    // 工具类模板，按顺序写入工具类
+    private static final String BLANK_TEMPLATE = "META-INF/util/Blank.rs";
+    private static final String BLANK_WHITESPACE_TEMPLATE = "META-INF/util/BlankWhitespace.rs";
+    private static final String SIZE_TEMPLATE = "META-INF/util/Size.rs";
+
     /**
-     * 获取待增强方法
+     * 获取待增强方法，由标记注解的方法、参数及类定位，不遍历无注解的元素
      * @param trees 语法树
-     * @param rootElements 根元素集合
-     * @param annoNames 注解名称
+     * @param roundEnv 环境
+     * @param checkAnnos 校验标记注解
      * @return 方法元素集合
      */
-    public static Collection<? extends Element> getMethods(Trees trees, Set<? extends Element> rootElements, String... annoNames) {
-        Set<Element> methods = new HashSet<Element>();
-
-        boolean filter;
-        for (Element rootElement : rootElements) {
-            if (rootElement.getKind() == ElementKind.INTERFACE) {
-                continue;
-            }
-            JCTree.JCClassDecl classDecl = (JCTree.JCClassDecl) trees.getTree(rootElement);
-            boolean checkClass = CheckUtil.isCheckClass(classDecl);
+    public static Set<Element> getMethods(Trees trees, RoundEnvironment roundEnv, List<Class<? extends Annotation>> checkAnnos) {
+        Set<Element> methods = new LinkedHashSet<Element>();
 
-            List<? extends Element> elements = rootElement.getEnclosedElements();
-            for (Element element : elements) {
-                if (element.getKind() != ElementKind.METHOD) {
-                    continue;
-                }
-                JCTree.JCMethodDecl methodDecl = (JCTree.JCMethodDecl) trees.getTree(element);
-                // 无需校验的方法
-                if (isJump(methodDecl)) {
-                    continue;
-                }
-                // 无参数方法
-                com.sun.tools.javac.util.List<JCTree.JCVariableDecl> parameters = methodDecl.getParameters();
-                if (parameters.isEmpty()) {
-                    continue;
-                }
-
-                // 标记排除
-                if (CheckUtil.isExclusive(methodDecl.sym)) {
-                    continue;
-                }
-
-                // 类上或方法上标记校验处理
-                if (checkClass || CheckUtil.isCheckMethod(methodDecl)) {
-                    methods.add(element);
-                    continue;
-                }
-
-                filter = true;
-                for (int i = 0; filter && i < parameters.size(); i++) {
-                    JCTree.JCVariableDecl variableDecl = parameters.get(i);
-                    List<? extends AnnotationMirror> mirrors = variableDecl.sym.getAnnotationMirrors();
-                    if (mirrors.isEmpty()) {
-                        continue;
-                    }
-                    for (int j = 0; filter && j < mirrors.size(); j++) {
-                        String name = mirrors.get(j).getAnnotationType().toString();
-                        for (int k = 0; filter && k < annoNames.length; k++) {
-                            // 存在标记注解的字段，则将该方法记录，跳至下一方法
-                            if (annoNames[k].equals(name)) {
-                                methods.add(element);
-                                filter = false;
-                            }
-                        }
+        for (Class<? extends Annotation> anno : checkAnnos) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(anno)) {
+                ElementKind kind = element.getKind();
+                if (kind == ElementKind.METHOD) {
+                    addMethod(trees, methods, element);
+                } else if (kind == ElementKind.PARAMETER) {
+                    addMethod(trees, methods, element.getEnclosingElement());
+                } else if (kind == ElementKind.CLASS || kind == ElementKind.ENUM) {
+                    // 类上标记校验处理
+                    for (Element method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+                        addMethod(trees, methods, method);
                     }
                 }
             }
@@ -93,6 +67,32 @@ public final class ElementUtil {
         return methods;
     }
 
+    /**
+     * 记录需要校验的方法
+     * @param trees 语法树
+     * @param methods 方法元素集合
+     * @param element 方法元素
+     */
+    private static void addMethod(Trees trees, Set<Element> methods, Element element) {
+        if (element.getKind() != ElementKind.METHOD || methods.contains(element)) {
+            return;
+        }
+        JCTree.JCMethodDecl methodDecl = (JCTree.JCMethodDecl) trees.getTree(element);
+        // 无需校验的方法
+        if (isJump(methodDecl)) {
+            return;
+        }
+        // 无参数方法
+        if (methodDecl.getParameters().isEmpty()) {
+            return;
+        }
+        // 标记排除
+        if (CheckUtil.isExclusive(methodDecl.sym)) {
+            return;
+        }
+        methods.add(element);
+    }
+
     /**
      * 跳过 接口、抽象 方法
      * @param methodDecl 方法节点
@@ -127,6 +127,24 @@ public final class ElementUtil {
             rules.addAll(ElementFilter.methodsIn(elements));
         }
 
+        // 仅在元素类型上标记规则的属性、方法
+        String[] annoNames = new String[ruleAnnos.size()];
+        for (int i = 0; i < annoNames.length; i++) {
+            annoNames[i] = ruleAnnos.get(i).getName();
+        }
+        for (Map.Entry<Element, List<Attribute.TypeCompound>> entry : getTypeUseElements(roundEnv).entrySet()) {
+            Element element = entry.getKey();
+            if (element.getKind() == ElementKind.PARAMETER) {
+                continue;
+            }
+            for (Attribute.TypeCompound compound : entry.getValue()) {
+                if (isAnnotation(compound, annoNames)) {
+                    rules.add(element);
+                    break;
+                }
+            }
+        }
+
         Map<Element, List<String>> classRule = new HashMap<Element, List<String>>();
         Element classEle;
         for (Element element : rules) {
@@ -143,55 +161,255 @@ public final class ElementUtil {
     }
 
     /**
-     * 创建工具类
+     * 创建工具类，存在空白字符串校验或需要有界计数的集合时生效
      * @param filer  文件处理器
+     * @param elements 元素工具
      * @param roundEnv 根环境
+     * @return 内容未变更而跳过生成返回 false
      */
-    public static void createUtil(Filer filer, RoundEnvironment roundEnv) {
-        Set<? extends Element> annotatedWith = roundEnv.getElementsAnnotatedWith(NotBlank.class);
+    public static boolean createUtil(Filer filer, Elements elements, RoundEnvironment roundEnv) {
+        Set<Element> annotatedWith = new LinkedHashSet<Element>(roundEnv.getElementsAnnotatedWith(NotBlank.class));
+        for (Element element : roundEnv.getElementsAnnotatedWith(Size.class)) {
+            if (TypeUtil.getElementSizeCost(element) == TypeUtil.SIZE_LINEAR) {
+                annotatedWith.add(element);
+            }
+        }
+        // 集合、数组元素类型上的规则
+        for (Map.Entry<Element, List<Attribute.TypeCompound>> entry : getTypeUseElements(roundEnv).entrySet()) {
+            for (Attribute.TypeCompound compound : entry.getValue()) {
+                if (isAnnotation(compound, NotBlank.class.getName())) {
+                    annotatedWith.add(entry.getKey());
+                } else if (isAnnotation(compound, Size.class.getName())) {
+                    TypeElement typeElement = getElementType((Symbol) entry.getKey(), compound);
+                    if (null != typeElement && TypeUtil.getSizeCost(typeElement) == TypeUtil.SIZE_LINEAR) {
+                        annotatedWith.add(entry.getKey());
+                    }
+                }
+            }
+        }
         if (annotatedWith.isEmpty()) {
-            return;
+            return false;
         }
 
         String packageName = getPackage(annotatedWith);
         if (null == packageName) {
-            return;
+            return false;
         }
 
+        ProcessorContext context = ProcessorContext.current();
         String className = "Util";
+        boolean created;
         try {
-            SystemUtil.createFile(filer, packageName, className,"META-INF/Util.rs");
+            List<String> templates = new ArrayList<String>(2);
+            templates.add(context.getTemplate(context.getOptions().isBlankWhitespace() ? BLANK_WHITESPACE_TEMPLATE : BLANK_TEMPLATE));
+            templates.add(context.getTemplate(SIZE_TEMPLATE));
+            created = SystemUtil.createFile(filer, elements, packageName, className, templates, getOriginatingElements(annotatedWith));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        ElementOptions.UTIL_CLASS = packageName + "." + className;
+        context.setUtilClass(packageName + "." + className);
+        return created;
+    }
+
+    /**
+     * 获取集合、数组元素类型上存在类型注解的属性、方法与方法参数
+     * 类型注解自 Java 8 起支持，之前版本返回空集合
+     * @param roundEnv 环境
+     * @return 元素与其元素类型上的注解
+     */
+    private static Map<Element, List<Attribute.TypeCompound>> getTypeUseElements(RoundEnvironment roundEnv) {
+        Map<Element, List<Attribute.TypeCompound>> typeUseElements = new LinkedHashMap<Element, List<Attribute.TypeCompound>>();
+        if (Compiler.CURRENT_VERSION < Compiler.JAVA_8) {
+            return typeUseElements;
+        }
+
+        LinkedList<TypeElement> classes = new LinkedList<TypeElement>(ElementFilter.typesIn(roundEnv.getRootElements()));
+        while (!classes.isEmpty()) {
+            TypeElement classElement = classes.poll();
+            for (Element element : classElement.getEnclosedElements()) {
+                ElementKind kind = element.getKind();
+                if (kind == ElementKind.FIELD) {
+                    addTypeUse(typeUseElements, element);
+                } else if (kind == ElementKind.METHOD) {
+                    addTypeUse(typeUseElements, element);
+                    for (VariableElement param : ((ExecutableElement) element).getParameters()) {
+                        addTypeUse(typeUseElements, param);
+                    }
+                } else if (element instanceof TypeElement) {
+                    classes.add((TypeElement) element);
+                }
+            }
+        }
+        return typeUseElements;
     }
 
     /**
-     * 获取元素集合中其中一个的包名
+     * 记录类型参数、数组元素类型及通配符边界上的注解
+     * 由声明元素读取，Java 8 编译器在注解处理阶段不会将其填充至类型中
+     * @param typeUseElements 记录集合
+     * @param element 元素
+     */
+    private static void addTypeUse(Map<Element, List<Attribute.TypeCompound>> typeUseElements, Element element) {
+        for (Attribute.TypeCompound compound : TypeUseSupport.getAttributes((Symbol) element)) {
+            if (compound.position.location.isEmpty()) {
+                continue;
+            }
+            List<Attribute.TypeCompound> compounds = typeUseElements.get(element);
+            if (null == compounds) {
+                compounds = new ArrayList<Attribute.TypeCompound>();
+                typeUseElements.put(element, compounds);
+            }
+            compounds.add(compound);
+        }
+    }
+
+    /**
+     * 获取注解所在的元素类型，通配符取其上界
+     * @param symbol 元素
+     * @param compound 类型注解
+     * @return 无法获取返回 null
+     */
+    private static TypeElement getElementType(Symbol symbol, Attribute.TypeCompound compound) {
+        Type type = symbol instanceof Symbol.MethodSymbol ? ((Symbol.MethodSymbol) symbol).getReturnType() : symbol.asType();
+        type = TypeUseSupport.getType(type, compound.position.location);
+        if (type instanceof Type.WildcardType) {
+            type = ((Type.WildcardType) type).getExtendsBound();
+        }
+        return null == type ? null : TypeUtil.getTypeElement(type);
+    }
+
+    /**
+     * 是否为指定注解
+     * @param compound 注解
+     * @param annoNames 注解类名
+     * @return 匹配返回 true
+     */
+    private static boolean isAnnotation(Attribute.Compound compound, String... annoNames) {
+        String name = compound.getAnnotationType().toString();
+        for (String annoName : annoNames) {
+            if (annoName.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 创建不填充堆栈的校验异常类与预创建的校验异常类，当不存在使用该异常的 {@link Throw} 则不生效
+     * @param filer 文件创建器
+     * @param elements 元素工具
+     * @param roundEnv 根环境
+     */
+    public static void createException(Filer filer, Elements elements, RoundEnvironment roundEnv) {
+        ProcessorContext context = ProcessorContext.current();
+        boolean createException = null == context.getExceptionClass();
+        boolean createPreallocated = null == context.getPreallocatedClass();
+        if (!createException && !createPreallocated) {
+            return;
+        }
+
+        Set<Element> stackless = new HashSet<Element>();
+        Set<Element> preallocated = new HashSet<Element>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Throw.class)) {
+            RuleDescriptor descriptor = RuleDescriptor.of((Symbol) element);
+            // 预创建异常的嵌套规则信息非常量，同样抛出新建的预创建异常
+            if (descriptor.isPreallocate()) {
+                preallocated.add(element);
+            } else if (descriptor.isStackless()) {
+                stackless.add(element);
+            }
+        }
+
+        if (createException) {
+            String className = createException(filer, elements, stackless, ElementOptions.EXCEPTION_NAME);
+            context.setExceptionClass(className);
+        }
+        if (createPreallocated) {
+            String className = createException(filer, elements, preallocated, ElementOptions.PREALLOCATED_NAME);
+            context.setPreallocatedClass(className);
+        }
+    }
+
+    /**
+     * 根据模板创建异常类
+     * @param filer 文件创建器
+     * @param elements 元素工具
+     * @param annotated 使用该异常的元素
+     * @param className 类名
+     * @return 异常类全名，无使用元素返回 null
+     */
+    private static String createException(Filer filer, Elements elements, Set<Element> annotated, String className) {
+        if (annotated.isEmpty()) {
+            return null;
+        }
+
+        String packageName = getPackage(annotated);
+        if (null == packageName) {
+            return null;
+        }
+
+        try {
+            String template = ProcessorContext.current().getTemplate("META-INF/" + className + ".rs");
+            SystemUtil.createClassFile(filer, elements, packageName, className, template, getOriginatingElements(annotated));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return packageName + "." + className;
+    }
+
+    /**
+     * 获取元素集合中字典序最小的包名，保证增量编译与全量编译生成位置一致
      * @param elements 元素集合
      * @return 包名
      */
     private static String getPackage(Set<? extends Element> elements) {
+        String packageName = null;
         Element enclosingElement;
         for (Element element : elements) {
             enclosingElement = element.getEnclosingElement();
             while (enclosingElement != null && enclosingElement.getKind() != ElementKind.PACKAGE) {
                 enclosingElement = enclosingElement.getEnclosingElement();
             }
-            if (null != enclosingElement) {
-                return enclosingElement.toString();
+            if (null == enclosingElement) {
+                continue;
             }
+            String name = enclosingElement.toString();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (null == packageName || name.compareTo(packageName) < 0) {
+                packageName = name;
+            }
+        }
+        return packageName;
+    }
+
+    /**
+     * 获取元素所属的顶层类，作为生成文件的来源元素供增量编译追踪
+     * @param elements 元素集合
+     * @return 顶层类元素
+     */
+    private static Element[] getOriginatingElements(Set<? extends Element> elements) {
+        Set<Element> classes = new LinkedHashSet<Element>();
+        Element classElement;
+        for (Element element : elements) {
+            classElement = element;
+            while (classElement.getEnclosingElement() != null
+                    && classElement.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+                classElement = classElement.getEnclosingElement();
+            }
+            classes.add(classElement);
         }
-        return null;
+        return classes.toArray(new Element[classes.size()]);
     }
 
     /**
      * 选择一个 public class 创建工具方法
+     * @param trees 语法树
      * @param elements 元素集合
      * @return 类元素
      */
-    public static Element findFirstPublicClass(Collection<? extends Element> elements) {
+    public static Element findFirstPublicClass(Trees trees, Collection<? extends Element> elements) {
         List<TypeElement> typeElements = ElementFilter.typesIn(elements);
         if (typeElements.isEmpty()) {
             return null;
@@ -209,6 +427,10 @@ public final class ElementUtil {
             if (element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
                 continue;
             }
+            // 排除无源码的类
+            if (null == trees.getTree(element)) {
+                continue;
+            }
 
             classElement = element;
         }
@@ -0,0 +1,165 @@
+package io.moyada.medivh.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 反射对象缓存，按类加载器分区，每个分区按最近使用淘汰
+ * 类加载器为弱引用，不会阻止构建守护进程卸载上次编译的类加载器，缓存对象为软引用，仅在内存不足时回收
+ * 查找分区不加锁，只在分区内加锁
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+final class ReflectionCache<V> {
+
+    // 启动类加载器分区键
+    private static final Object BOOTSTRAP = new Object();
+
+    // 类加载器 - 分区
+    private final ConcurrentMap<Object, Map<String, SoftReference<V>>> segments =
+            new ConcurrentHashMap<Object, Map<String, SoftReference<V>>>();
+
+    // 已回收的类加载器
+    private final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<ClassLoader>();
+
+    // 每个分区的最大数量
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    ReflectionCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取缓存对象
+     * @param loader 类加载器
+     * @param key 键
+     * @return 不存在或已被回收返回 null
+     */
+    V get(ClassLoader loader, String key) {
+        Map<String, SoftReference<V>> segment = getSegment(loader);
+        SoftReference<V> ref;
+        synchronized (segment) {
+            ref = segment.get(key);
+        }
+
+        V value = null == ref ? null : ref.get();
+        if (null == value) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * 存储缓存对象
+     * @param loader 类加载器
+     * @param key 键
+     * @param value 值
+     */
+    void put(ClassLoader loader, String key, V value) {
+        Map<String, SoftReference<V>> segment = getSegment(loader);
+        synchronized (segment) {
+            segment.put(key, new SoftReference<V>(value));
+        }
+    }
+
+    /**
+     * 获取类加载器对应的分区，不存在则创建
+     * @param loader 类加载器，启动类加载器为 null
+     * @return 分区
+     */
+    private Map<String, SoftReference<V>> getSegment(ClassLoader loader) {
+        Object key = null == loader ? BOOTSTRAP : new LoaderKey(loader, null);
+        Map<String, SoftReference<V>> segment = segments.get(key);
+        if (null != segment) {
+            return segment;
+        }
+
+        expunge();
+        segment = new LinkedHashMap<String, SoftReference<V>>(16, 0.75F, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SoftReference<V>> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+
+        if (null != loader) {
+            key = new LoaderKey(loader, queue);
+        }
+        Map<String, SoftReference<V>> exist = segments.putIfAbsent(key, segment);
+        return null == exist ? segment : exist;
+    }
+
+    /**
+     * 移除已回收类加载器的分区
+     */
+    private void expunge() {
+        Reference<? extends ClassLoader> ref;
+        while (null != (ref = queue.poll())) {
+            segments.remove(ref);
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * 类加载器弱引用键，按类加载器实例比较
+     */
+    private static final class LoaderKey extends WeakReference<ClassLoader> {
+
+        // 类加载器实例哈希值，回收后保持不变
+        private final int hash;
+
+        LoaderKey(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+            super(loader, queue);
+            this.hash = System.identityHashCode(loader);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof LoaderKey)) {
+                return false;
+            }
+            ClassLoader loader = get();
+            return null != loader && loader == ((LoaderKey) obj).get();
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package io.moyada.medivh.util;
 
 import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.Writer;
-import java.net.URL;
-import java.util.jar.JarFile;
-import java.util.zip.ZipEntry;
+import java.util.List;
 
 /**
  * 系统参数工具
@@ -69,54 +77,177 @@ public final class SystemUtil {
     }
 
     /**
-     * 创建工具类
+     * 创建工具类，依次写入各模板方法
      * @param filer 文件创建器
+     * @param elements 元素工具
      * @param packageName 包名
      * @param className 类名
-     * @throws IOException 资源获取失败异常
+     * @param templates 模板内容
+     * @param originatingElements 来源元素
+     * @return 内容未变更而跳过生成返回 false
+     * @throws IOException 文件创建失败异常
+     */
+    static boolean createFile(Filer filer, Elements elements, String packageName, String className, List<String> templates,
+                              Element... originatingElements) throws IOException {
+        StringBuilder content = new StringBuilder(4096);
+        content.append("package ").append(packageName).append(";\n\n");
+        content.append("public final class ").append(className).append("{\n");
+        content.append("    private ").append(className).append("() {}\n");
+        for (int i = 0; i < templates.size(); i++) {
+            if (i > 0) {
+                content.append("\n");
+            }
+            content.append(templates.get(i));
+        }
+        content.append("}\n");
+
+        return writeSource(filer, elements, packageName, className, content.toString(), originatingElements);
+    }
+
+    /**
+     * 创建类文件，模板内容为完整类定义
+     * @param filer 文件创建器
+     * @param elements 元素工具
+     * @param packageName 包名
+     * @param className 类名
+     * @param template 模板内容
+     * @param originatingElements 来源元素
+     * @return 内容未变更而跳过生成返回 false
+     * @throws IOException 文件创建失败异常
+     */
+    static boolean createClassFile(Filer filer, Elements elements, String packageName, String className, String template,
+                                   Element... originatingElements) throws IOException {
+        String content = "package " + packageName + ";\n\n" + template;
+        return writeSource(filer, elements, packageName, className, content, originatingElements);
+    }
+
+    /**
+     * 写入源码文件，本次编译已可见该类且上次生成的源码内容相同时跳过
+     * 避免重写相同内容的源码导致构建工具判定源码变更
+     * @param filer 文件创建器
+     * @param elements 元素工具
+     * @param packageName 包名
+     * @param className 类名
+     * @param content 源码内容
+     * @param originatingElements 来源元素
+     * @return 跳过生成返回 false
+     * @throws IOException 文件创建失败异常
      */
-    static void createFile(Filer filer, String packageName, String className, String resourcePath) throws IOException {
-        String content = getJarContent(resourcePath);
+    private static boolean writeSource(Filer filer, Elements elements, String packageName, String className, String content,
+                                       Element... originatingElements) throws IOException {
+        String qualifiedName = packageName + "." + className;
+        if (null != elements.getTypeElement(qualifiedName) && isUnchanged(filer, packageName, className, content)) {
+            return false;
+        }
 
-        JavaFileObject classFile = filer.createSourceFile(packageName + "." + className);
+        JavaFileObject classFile = filer.createSourceFile(qualifiedName, originatingElements);
         Writer writer = classFile.openWriter();
-        writer.append("package ").append(packageName).append(";\n\n");
-        writer.append("public final class ").append(className).append("{\n");
-        writer.append("    private ").append(className).append("() {}\n");
-        writer.append(content);
-        writer.append("\n}\n");
-        writer.flush();
-        writer.close();
+        try {
+            writer.append(content);
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+        return true;
     }
 
     /**
-     * 获取 jar 包内容
-     * @param url 包链接
-     * @return 返回内容信息
-     * @throws IOException 资源获取失败异常
+     * 比较上次生成的源码与本次内容的哈希，哈希相同时再比较内容
+     * @param filer 文件创建器
+     * @param packageName 包名
+     * @param className 类名
+     * @param content 源码内容
+     * @return 内容相同返回 true
+     */
+    private static boolean isUnchanged(Filer filer, String packageName, String className, String content) {
+        String existing;
+        try {
+            FileObject source = filer.getResource(StandardLocation.SOURCE_OUTPUT, packageName, className + JavaFileObject.Kind.SOURCE.extension);
+            existing = source.getCharContent(true).toString();
+        } catch (IOException e) {
+            return false;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return existing.hashCode() == content.hashCode() && existing.equals(content);
+    }
+
+    /**
+     * 创建处理器输出文件
+     * 相对路径通过 Filer 写入当前模块的类输出目录，与构建守护进程的工作目录无关，
+     * 绝对路径使用 {@link #getOutputPath(Filer, String)} 追加类输出目录标识，并行编译的多个模块不会互相覆盖
+     * @param filer 文件创建器
+     * @param path 输出路径
+     * @return 文件写入器
+     * @throws IOException 文件创建失败异常
+     */
+    public static Writer openOutput(Filer filer, String path) throws IOException {
+        OutputStream outputStream;
+        if (new File(path).isAbsolute()) {
+            File file = new File(getOutputPath(filer, path));
+            File parent = file.getParentFile();
+            if (null != parent && !parent.exists()) {
+                parent.mkdirs();
+            }
+            outputStream = new FileOutputStream(file);
+        } else {
+            outputStream = filer.createResource(StandardLocation.CLASS_OUTPUT, "", path.replace(File.separatorChar, '/')).openOutputStream();
+        }
+        return new OutputStreamWriter(outputStream, "UTF-8");
+    }
+
+    /**
+     * 获取输出文件路径，绝对路径在扩展名前追加类输出目录的哈希，如 /tmp/medivh-report-1f2e3d4c.tsv
+     * @param filer 文件创建器
+     * @param path 输出路径
+     * @return 相对路径或无法获取类输出目录时返回原路径
      */
-    private static String getJarContent(String url) throws IOException {
-        URL resource = StringUtil.class.getResource("");
-        String path = resource.getPath();
-        String protocol = "file:";
-        int i = path.lastIndexOf("!");
-        path = path.substring(protocol.length(), i);
-
-        JarFile jarFile = new JarFile(path);
-        ZipEntry entry = jarFile.getEntry(url);
-        if (null == entry) {
-            throw new FileNotFoundException(url + " not exist.");
+    public static String getOutputPath(Filer filer, String path) {
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            return path;
+        }
+
+        String location;
+        try {
+            location = filer.getResource(StandardLocation.CLASS_OUTPUT, "", file.getName()).toUri().resolve(".").toString();
+        } catch (IOException e) {
+            return path;
+        } catch (IllegalArgumentException e) {
+            return path;
         }
+        String tag = "-" + Integer.toHexString(location.hashCode());
 
-        InputStream inputStream = jarFile.getInputStream(entry);
-        StringBuilder content = new StringBuilder(inputStream.available());
+        int index = path.lastIndexOf('.');
+        if (index <= path.lastIndexOf(File.separatorChar)) {
+            return path + tag;
+        }
+        return path.substring(0, index) + tag + path.substring(index);
+    }
+
+    /**
+     * 通过类加载器读取资源内容，处理器以 jar 包或目录形式加载时均可读取
+     * @param path 资源路径
+     * @return 资源内容
+     * @throws IOException 资源获取失败异常
+     */
+    public static String getResource(String path) throws IOException {
+        InputStream inputStream = SystemUtil.class.getResourceAsStream("/" + path);
+        if (null == inputStream) {
+            throw new FileNotFoundException(path + " not exist.");
+        }
 
-        byte[] bytes = new byte[1024];
-        int read;
-        while ((read = inputStream.read(bytes)) > 0) {
-            content.append(new String(bytes, 0, read));
+        try {
+            Reader reader = new InputStreamReader(inputStream, "UTF-8");
+            StringBuilder content = new StringBuilder(4096);
+            char[] chars = new char[1024];
+            int read;
+            while ((read = reader.read(chars)) > 0) {
+                content.append(chars, 0, read);
+            }
+            return content.toString();
+        } finally {
+            inputStream.close();
         }
-        inputStream.close();
-        return content.toString();
     }
 }
@@ -1,15 +1,15 @@
 package io.moyada.medivh.util;
 
-import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.support.TypeTag;
 
-import java.lang.annotation.Annotation;
-import java.util.Map;
+import javax.lang.model.type.TypeKind;
+import java.lang.reflect.Method;
 
 /**
  * 语法树工具
@@ -48,72 +48,6 @@ public final class TreeUtil {
         }
     }
 
-    /**
-     * 获取注解数据
-     * @param symbol 元素
-     * @param className 注解类名
-     * @param attrKey 属性名
-     * @return 数据
-     */
-    public static String getAnnotationValue(Symbol symbol, String className, String attrKey) {
-        Attribute.Compound annotationAttr = getAnnotationAttr(symbol.getAnnotationMirrors(), className);
-        if (null == annotationAttr) {
-            return null;
-        }
-        return getAnnotationValue(annotationAttr, attrKey);
-    }
-
-    /**
-     * 获取注解类型属性
-     * @param ms 元素注解镜像
-     * @param className 注解类名
-     * @return 对应注解镜像
-     */
-    private static Attribute.Compound getAnnotationAttr(List<Attribute.Compound> ms, String className) {
-        for (Attribute.Compound m : ms) {
-            if (!m.getAnnotationType().toString().equals(className)) {
-                continue;
-            }
-
-            return m;
-        }
-        return null;
-    }
-
-    /**
-     * 获取注解参数值
-     * @param annotationAttr 注解镜像
-     * @param key 属性名
-     * @return 数值
-     */
-    private static String getAnnotationValue(Attribute.Compound annotationAttr, String key) {
-        if (null == annotationAttr) {
-            return null;
-        }
-
-        for (Map.Entry<Symbol.MethodSymbol, Attribute> entry : annotationAttr.getElementValues().entrySet()) {
-            if (entry.getKey().toString().equals(key)) {
-                return entry.getValue().getValue().toString();
-            }
-        }
-        return null;
-    }
-
-    /**
-     * 获取注解数据
-     * @param symbol 元素
-     * @param anno 注解类
-     * @param <T> 类型
-     * @return 注解数据
-     */
-    @SuppressWarnings("deprecation")
-    public static <T extends Annotation> T getAnnotation(Symbol symbol, Class<T> anno) {
-        if (null == symbol) {
-            return null;
-        }
-        return symbol.getAnnotation(anno);
-    }
-
     /**
      * 获取实际类型名
      * @param symbol 元素
@@ -159,6 +93,48 @@ public final class TreeUtil {
         return className + "." + methodName;
     }
 
+    /**
+     * 获取不含类型注解的方法签名
+     * @param methodSymbol 方法元素
+     * @return 方法名 + (参数类型)
+     */
+    public static String getSignature(Symbol.MethodSymbol methodSymbol) {
+        String name = methodSymbol.isConstructor() ? methodSymbol.owner.name.toString() : methodSymbol.name.toString();
+        ListBuffer<String> paramTypes = new ListBuffer<String>();
+        for (Symbol.VarSymbol param : methodSymbol.getParameters()) {
+            paramTypes.append(getTypeName(param.asType()));
+        }
+        return name + "(" + paramTypes.toList() + ")";
+    }
+
+    /**
+     * 获取不含类型注解的类型名
+     * @param type 类型
+     * @return 类型名
+     */
+    private static String getTypeName(Type type) {
+        TypeKind kind = type.getKind();
+        if (kind == TypeKind.ARRAY) {
+            return getTypeName(((Type.ArrayType) type).elemtype) + "[]";
+        }
+        if (kind.isPrimitive()) {
+            return type.tsym.toString();
+        }
+        if (Compiler.CURRENT_VERSION < Compiler.JAVA_8) {
+            return type.toString();
+        }
+
+        Method method;
+        // 移除类型注解
+        if (Compiler.CURRENT_VERSION == Compiler.JAVA_8) {
+            method = ClassUtil.getMethod(Type.class, "unannotatedType");
+        } else {
+            method = ClassUtil.getMethod(Type.class, "stripMetadata");
+        }
+        Type unannotated = ClassUtil.invoke(method, type);
+        return unannotated.toString();
+    }
+
     /**
      * 是否是抽象或接口
      * @param flags 标记
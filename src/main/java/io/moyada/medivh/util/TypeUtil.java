@@ -2,8 +2,19 @@ package io.moyada.medivh.util;
 
 import io.moyada.medivh.support.TypeTag;
 
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 类型工具
@@ -25,6 +36,22 @@ public final class TypeUtil {
 
     public static final char UNKNOWN = '-';
 
+    // 集合 size() 为常数时间
+    public final static byte SIZE_CONSTANT = 0;
+    // 集合 size() 需要遍历元素
+    public final static byte SIZE_LINEAR = 1;
+    // 集合 size() 开销未知
+    public final static byte SIZE_UNKNOWN = 2;
+
+    // size() 需要遍历元素的集合
+    private static final Set<String> LINEAR_SIZE = new HashSet<String>(Arrays.asList(
+            "java.util.concurrent.ConcurrentLinkedQueue",
+            "java.util.concurrent.ConcurrentLinkedDeque",
+            "java.util.concurrent.LinkedTransferQueue",
+            "java.util.concurrent.ConcurrentSkipListSet",
+            "java.util.concurrent.ConcurrentSkipListMap"
+    ));
+
     private static final char BYTE = 'B';
     private static final char SHORT = 'S';
     private static final char INT = 'I';
@@ -432,4 +459,57 @@ public final class TypeUtil {
         }
         return 0;
     }
+
+    /**
+     * 获取集合 size() 开销
+     * 沿父类查找 java.util 下的集合实现，其中并发链表、跳表集合需要遍历元素
+     * 接口与抽象类型的实际实现在运行期才能确定，如 Queue、Collection 可能是需要遍历元素的并发集合，视为未知
+     * @param element 类型元素
+     * @return 开销类别
+     */
+    public static byte getSizeCost(TypeElement element) {
+        while (null != element) {
+            String name = element.getQualifiedName().toString();
+            if (LINEAR_SIZE.contains(name)) {
+                return SIZE_LINEAR;
+            }
+            if (element.getKind() == ElementKind.INTERFACE || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                return SIZE_UNKNOWN;
+            }
+            if (name.startsWith("java.util.")) {
+                return SIZE_CONSTANT;
+            }
+            element = getTypeElement(element.getSuperclass());
+        }
+        return SIZE_UNKNOWN;
+    }
+
+    /**
+     * 获取元素类型的集合 size() 开销
+     * @param element 属性、参数或无参方法元素
+     * @return 开销类别
+     */
+    public static byte getElementSizeCost(Element element) {
+        TypeMirror type;
+        if (element instanceof ExecutableElement) {
+            type = ((ExecutableElement) element).getReturnType();
+        } else {
+            type = element.asType();
+        }
+        TypeElement typeElement = getTypeElement(type);
+        return null == typeElement ? SIZE_UNKNOWN : getSizeCost(typeElement);
+    }
+
+    /**
+     * 获取类型对应的类型元素
+     * @param type 类型
+     * @return 非类或接口类型返回 null
+     */
+    public static TypeElement getTypeElement(TypeMirror type) {
+        if (null == type || type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        return element instanceof TypeElement ? (TypeElement) element : null;
+    }
 }
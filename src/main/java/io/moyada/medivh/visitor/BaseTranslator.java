@@ -1,20 +1,36 @@
 package io.moyada.medivh.visitor;
 
+import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.TypeAnnotationPosition;
+import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.tree.TreeTranslator;
 import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.ListBuffer;
+import io.moyada.medivh.annotation.NotNull;
+import io.moyada.medivh.annotation.Nullable;
+import io.moyada.medivh.annotation.Size;
+import io.moyada.medivh.regulation.*;
+import io.moyada.medivh.support.ActionData;
+import io.moyada.medivh.support.ClassTypeSupport;
+import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.RegulationBuilder;
+import io.moyada.medivh.support.RuleDescriptor;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.support.TypeTag;
+import io.moyada.medivh.support.TypeUseSupport;
 import io.moyada.medivh.util.CheckUtil;
+import io.moyada.medivh.util.Compiler;
 import io.moyada.medivh.util.TreeUtil;
 import io.moyada.medivh.util.TypeUtil;
 
 import javax.annotation.processing.Messager;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
 
 /**
  * 基础监视器
@@ -32,9 +48,17 @@ abstract class BaseTranslator extends TreeTranslator {
     // 语法树构造器
     final TreeMaker treeMaker;
 
+    // 类型类别缓存
+    private final ClassTypeSupport classTypeSupport;
+
     BaseTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager) {
+        this(syntaxTreeMaker, messager, new ClassTypeSupport(syntaxTreeMaker));
+    }
+
+    BaseTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager, ClassTypeSupport classTypeSupport) {
         this.syntaxTreeMaker = syntaxTreeMaker;
         this.messager = messager;
+        this.classTypeSupport = classTypeSupport;
 
         this.treeMaker = syntaxTreeMaker.getTreeMaker();
     }
@@ -62,96 +86,349 @@ abstract class BaseTranslator extends TreeTranslator {
     }
 
     /**
-     * 获取类型
-     * @param className 类型名称
-     * @return 类型
+     * 集合长度校验无法确定 size() 开销时给出提示
+     * 接口等声明类型十分常见，默认为 NOTE 级别，避免使用 -Werror 的项目编译失败，指定报告文件 medivh.report 时为 WARNING 级别
+     * @param symbol 元素
+     * @param classType 类别
      */
-    byte getClassType(String className) {
-        // 字符串逻辑
-        if (isString(className)) {
-            return TypeUtil.STRING;
+    void checkSizeCost(Symbol symbol, byte classType) {
+        if (classType != TypeUtil.COLLECTION || !RuleDescriptor.of(symbol).hasSize()) {
+            return;
         }
-        // 数组规则
-        if (TypeUtil.isArr(className)) {
-            return TypeUtil.ARRAY;
+        if (TypeUtil.getElementSizeCost(symbol) != TypeUtil.SIZE_UNKNOWN) {
+            return;
         }
-        // 集合 Collection \ Map
-        if (isCollection(className)) {
-            return TypeUtil.COLLECTION;
+        Type type = symbol instanceof Symbol.MethodSymbol ? ((Symbol.MethodSymbol) symbol).getReturnType() : symbol.asType();
+        Diagnostic.Kind kind = null == ElementOptions.current().getReportPath() ? Diagnostic.Kind.NOTE : Diagnostic.Kind.WARNING;
+        messager.printMessage(kind, "[Size Warning] Cost of " + type.tsym +
+                ".size() is unknown, validation of " + symbol + " in " + getOwnerName(symbol) + " may traverse all elements.");
+    }
+
+    /**
+     * 获取元素所属的方法或类名称
+     * @param symbol 元素
+     * @return 方法签名或类名
+     */
+    private static String getOwnerName(Symbol symbol) {
+        return symbol.owner instanceof Symbol.MethodSymbol ?
+                symbol.owner.enclClass() + "." + TreeUtil.getSignature((Symbol.MethodSymbol) symbol.owner) : symbol.owner.toString();
+    }
+
+    /**
+     * 构建数组、集合、Map 元素校验规则，规则来自元素类型上的类型注解，自 Java 8 起支持
+     * 类型注解按类型路径从声明元素读取，未能作用于元素的规则给出警告
+     * @param symbol 元素
+     * @param classType 类别
+     * @param actionData 执行数据，当接收处理语句为空时由此构造
+     * @param ordered 是否保持规则声明顺序
+     * @return 元素类型无规则返回 null
+     */
+    ElementRegulation buildElementRule(Symbol symbol, byte classType, ActionData actionData, boolean ordered) {
+        if (Compiler.CURRENT_VERSION < Compiler.JAVA_8) {
+            return null;
         }
-        if (TypeUtil.isPrimitive(className)) {
-            return TypeUtil.PRIMITIVE;
+        TypeUseSupport typeUse = new TypeUseSupport(symbol);
+        ElementRegulation regulation = buildElementRule(symbol, typeUse, TypeUseSupport.ROOT, classType, actionData, ordered, true);
+        for (Attribute.TypeCompound compound : typeUse.getUnused()) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "[Element Warning] " + compound + " at " + compound.position.location +
+                    " of " + symbol + " in " + getOwnerName(symbol) + " is ignored, only elements of arrays, collections and maps are validated.");
         }
-
-        return TypeUtil.OBJECT;
+        return regulation;
     }
 
     /**
-     * 类型是否属于 {@link CharSequence} 或实现类
-     * @param className 类型名称
-     * @return 是否属于字符序列
+     * 构建元素校验规则，元素类型同样为数组、集合、Map 时递归构建嵌套元素规则
+     * @param symbol 元素
+     * @param typeUse 声明元素的类型注解
+     * @param location 元素在声明类型中的路径，无法对应时为 null
+     * @param classType 类别
+     * @param actionData 执行数据
+     * @param ordered 是否保持规则声明顺序
+     * @param declared 是否为声明的属性、参数或方法，嵌套元素为 false
+     * @return 元素类型无规则返回 null
      */
-    private boolean isString(String className) {
-        Symbol.ClassSymbol classSymbol = syntaxTreeMaker.getTypeElement(className);
-        // primitive 类型
-        if (null == classSymbol) {
-            return false;
+    private ElementRegulation buildElementRule(Symbol symbol, TypeUseSupport typeUse, List<TypeAnnotationPosition.TypePathEntry> location,
+                                               byte classType, ActionData actionData, boolean ordered, boolean declared) {
+        if (classType != TypeUtil.ARRAY && classType != TypeUtil.COLLECTION) {
+            return null;
         }
 
-        if (classSymbol.isInterface()) {
-            return isString(classSymbol);
+        Type type = symbol instanceof Symbol.MethodSymbol ? ((Symbol.MethodSymbol) symbol).getReturnType() : symbol.asType();
+        if (classType == TypeUtil.ARRAY) {
+            if (type.getKind() != TypeKind.ARRAY) {
+                return null;
+            }
+            Type component = ((Type.ArrayType) type).elemtype;
+            java.util.List<Regulation> regulations = getElementRegulations(symbol, component, declared, typeUse,
+                    TypeUseSupport.array(location), actionData, ordered);
+            if (null == regulations) {
+                return null;
+            }
+            return new ElementRegulation(ElementRegulation.ARRAY, getElementTypeName(component), regulations);
+        }
+
+        Types types = syntaxTreeMaker.getTypes();
+        Symbol.TypeSymbol typeSymbol = type.tsym;
+
+        if (isInstanceOf(typeSymbol, syntaxTreeMaker.mapSymbol)) {
+            Type mapType = types.asSuper(type, syntaxTreeMaker.mapSymbol);
+            // 原始类型
+            if (null == mapType || mapType.getTypeArguments().size() != 2) {
+                return null;
+            }
+            Type keyType = mapType.getTypeArguments().get(0);
+            Type valueType = mapType.getTypeArguments().get(1);
+            java.util.List<Regulation> keyRegulations = getElementRegulations(symbol, keyType, false, typeUse,
+                    getArgumentLocation(type, syntaxTreeMaker.mapSymbol, 0, location), actionData, ordered);
+            java.util.List<Regulation> valueRegulations = getElementRegulations(symbol, valueType, false, typeUse,
+                    getArgumentLocation(type, syntaxTreeMaker.mapSymbol, 1, location), actionData, ordered);
+            if (null == keyRegulations && null == valueRegulations) {
+                return null;
+            }
+            return new ElementRegulation(getElementTypeName(keyType), keyRegulations, getElementTypeName(valueType), valueRegulations);
+        }
+
+        Type collectionType = types.asSuper(type, syntaxTreeMaker.collectionSymbol);
+        if (null == collectionType || collectionType.getTypeArguments().size() != 1) {
+            return null;
+        }
+        Type elementType = collectionType.getTypeArguments().head;
+        java.util.List<Regulation> regulations = getElementRegulations(symbol, elementType, false, typeUse,
+                getArgumentLocation(type, syntaxTreeMaker.collectionSymbol, 0, location), actionData, ordered);
+        if (null == regulations) {
+            return null;
+        }
+
+        byte mode;
+        if (isInstanceOf(typeSymbol, syntaxTreeMaker.randomAccessSymbol)) {
+            mode = ElementRegulation.RANDOM_ACCESS;
+        } else if (isInstanceOf(typeSymbol, syntaxTreeMaker.listSymbol) && TreeUtil.isAbsOrInter(typeSymbol.flags())) {
+            // 接口或抽象类声明的列表在运行时判断是否支持随机访问
+            mode = ElementRegulation.LIST;
         } else {
-            List<Type> interfaces = classSymbol.getInterfaces();
-            int size = interfaces.size();
-            if (size == 0) {
-                return false;
+            mode = ElementRegulation.ITERABLE;
+        }
+        return new ElementRegulation(mode, getElementTypeName(elementType), regulations);
+    }
+
+    /**
+     * 获取元素类型规则链
+     * 数组声明处的注解同时作用于数组元素类型，其中适用于数组本身的非空、空间规则只作为数组规则
+     * 通配符元素使用上界类型，通配符与上界上的注解均作为元素规则
+     * @param symbol 元素
+     * @param elementType 元素类型
+     * @param isArray 是否声明的数组的元素
+     * @param typeUse 声明元素的类型注解
+     * @param location 元素类型在声明类型中的路径，无法对应时为 null
+     * @param actionData 执行数据
+     * @param ordered 是否保持规则声明顺序
+     * @return 无规则返回 null
+     */
+    private java.util.List<Regulation> getElementRegulations(Symbol symbol, Type elementType, boolean isArray,
+                                                             TypeUseSupport typeUse, List<TypeAnnotationPosition.TypePathEntry> location,
+                                                             ActionData actionData, boolean ordered) {
+        ListBuffer<Attribute.Compound> attributes = new ListBuffer<Attribute.Compound>();
+        if (elementType.getKind() == TypeKind.WILDCARD) {
+            Type.WildcardType wildcard = (Type.WildcardType) elementType;
+            for (Attribute.TypeCompound compound : merge(wildcard.getAnnotationMirrors(), typeUse.get(location))) {
+                attributes.append(compound);
             }
+            elementType = getUpperBound(symbol, wildcard, typeUse, TypeUseSupport.wildcard(location));
+            location = TypeUseSupport.wildcard(location);
+        }
 
-            Symbol.TypeSymbol typeSymbol;
-            // 检查接口
-            for (int i = 0; i < size; i++) {
-                typeSymbol = interfaces.get(i).tsym;
-                if (isString(typeSymbol)) {
-                    return true;
-                }
+        TypeKind kind = elementType.getKind();
+        if (kind != TypeKind.DECLARED && kind != TypeKind.TYPEVAR && kind != TypeKind.ARRAY && !kind.isPrimitive()) {
+            return null;
+        }
+
+        for (Attribute.TypeCompound compound : merge(elementType.getAnnotationMirrors(), typeUse.get(location))) {
+            if (isArray && isArrayRule(symbol, compound)) {
+                continue;
             }
+            attributes.append(compound);
         }
-        return false;
+        if (attributes.isEmpty() && !typeUse.hasNested(location) && !hasElementRule(elementType)) {
+            return null;
+        }
+
+        // 以元素类型与类型注解构造元素，复用元素规则读取
+        Symbol.VarSymbol element = new Symbol.VarSymbol(0L, symbol.name, elementType, symbol.owner);
+        element.setDeclarationAttributes(attributes.toList());
+
+        String typeName = TreeUtil.getOriginalTypeName(element);
+        byte classType = getClassType(typeName);
+        checkSizeCost(element, classType);
+
+        java.util.List<Regulation> regulations = RegulationBuilder.findBasicRule(element, typeName, classType, actionData);
+        // 元素本身为数组、集合、Map 时校验其中的元素
+        ElementRegulation elementRegulation = buildElementRule(element, typeUse, location, classType, actionData, ordered, false);
+        if (null != elementRegulation) {
+            regulations.add(elementRegulation);
+        }
+        boolean isEmpty = regulations.isEmpty();
+
+        Boolean checkNull = RegulationBuilder.checkNotNull(element, classType, !isEmpty);
+        if (null != checkNull) {
+            if (checkNull) {
+                NullCheckRegulation nullCheckRegulation = new NullCheckRegulation();
+                nullCheckRegulation.setActionData(actionData);
+                regulations.add(nullCheckRegulation);
+                isEmpty = false;
+            } else if (!isEmpty) {
+                regulations.add(new NotNullWrapperRegulation());
+            }
+        }
+
+        if (isEmpty) {
+            return null;
+        }
+        if (!ordered) {
+            regulations = RegulationOptimizer.order(regulations);
+        }
+        return regulations;
     }
 
     /**
-     * 类型是否属于集合或子类
-     * @param className 类型名称
-     * @return 是否属于集合
+     * 获取通配符元素的上界类型，下界上的注解无法约束元素，忽略并给出警告
+     * @param symbol 元素
+     * @param wildcard 通配符类型
+     * @param typeUse 声明元素的类型注解
+     * @param location 通配符边界在声明类型中的路径
+     * @return 上界类型，无上界返回 Object
      */
-    private boolean isCollection(String className) {
-        Symbol.ClassSymbol classSymbol = syntaxTreeMaker.getTypeElement(className);
-        // primitive 类型
-        if (null == classSymbol) {
-            return false;
+    private Type getUpperBound(Symbol symbol, Type.WildcardType wildcard,
+                               TypeUseSupport typeUse, List<TypeAnnotationPosition.TypePathEntry> location) {
+        if (null != wildcard.getExtendsBound()) {
+            return wildcard.getExtendsBound();
+        }
+        Type superBound = wildcard.getSuperBound();
+        if (null != superBound && !merge(superBound.getAnnotationMirrors(), typeUse.get(location)).isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "[Element Warning] Rules on lower bound of " + wildcard +
+                    " are ignored, elements of " + symbol + " in " + getOwnerName(symbol) + " are not guaranteed to be " +
+                    superBound.tsym + ", please annotate the wildcard instead.");
         }
+        return syntaxTreeMaker.getTypeElement(Object.class.getName()).asType();
+    }
 
-        if (classSymbol.isInterface()) {
-            return isCollection(classSymbol);
-        } else {
-            List<Type> interfaces = classSymbol.getInterfaces();
-            int size = interfaces.size();
-            if (size == 0) {
-                return false;
+    /**
+     * 获取集合、Map 类型参数在声明类型中的路径
+     * 声明类型为子类时按其类型变量对应至集合、Map 的类型参数
+     * @param type 声明类型
+     * @param target 集合或 Map 类型
+     * @param index 集合或 Map 的类型参数下标
+     * @param location 声明类型的路径
+     * @return 无法对应声明类型的类型参数返回 null
+     */
+    private List<TypeAnnotationPosition.TypePathEntry> getArgumentLocation(Type type, Symbol.ClassSymbol target, int index,
+                                                                           List<TypeAnnotationPosition.TypePathEntry> location) {
+        if (null == location) {
+            return null;
+        }
+        Type formal = type.tsym.type;
+        Type superType = syntaxTreeMaker.getTypes().asSuper(formal, target);
+        if (null == superType || superType.getTypeArguments().size() <= index) {
+            return null;
+        }
+        Type argument = superType.getTypeArguments().get(index);
+        List<Type> parameters = formal.getTypeArguments();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (parameters.get(i).tsym == argument.tsym) {
+                return TypeUseSupport.typeArgument(location, i);
             }
+        }
+        return null;
+    }
 
-            Symbol.TypeSymbol typeSymbol;
-            // 检查接口
-            for (int i = 0; i < size; i++) {
-                typeSymbol = interfaces.get(i).tsym;
-                if (isCollection(typeSymbol)) {
-                    return true;
+    /**
+     * 合并类型上与声明元素中读取的类型注解，同类注解只保留一个
+     * @param mirrors 类型上的注解
+     * @param compounds 声明元素中读取的注解
+     * @return 注解集合
+     */
+    private static List<Attribute.TypeCompound> merge(List<Attribute.TypeCompound> mirrors, List<Attribute.TypeCompound> compounds) {
+        ListBuffer<Attribute.TypeCompound> merged = new ListBuffer<Attribute.TypeCompound>();
+        merged.appendList(mirrors);
+        for (Attribute.TypeCompound compound : compounds) {
+            boolean exist = false;
+            for (Attribute.TypeCompound mirror : mirrors) {
+                if (mirror.getAnnotationType().toString().equals(compound.getAnnotationType().toString())) {
+                    exist = true;
+                    break;
                 }
             }
+            if (!exist) {
+                merged.append(compound);
+            }
+        }
+        return merged.toList();
+    }
+
+    /**
+     * 元素类型中是否包含嵌套元素规则
+     * @param type 元素类型
+     * @return 嵌套的数组元素、类型参数或通配符上存在类型注解返回 true
+     */
+    private static boolean hasElementRule(Type type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            Type component = ((Type.ArrayType) type).elemtype;
+            return !component.getAnnotationMirrors().isEmpty() || hasElementRule(component);
+        }
+        if (type.getKind() == TypeKind.WILDCARD) {
+            Type.WildcardType wildcard = (Type.WildcardType) type;
+            return null != wildcard.type && (!wildcard.type.getAnnotationMirrors().isEmpty() || hasElementRule(wildcard.type));
+        }
+        for (Type argument : type.getTypeArguments()) {
+            if (!argument.getAnnotationMirrors().isEmpty() || hasElementRule(argument)) {
+                return true;
+            }
         }
         return false;
     }
 
+    /**
+     * 是否为数组声明处标记的数组规则
+     * @param symbol 数组元素
+     * @param compound 元素类型注解
+     * @return 数组元素上存在同类非空、空间注解返回 true
+     */
+    private static boolean isArrayRule(Symbol symbol, Attribute.TypeCompound compound) {
+        String name = compound.getAnnotationType().toString();
+        RuleDescriptor descriptor = RuleDescriptor.of(symbol);
+        if (name.equals(NotNull.class.getName())) {
+            return descriptor.isNotNull();
+        }
+        if (name.equals(Nullable.class.getName())) {
+            return descriptor.isNullable();
+        }
+        if (name.equals(Size.class.getName())) {
+            return descriptor.hasSize();
+        }
+        return false;
+    }
+
+    /**
+     * 获取元素变量类型名，泛型变量使用擦除后的类型，数组类型以 [] 结尾
+     * @param type 元素类型
+     * @return 类型名
+     */
+    private String getElementTypeName(Type type) {
+        Type erasure = syntaxTreeMaker.getTypes().erasure(type);
+        if (erasure.getKind() == TypeKind.ARRAY) {
+            return getElementTypeName(((Type.ArrayType) erasure).elemtype) + "[]";
+        }
+        return erasure.tsym.toString();
+    }
+
+    /**
+     * 获取类型
+     * @param className 类型名称
+     * @return 类型
+     */
+    byte getClassType(String className) {
+        return classTypeSupport.getClassType(className);
+    }
+
     /**
      * 是否是目标类或子类或实现类
      * @param className 类型名称
@@ -174,28 +451,7 @@ abstract class BaseTranslator extends TreeTranslator {
         if (null == typeElement) {
             return false;
         }
-        if (isInstanceOf(classSymbol, typeElement)) {
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * 判断类型是否为集合
-     * @param typeSymbol 类型元素
-     * @return 是否属于 Collection 或 Map
-     */
-    private boolean isCollection(Symbol typeSymbol) {
-        return isInstanceOf(typeSymbol, syntaxTreeMaker.collectionSymbol) || isInstanceOf(typeSymbol, syntaxTreeMaker.mapSymbol);
-    }
-
-    /**
-     * 判断类型是否为字符序列
-     * @param typeSymbol 类型元素
-     * @return 是否属于 CharSequence
-     */
-    private boolean isString(Symbol typeSymbol) {
-        return isInstanceOf(typeSymbol, syntaxTreeMaker.stringSymbol);
+        return isInstanceOf(classSymbol, typeElement);
     }
 
     /**
@@ -233,92 +489,4 @@ abstract class BaseTranslator extends TreeTranslator {
                 body, methodDecl.defaultValue);
     }
 
-    /**
-     * 参数转换
-     * @param classSymbol 解析类节点
-     * @param isConstruct 解析构造方法还是静态方法
-     * @param values 参数数据
-     * @return 返回对应参数元素
-     */
-    List<JCTree.JCExpression> getParamType(Symbol.ClassSymbol classSymbol, boolean isConstruct, String[] values) {
-        int length = values.length;
-
-        List<JCTree.JCExpression> param = null;
-
-        boolean findParam;
-        for (Symbol element : classSymbol.getEnclosedElements()) {
-
-            // 构造方法
-            if (isConstruct) {
-                if (!element.isConstructor()) {
-                    continue;
-                }
-            } else {
-                // 静态方法
-                if (element.getKind() != ElementKind.METHOD) {
-                    continue;
-                }
-                if (!element.isStatic()) {
-                    continue;
-                }
-            }
-
-            Symbol.MethodSymbol methodSymbol = (Symbol.MethodSymbol) element;
-            List<Symbol.VarSymbol> parameters = methodSymbol.getParameters();
-
-            // 参数个数一致
-            if (parameters.size() != values.length) {
-                continue;
-            }
-
-            findParam = true;
-            for (int i = 0; findParam && i < length; i++) {
-                Symbol.VarSymbol varSymbol = parameters.get(i);
-                String value = values[i];
-
-                String typeName = TreeUtil.getOriginalTypeName(varSymbol);
-                TypeTag baseType = TypeUtil.getBaseType(typeName);
-
-                JCTree.JCExpression argsVal;
-
-                if (CheckUtil.isNull(value)) {
-                    // 原生类型无法返回 null
-                    if (TypeUtil.isPrimitive(typeName)) {
-                        param = null;
-                        findParam = false;
-                        continue;
-                    }
-                    argsVal = syntaxTreeMaker.nullNode;
-                } else {
-                    // 不支持复杂对象
-                    if (null == baseType) {
-                        param = null;
-                        findParam = false;
-                        continue;
-                    }
-
-                    Object data = TreeUtil.getValue(baseType, value);
-                    // 数据与类型不匹配
-                    if (null == data) {
-                        param = null;
-                        findParam = false;
-                        continue;
-                    }
-                    argsVal = syntaxTreeMaker.newElement(baseType, data);
-                }
-
-                if (null == param) {
-                    param = List.of(argsVal);
-                } else {
-                    param = param.append(argsVal);
-                }
-            }
-
-            if (param != null) {
-                return param;
-            }
-        }
-
-        return null;
-    }
 }
@@ -0,0 +1,519 @@
+package io.moyada.medivh.visitor;
+
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * 字节码长度估算扫描器
+ * 处理器运行时方法体尚未标注类型，按语法结构估算生成的字节码长度，结果仅用于比较增长
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ByteCodeScanner extends TreeScanner {
+
+    // 条件跳转指令长度
+    private static final int BRANCH = 3;
+
+    // 方法调用指令长度
+    private static final int INVOKE = 3;
+
+    // 字段访问、类型检查指令长度
+    private static final int REFERENCE = 3;
+
+    // 估算长度
+    private int size;
+
+    private ByteCodeScanner() {
+    }
+
+    /**
+     * 估算语法树字节码长度
+     * @param tree 语法树
+     * @return 字节数
+     */
+    public static int estimate(JCTree tree) {
+        ByteCodeScanner scanner = new ByteCodeScanner();
+        scanner.scan(tree);
+        return scanner.size;
+    }
+
+    @Override
+    public void visitClassDef(JCTree.JCClassDecl jcClassDecl) {
+        // 局部类单独编译
+    }
+
+    @Override
+    public void visitMethodDef(JCTree.JCMethodDecl jcMethodDecl) {
+        scan(jcMethodDecl.body);
+    }
+
+    @Override
+    public void visitVarDef(JCTree.JCVariableDecl jcVariableDecl) {
+        if (null == jcVariableDecl.init) {
+            return;
+        }
+        scan(jcVariableDecl.init);
+        size += 1;
+    }
+
+    @Override
+    public void visitIf(JCTree.JCIf jcIf) {
+        scanCondition(jcIf.cond);
+        scan(jcIf.thenpart);
+        if (null != jcIf.elsepart) {
+            size += BRANCH;
+            scan(jcIf.elsepart);
+        }
+    }
+
+    @Override
+    public void visitForLoop(JCTree.JCForLoop jcForLoop) {
+        scan(jcForLoop.init);
+        if (null != jcForLoop.cond) {
+            scanCondition(jcForLoop.cond);
+        }
+        scan(jcForLoop.step);
+        scan(jcForLoop.body);
+        size += BRANCH;
+    }
+
+    @Override
+    public void visitForeachLoop(JCTree.JCEnhancedForLoop jcEnhancedForLoop) {
+        scan(jcEnhancedForLoop.expr);
+        scan(jcEnhancedForLoop.body);
+        // 迭代器获取、hasNext、next 及类型转换
+        size += 4 * INVOKE + BRANCH * 2 + 4;
+    }
+
+    @Override
+    public void visitWhileLoop(JCTree.JCWhileLoop jcWhileLoop) {
+        scanCondition(jcWhileLoop.cond);
+        scan(jcWhileLoop.body);
+        size += BRANCH;
+    }
+
+    @Override
+    public void visitDoLoop(JCTree.JCDoWhileLoop jcDoWhileLoop) {
+        scan(jcDoWhileLoop.body);
+        scanCondition(jcDoWhileLoop.cond);
+    }
+
+    @Override
+    public void visitSwitch(JCTree.JCSwitch jcSwitch) {
+        scan(jcSwitch.selector);
+        // 跳转表
+        size += 16 + 8 * jcSwitch.cases.size();
+        for (JCTree.JCCase jcCase : jcSwitch.cases) {
+            scan(jcCase.stats);
+        }
+    }
+
+    @Override
+    public void visitBreak(JCTree.JCBreak jcBreak) {
+        size += BRANCH;
+    }
+
+    @Override
+    public void visitContinue(JCTree.JCContinue jcContinue) {
+        size += BRANCH;
+    }
+
+    @Override
+    public void visitReturn(JCTree.JCReturn jcReturn) {
+        scan(jcReturn.expr);
+        size += 1;
+    }
+
+    @Override
+    public void visitThrow(JCTree.JCThrow jcThrow) {
+        scan(jcThrow.expr);
+        size += 1;
+    }
+
+    @Override
+    public void visitTry(JCTree.JCTry jcTry) {
+        super.visitTry(jcTry);
+        size += BRANCH * (1 + jcTry.catchers.size());
+    }
+
+    @Override
+    public void visitCatch(JCTree.JCCatch jcCatch) {
+        // 异常存储
+        size += 1;
+        scan(jcCatch.body);
+    }
+
+    @Override
+    public void visitSynchronized(JCTree.JCSynchronized jcSynchronized) {
+        scan(jcSynchronized.lock);
+        scan(jcSynchronized.body);
+        // monitorenter、monitorexit 及异常路径
+        size += 12;
+    }
+
+    @Override
+    public void visitApply(JCTree.JCMethodInvocation jcMethodInvocation) {
+        JCTree.JCExpression method = jcMethodInvocation.meth;
+        if (method instanceof JCTree.JCFieldAccess) {
+            JCTree.JCExpression selected = ((JCTree.JCFieldAccess) method).selected;
+            if (!isTypeName(selected)) {
+                scan(selected);
+            }
+        }
+        scan(jcMethodInvocation.args);
+        size += INVOKE;
+    }
+
+    @Override
+    public void visitNewClass(JCTree.JCNewClass jcNewClass) {
+        scan(jcNewClass.encl);
+        scan(jcNewClass.args);
+        // new、dup、invokespecial
+        size += REFERENCE + 1 + INVOKE;
+    }
+
+    @Override
+    public void visitNewArray(JCTree.JCNewArray jcNewArray) {
+        scan(jcNewArray.dims);
+        if (null == jcNewArray.elems) {
+            size += REFERENCE;
+            return;
+        }
+        // 长度、newarray
+        size += 2 + REFERENCE;
+        for (JCTree.JCExpression elem : jcNewArray.elems) {
+            scan(elem);
+            // dup、下标、存储
+            size += 4;
+        }
+    }
+
+    @Override
+    public void visitParens(JCTree.JCParens jcParens) {
+        scan(jcParens.expr);
+    }
+
+    @Override
+    public void visitAssign(JCTree.JCAssign jcAssign) {
+        scanStore(jcAssign.lhs);
+        scan(jcAssign.rhs);
+    }
+
+    @Override
+    public void visitAssignop(JCTree.JCAssignOp jcAssignOp) {
+        scan(jcAssignOp.lhs);
+        scanStore(jcAssignOp.lhs);
+        scan(jcAssignOp.rhs);
+        size += 1;
+    }
+
+    @Override
+    public void visitUnary(JCTree.JCUnary jcUnary) {
+        Tree.Kind kind = jcUnary.getKind();
+        switch (kind) {
+            case PREFIX_INCREMENT:
+            case PREFIX_DECREMENT:
+            case POSTFIX_INCREMENT:
+            case POSTFIX_DECREMENT:
+                // iinc
+                size += 3;
+                return;
+            case LOGICAL_COMPLEMENT:
+                scanValueCondition(jcUnary);
+                return;
+            default:
+                scan(jcUnary.arg);
+                size += 1;
+        }
+    }
+
+    @Override
+    public void visitBinary(JCTree.JCBinary jcBinary) {
+        Tree.Kind kind = jcBinary.getKind();
+        if (isCondition(kind)) {
+            scanValueCondition(jcBinary);
+            return;
+        }
+        if (kind == Tree.Kind.PLUS && isConcat(jcBinary)) {
+            int count = scanConcat(jcBinary);
+            // new、dup、invokespecial、append、toString
+            size += REFERENCE + 1 + INVOKE + count * INVOKE + INVOKE;
+            return;
+        }
+        scan(jcBinary.lhs);
+        scan(jcBinary.rhs);
+        size += 1;
+    }
+
+    @Override
+    public void visitConditional(JCTree.JCConditional jcConditional) {
+        scanCondition(jcConditional.cond);
+        scan(jcConditional.truepart);
+        scan(jcConditional.falsepart);
+        size += BRANCH;
+    }
+
+    @Override
+    public void visitTypeCast(JCTree.JCTypeCast jcTypeCast) {
+        scan(jcTypeCast.expr);
+        size += jcTypeCast.clazz instanceof JCTree.JCPrimitiveTypeTree ? 1 : REFERENCE;
+    }
+
+    @Override
+    public void visitTypeTest(JCTree.JCInstanceOf jcInstanceOf) {
+        scan(jcInstanceOf.expr);
+        size += REFERENCE;
+    }
+
+    @Override
+    public void visitIndexed(JCTree.JCArrayAccess jcArrayAccess) {
+        scan(jcArrayAccess.indexed);
+        scan(jcArrayAccess.index);
+        size += 1;
+    }
+
+    @Override
+    public void visitSelect(JCTree.JCFieldAccess jcFieldAccess) {
+        String name = jcFieldAccess.name.toString();
+        if (name.equals("class")) {
+            size += 2;
+            return;
+        }
+        if (isTypeName(jcFieldAccess.selected)) {
+            // getstatic
+            size += REFERENCE;
+            return;
+        }
+        scan(jcFieldAccess.selected);
+        // arraylength 或 getfield
+        size += name.equals("length") ? 1 : REFERENCE;
+    }
+
+    @Override
+    public void visitIdent(JCTree.JCIdent jcIdent) {
+        size += 1;
+    }
+
+    @Override
+    public void visitLiteral(JCTree.JCLiteral jcLiteral) {
+        size += getLiteralSize(jcLiteral);
+    }
+
+    @Override
+    public void visitAnnotation(JCTree.JCAnnotation jcAnnotation) {
+    }
+
+    /**
+     * 估算作为跳转条件的表达式
+     * @param cond 条件表达式
+     */
+    private void scanCondition(JCTree.JCExpression cond) {
+        while (cond instanceof JCTree.JCParens) {
+            cond = ((JCTree.JCParens) cond).expr;
+        }
+
+        if (cond instanceof JCTree.JCLiteral) {
+            scan(cond);
+            size += BRANCH;
+            return;
+        }
+
+        Tree.Kind kind = cond.getKind();
+        if (kind == Tree.Kind.LOGICAL_COMPLEMENT) {
+            scanCondition(((JCTree.JCUnary) cond).arg);
+            return;
+        }
+        if (kind == Tree.Kind.CONDITIONAL_AND || kind == Tree.Kind.CONDITIONAL_OR) {
+            JCTree.JCBinary binary = (JCTree.JCBinary) cond;
+            scanCondition(binary.lhs);
+            scanCondition(binary.rhs);
+            return;
+        }
+        if (isCompare(kind)) {
+            JCTree.JCBinary binary = (JCTree.JCBinary) cond;
+            // 与 0 或 null 比较使用单操作数跳转
+            if (!isZeroOrNull(binary.lhs)) {
+                scan(binary.lhs);
+            }
+            if (!isZeroOrNull(binary.rhs)) {
+                scan(binary.rhs);
+            }
+            // 长整型与浮点数比较
+            if (isWideLiteral(binary.lhs) || isWideLiteral(binary.rhs)) {
+                size += 1;
+            }
+            size += BRANCH;
+            return;
+        }
+
+        scan(cond);
+        size += BRANCH;
+    }
+
+    /**
+     * 估算作为值的条件表达式，需要额外的常量加载与跳转
+     * @param cond 条件表达式
+     */
+    private void scanValueCondition(JCTree.JCExpression cond) {
+        scanCondition(cond);
+        // iconst、goto、iconst
+        size += 1 + BRANCH + 1;
+    }
+
+    /**
+     * 估算存储目标
+     * @param lhs 被赋值元素
+     */
+    private void scanStore(JCTree.JCExpression lhs) {
+        if (lhs instanceof JCTree.JCFieldAccess) {
+            JCTree.JCExpression selected = ((JCTree.JCFieldAccess) lhs).selected;
+            if (!isTypeName(selected)) {
+                scan(selected);
+            }
+            size += REFERENCE;
+        } else if (lhs instanceof JCTree.JCArrayAccess) {
+            JCTree.JCArrayAccess arrayAccess = (JCTree.JCArrayAccess) lhs;
+            scan(arrayAccess.indexed);
+            scan(arrayAccess.index);
+            size += 1;
+        } else {
+            size += 1;
+        }
+    }
+
+    /**
+     * 估算字符串拼接
+     * @param expr 拼接表达式
+     * @return 拼接元素个数
+     */
+    private int scanConcat(JCTree.JCExpression expr) {
+        if (isConcatElement(expr) && !(expr instanceof JCTree.JCLiteral)) {
+            JCTree.JCBinary binary = (JCTree.JCBinary) expr;
+            return scanConcat(binary.lhs) + scanConcat(binary.rhs);
+        }
+        scan(expr);
+        return 1;
+    }
+
+    /**
+     * 是否为字符串拼接
+     * @param binary 二元表达式
+     * @return 任一端为字符串常量或拼接时返回 true
+     */
+    private static boolean isConcat(JCTree.JCBinary binary) {
+        return isConcatElement(binary.lhs) || isConcatElement(binary.rhs);
+    }
+
+    private static boolean isConcatElement(JCTree.JCExpression expr) {
+        if (expr instanceof JCTree.JCLiteral) {
+            return ((JCTree.JCLiteral) expr).getValue() instanceof String;
+        }
+        return expr.getKind() == Tree.Kind.PLUS && isConcat((JCTree.JCBinary) expr);
+    }
+
+    /**
+     * 是否为类名或包名
+     * @param expr 表达式
+     * @return 大写开头的标识符或其限定名返回 true
+     */
+    private static boolean isTypeName(JCTree.JCExpression expr) {
+        if (expr instanceof JCTree.JCIdent) {
+            return Character.isUpperCase(((JCTree.JCIdent) expr).name.toString().charAt(0));
+        }
+        if (expr instanceof JCTree.JCFieldAccess) {
+            JCTree.JCFieldAccess fieldAccess = (JCTree.JCFieldAccess) expr;
+            return Character.isUpperCase(fieldAccess.name.toString().charAt(0)) && isQualifiedName(fieldAccess.selected);
+        }
+        return false;
+    }
+
+    private static boolean isQualifiedName(JCTree.JCExpression expr) {
+        if (expr instanceof JCTree.JCIdent) {
+            return true;
+        }
+        return expr instanceof JCTree.JCFieldAccess && isQualifiedName(((JCTree.JCFieldAccess) expr).selected);
+    }
+
+    private static boolean isCondition(Tree.Kind kind) {
+        return isCompare(kind) || kind == Tree.Kind.CONDITIONAL_AND || kind == Tree.Kind.CONDITIONAL_OR;
+    }
+
+    private static boolean isCompare(Tree.Kind kind) {
+        switch (kind) {
+            case EQUAL_TO:
+            case NOT_EQUAL_TO:
+            case LESS_THAN:
+            case LESS_THAN_EQUAL:
+            case GREATER_THAN:
+            case GREATER_THAN_EQUAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isZeroOrNull(JCTree.JCExpression expr) {
+        if (!(expr instanceof JCTree.JCLiteral)) {
+            return false;
+        }
+        Object value = ((JCTree.JCLiteral) expr).getValue();
+        if (null == value) {
+            return true;
+        }
+        return isIntValue(value) && ((Number) value).intValue() == 0;
+    }
+
+    private static boolean isWideLiteral(JCTree.JCExpression expr) {
+        if (!(expr instanceof JCTree.JCLiteral)) {
+            return false;
+        }
+        Object value = ((JCTree.JCLiteral) expr).getValue();
+        return value instanceof Long || value instanceof Float || value instanceof Double;
+    }
+
+    private static boolean isIntValue(Object value) {
+        return value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * 获取常量加载指令长度
+     * @param literal 常量
+     * @return 字节数
+     */
+    private static int getLiteralSize(JCTree.JCLiteral literal) {
+        // 字节、短整型常量不支持 getKind，按值类型判断
+        Object value = literal.getValue();
+        if (null == value || value instanceof Boolean) {
+            // aconst_null、iconst
+            return 1;
+        }
+        if (value instanceof String) {
+            // ldc
+            return 2;
+        }
+        if (value instanceof Character || isIntValue(value)) {
+            int i = value instanceof Character ? (Character) value : ((Number) value).intValue();
+            if (i >= -1 && i <= 5) {
+                // iconst
+                return 1;
+            }
+            if (i >= Byte.MIN_VALUE && i <= Byte.MAX_VALUE) {
+                // bipush
+                return 2;
+            }
+            // sipush 或 ldc
+            return i >= Short.MIN_VALUE && i <= Short.MAX_VALUE ? 3 : 2;
+        }
+        if (value instanceof Long) {
+            long l = (Long) value;
+            return l == 0L || l == 1L ? 1 : 3;
+        }
+        if (value instanceof Float) {
+            float f = (Float) value;
+            return f == 0F || f == 1F || f == 2F ? 1 : 2;
+        }
+        double d = ((Number) value).doubleValue();
+        return d == 0D || d == 1D ? 1 : 3;
+    }
+}
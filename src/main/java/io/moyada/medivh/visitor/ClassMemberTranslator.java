@@ -0,0 +1,63 @@
+package io.moyada.medivh.visitor;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.ListBuffer;
+import io.moyada.medivh.support.ClassMemberSupport;
+import io.moyada.medivh.support.SyntaxTreeMaker;
+import io.moyada.medivh.util.TreeUtil;
+
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 类成员生成器
+ * 将校验逻辑依赖的方法、属性追加到类中
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ClassMemberTranslator extends BaseTranslator {
+
+    // 新增成员
+    private final ClassMemberSupport classMemberSupport;
+
+    // 已追加成员的类，访问外部类时会同时处理嵌套类
+    private final Set<Symbol> appended = new HashSet<Symbol>();
+
+    public ClassMemberTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager, ClassMemberSupport classMemberSupport) {
+        super(syntaxTreeMaker, messager);
+        this.classMemberSupport = classMemberSupport;
+    }
+
+    @Override
+    public void visitClassDef(JCTree.JCClassDecl jcClassDecl) {
+        super.visitClassDef(jcClassDecl);
+
+        List<JCTree> members = classMemberSupport.getMembers(jcClassDecl.sym);
+        if (members.isEmpty() || !appended.add(jcClassDecl.sym)) {
+            return;
+        }
+
+        PosScanner posScanner = new PosScanner(jcClassDecl);
+        ListBuffer<JCTree> fields = new ListBuffer<JCTree>();
+        ListBuffer<JCTree> methods = new ListBuffer<JCTree>();
+        for (JCTree member : members) {
+            if (member instanceof JCTree.JCMethodDecl) {
+                TreeUtil.visit(((JCTree.JCMethodDecl) member).params, posScanner);
+                methods.append(member);
+            } else {
+                member.accept(posScanner);
+                fields.append(member);
+            }
+        }
+
+        // 属性置于类定义前，保证先于原有静态初始化执行
+        jcClassDecl.defs = jcClassDecl.defs.prependList(fields.toList()).appendList(methods.toList());
+        this.result = jcClassDecl;
+
+        messager.printMessage(Diagnostic.Kind.NOTE, "processing  =====>  Append " + members.size() + " member(s) in " + jcClassDecl.sym);
+    }
+}
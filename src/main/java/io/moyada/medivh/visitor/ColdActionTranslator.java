@@ -0,0 +1,214 @@
+package io.moyada.medivh.visitor;
+
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
+import io.moyada.medivh.support.ClassMemberSupport;
+import io.moyada.medivh.support.RejectionSupport;
+import io.moyada.medivh.support.SyntaxTreeMaker;
+import io.moyada.medivh.support.TypeTag;
+import io.moyada.medivh.util.TreeUtil;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.type.TypeKind;
+
+/**
+ * 失败动作外提生成器
+ * 将校验失败时的异常构造、返回对象语句移至类中的私有方法，校验方法内只保留判断与方法调用
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+class ColdActionTranslator extends BaseTranslator {
+
+    // 外提方法名前缀
+    private static final String METHOD_PREFIX = "fail$";
+
+    // 外提方法参数名
+    private static final String PARAM_NAME = "message";
+
+    // 新增成员
+    private final ClassMemberSupport classMemberSupport;
+
+    // 所属类
+    private final Symbol.ClassSymbol classSymbol;
+
+    // 外提方法修饰
+    private final long flags;
+
+    // 外提方法返回类型，无法外提返回语句时为 null
+    private final Type returnType;
+
+    ColdActionTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager,
+                         ClassMemberSupport classMemberSupport, Symbol.MethodSymbol methodSymbol) {
+        super(syntaxTreeMaker, messager);
+        this.classMemberSupport = classMemberSupport;
+        this.classSymbol = methodSymbol.enclClass();
+        // 内部类无法定义静态方法
+        this.flags = classSymbol.isInner() ? Flags.PRIVATE : Flags.PRIVATE | Flags.STATIC;
+
+        Type type = methodSymbol.getReturnType();
+        this.returnType = null == type || hasTypeVariable(type) ? null : type;
+    }
+
+    @Override
+    public void visitIf(JCTree.JCIf jcIf) {
+        super.visitIf(jcIf);
+        jcIf.thenpart = outline(jcIf.thenpart);
+        // 合并范围判断在失败后区分小于或大于，else 分支同为失败动作，else if 已在访问子节点时处理
+        if (null != jcIf.elsepart) {
+            jcIf.elsepart = outline(jcIf.elsepart);
+        }
+        this.result = jcIf;
+    }
+
+    /**
+     * 外提失败动作
+     * @param statement 条件分支语句
+     * @return 外提后的调用语句，非失败动作则原样返回
+     */
+    private JCTree.JCStatement outline(JCTree.JCStatement statement) {
+        // 拒绝计数保留在校验方法中，只外提其后的失败动作
+        if (statement instanceof JCTree.JCBlock) {
+            JCTree.JCBlock block = (JCTree.JCBlock) statement;
+            if (block.stats.size() == 2 && RejectionSupport.isReject(block.stats.head)) {
+                block.stats = List.of(block.stats.head, outline(block.stats.last()));
+            }
+            return block;
+        }
+
+        if (statement instanceof JCTree.JCThrow) {
+            JCTree.JCExpression expr = ((JCTree.JCThrow) statement).expr;
+            if (expr instanceof JCTree.JCNewClass && isOutlineArgs(((JCTree.JCNewClass) expr).args)) {
+                return outlineThrow((JCTree.JCNewClass) expr);
+            }
+            return statement;
+        }
+
+        if (statement instanceof JCTree.JCReturn) {
+            JCTree.JCExpression expr = ((JCTree.JCReturn) statement).expr;
+            // 常量返回无需外提
+            if (null == returnType || null == expr || expr instanceof JCTree.JCLiteral) {
+                return statement;
+            }
+            return outlineReturn(expr);
+        }
+        return statement;
+    }
+
+    /**
+     * 是否为可外提的异常构造参数
+     * @param args 构造参数
+     * @return 单个信息参数，或常量信息头与延迟拼接的信息尾返回 true
+     */
+    private static boolean isOutlineArgs(List<JCTree.JCExpression> args) {
+        int size = args.size();
+        if (size == 1) {
+            return true;
+        }
+        return size == 2 && args.head instanceof JCTree.JCLiteral;
+    }
+
+    /**
+     * 外提异常语句，信息头作为外提方法的一部分，相同异常与信息头的校验共用同一方法
+     * @param newClass 异常构造语句
+     * @return 方法调用语句
+     */
+    private JCTree.JCStatement outlineThrow(JCTree.JCNewClass newClass) {
+        String exceptionName = newClass.clazz.toString();
+
+        // 信息头与信息尾分别传入构造方法
+        boolean lazy = newClass.args.size() == 2;
+
+        JCTree.JCExpression message;
+        String prefix = null;
+        if (lazy) {
+            prefix = String.valueOf(((JCTree.JCLiteral) newClass.args.head).getValue());
+            message = newClass.args.tail.head;
+        } else {
+            message = newClass.args.head;
+            if (message instanceof JCTree.JCBinary && message.getKind() == Tree.Kind.PLUS) {
+                JCTree.JCBinary binary = (JCTree.JCBinary) message;
+                if (binary.lhs instanceof JCTree.JCLiteral) {
+                    prefix = String.valueOf(((JCTree.JCLiteral) binary.lhs).getValue());
+                    message = binary.rhs;
+                }
+            }
+        }
+
+        String key = "throw " + exceptionName + (null == prefix ? "" : " " + prefix);
+        String methodName = classMemberSupport.getMemberName(classSymbol, key);
+        if (null == methodName) {
+            methodName = classMemberSupport.nextMemberName(classSymbol, METHOD_PREFIX);
+
+            JCTree.JCVariableDecl param = syntaxTreeMaker.newVar(PARAM_NAME, Flags.PARAMETER, String.class.getName(), null);
+            JCTree.JCExpression info = treeMaker.Ident(param.name);
+            JCTree.JCStatement body;
+            if (lazy) {
+                JCTree.JCExpression head = syntaxTreeMaker.newElement(TypeTag.CLASS, prefix);
+                body = syntaxTreeMaker.newThrow(syntaxTreeMaker.NewClass(exceptionName, List.of(head, info)));
+            } else {
+                if (null != prefix) {
+                    info = syntaxTreeMaker.concatStatement(prefix, info);
+                }
+                body = syntaxTreeMaker.newMsgThrow(exceptionName, info);
+            }
+
+            JCTree.JCMethodDecl method = treeMaker.MethodDef(treeMaker.Modifiers(flags),
+                    syntaxTreeMaker.getName(methodName),
+                    syntaxTreeMaker.getPrimitiveType(TypeTag.VOID),
+                    List.<JCTree.JCTypeParameter>nil(), List.of(param), TreeUtil.emptyExpression(),
+                    treeMaker.Block(0, List.of(body)), null);
+            classMemberSupport.addMember(classSymbol, key, methodName, method);
+        }
+
+        return treeMaker.Exec(treeMaker.Apply(TreeUtil.emptyExpression(),
+                treeMaker.Ident(syntaxTreeMaker.getName(methodName)), List.of(message)));
+    }
+
+    /**
+     * 外提返回语句，相同返回对象的校验共用同一方法
+     * @param expr 返回对象
+     * @return 返回方法调用语句
+     */
+    private JCTree.JCStatement outlineReturn(JCTree.JCExpression expr) {
+        String key = "return " + expr.toString();
+        String methodName = classMemberSupport.getMemberName(classSymbol, key);
+        if (null == methodName) {
+            methodName = classMemberSupport.nextMemberName(classSymbol, METHOD_PREFIX);
+
+            JCTree.JCStatement body = treeMaker.Return(expr);
+            JCTree.JCMethodDecl method = treeMaker.MethodDef(treeMaker.Modifiers(flags),
+                    syntaxTreeMaker.getName(methodName),
+                    treeMaker.Type(returnType),
+                    List.<JCTree.JCTypeParameter>nil(), List.<JCTree.JCVariableDecl>nil(), TreeUtil.emptyExpression(),
+                    treeMaker.Block(0, List.of(body)), null);
+            classMemberSupport.addMember(classSymbol, key, methodName, method);
+        }
+
+        return treeMaker.Return(treeMaker.Apply(TreeUtil.emptyExpression(),
+                treeMaker.Ident(syntaxTreeMaker.getName(methodName)), TreeUtil.emptyExpression()));
+    }
+
+    /**
+     * 是否包含泛型变量，外提方法无法声明方法或类的泛型
+     * @param type 类型
+     * @return 包含则返回 true
+     */
+    private static boolean hasTypeVariable(Type type) {
+        if (type.getKind() == TypeKind.TYPEVAR) {
+            return true;
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return hasTypeVariable(((Type.ArrayType) type).elemtype);
+        }
+        for (Type arg : type.getTypeArguments()) {
+            if (hasTypeVariable(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
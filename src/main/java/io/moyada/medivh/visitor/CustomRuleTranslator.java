@@ -4,22 +4,30 @@ import com.sun.source.tree.Tree;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.tree.JCTree;
-import com.sun.tools.javac.util.List;
-import com.sun.tools.javac.util.ListBuffer;
-import com.sun.tools.javac.util.Name;
-import io.moyada.medivh.regulation.LocalVariableRegulation;
+import io.moyada.medivh.regulation.BaseRegulation;
+import io.moyada.medivh.regulation.ElementRegulation;
 import io.moyada.medivh.regulation.NotNullWrapperRegulation;
 import io.moyada.medivh.regulation.NullCheckRegulation;
 import io.moyada.medivh.regulation.Regulation;
+import io.moyada.medivh.regulation.RegulationOptimizer;
+import io.moyada.medivh.support.ActionData;
+import io.moyada.medivh.support.ClassMemberSupport;
+import io.moyada.medivh.support.ClassTypeSupport;
+import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.ProcessorProfile;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.support.RegulationBuilder;
 import io.moyada.medivh.support.RegulationExecutor;
+import io.moyada.medivh.support.ValidationPlan;
 import io.moyada.medivh.util.TreeUtil;
 import io.moyada.medivh.util.CheckUtil;
 
 import javax.annotation.processing.Messager;
 import javax.lang.model.element.Element;
 import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,11 +39,28 @@ import java.util.Map;
  **/
 public class CustomRuleTranslator extends BaseTranslator {
 
+    // 元素校验开销由低到高
+    private static final Comparator<ValidationPlan.Item> COST_ORDER = new Comparator<ValidationPlan.Item>() {
+        @Override
+        public int compare(ValidationPlan.Item o1, ValidationPlan.Item o2) {
+            return o1.getCost() - o2.getCost();
+        }
+    };
+
     private Map<String, java.util.List<String>> ruleItems;
 
-    public CustomRuleTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager,
+    // 阶段统计
+    private final ProcessorProfile profile;
+
+    // 校验语句生成器
+    private final ValidationEmitter emitter;
+
+    public CustomRuleTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager, ClassTypeSupport classTypeSupport,
+                                ClassMemberSupport classMemberSupport, ProcessorProfile profile,
                                 Map<? extends Element, java.util.List<String>> classRules) {
-        super(syntaxTreeMaker, messager);
+        super(syntaxTreeMaker, messager, classTypeSupport);
+        this.profile = profile;
+        this.emitter = new ValidationEmitter(syntaxTreeMaker, messager, profile, classMemberSupport, null);
 
         ruleItems = new HashMap<String, java.util.List<String>>(classRules.size());
         for (Map.Entry<? extends Element, java.util.List<String>> classRule : classRules.entrySet()) {
@@ -67,56 +92,107 @@ public class CustomRuleTranslator extends BaseTranslator {
             return;
         }
 
-        // 解析所有参数规则
-        Map<JCTree.JCExpression, java.util.List<Regulation>> rules = new HashMap<JCTree.JCExpression, java.util.List<Regulation>>();
-        for (JCTree var : jcClassDecl.defs) {
-            joinVarRules(items, rules, var);
-        }
-        if (rules.isEmpty()) {
+        ValidationPlan plan = buildPlan(jcClassDecl, items);
+        if (null == plan) {
             return;
         }
+        profile.addRules(plan);
 
         // 创建校验方法
-        String methodName = CheckUtil.getTmpMethod(classSymbol);
-        JCTree.JCBlock body = createBody(rules);
-        JCTree.JCMethodDecl method = createMethod(methodName, body, isInterface);
+        String methodName = plan.getVariable();
+        emitter.emitRules(plan, jcClassDecl, isInterface);
 
         CheckUtil.addCheckMethod(className, methodName);
-
-        // 刷新类信息
-        jcClassDecl.defs = jcClassDecl.defs.append(method);
         this.result = jcClassDecl;
 
         messager.printMessage(Diagnostic.Kind.NOTE, "processing  =====>  Create method \"" + methodName + "\" in " + className);
     }
 
     /**
-     * 加入字段规则
+     * 分析类中规则元素，创建校验计划
+     * @param jcClassDecl 类节点
+     * @param items 规则元素集合
+     * @return 校验计划，无规则返回 null
+     */
+    private ValidationPlan buildPlan(JCTree.JCClassDecl jcClassDecl, java.util.List<String> items) {
+        Symbol.ClassSymbol classSymbol = jcClassDecl.sym;
+
+        // 规则码信息表
+        java.util.List<String> codeTable = null;
+        ActionData actionData = null;
+        if (ElementOptions.current().isRuleCode()) {
+            codeTable = new ArrayList<String>();
+            actionData = new ActionData(BaseRegulation.RETURN_CODE, codeTable);
+        }
+
+        // 解析所有参数规则，按声明顺序保存
+        boolean ordered = CheckUtil.isOrdered(classSymbol);
+        java.util.List<ValidationPlan.Item> rules = new ArrayList<ValidationPlan.Item>();
+        for (JCTree var : jcClassDecl.defs) {
+            ValidationPlan.Item item = getVarItem(items, var, actionData, ordered);
+            if (null != item) {
+                rules.add(item);
+            }
+        }
+        if (rules.isEmpty()) {
+            return null;
+        }
+
+        // 低开销元素优先校验，开销相同保持声明顺序
+        if (!ordered) {
+            Collections.sort(rules, COST_ORDER);
+        }
+        if (null != codeTable) {
+            registerCode(codeTable, rules);
+        }
+        return new ValidationPlan(classSymbol.className(), CheckUtil.getTmpMethod(classSymbol), rules, codeTable);
+    }
+
+    /**
+     * 按校验顺序登记规则码信息，生成语句时只查询规则码
+     * @param codeTable 规则码信息表
+     * @param rules 校验项
+     */
+    private void registerCode(java.util.List<String> codeTable, java.util.List<ValidationPlan.Item> rules) {
+        for (ValidationPlan.Item item : rules) {
+            for (String message : RegulationExecutor.getMessages(item.getRegulations(), item.getName())) {
+                if (!codeTable.contains(message)) {
+                    codeTable.add(message);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取字段或无参方法校验项
      * @param items 规则元素集合
-     * @param rules 规则集合
      * @param var 当前元素节点
+     * @param actionData 规则码处理数据，返回信息时为 null
+     * @param ordered 是否保持规则声明顺序
+     * @return 校验项，非规则元素或无规则返回 null
      */
-    private void joinVarRules(java.util.List<String> items, Map<JCTree.JCExpression, java.util.List<Regulation>> rules, JCTree var) {
+    private ValidationPlan.Item getVarItem(java.util.List<String> items, JCTree var, ActionData actionData, boolean ordered) {
         Tree.Kind kind = var.getKind();
 
         Symbol symbol;
+        byte itemKind;
         String name;
+        String itemName;
         String typeName;
-        JCTree.JCExpression self;
-        JCTree.JCVariableDecl localVar = null;
 
         // 变量
         if (kind == Tree.Kind.VARIABLE) {
             JCTree.JCVariableDecl jcVariableDecl = (JCTree.JCVariableDecl) var;
             // 排除枚举
             if ((jcVariableDecl.mods.flags & Flags.ENUM) != 0) {
-                return;
+                return null;
             }
 
             symbol = jcVariableDecl.sym;
             typeName = TreeUtil.getOriginalTypeName(symbol);
-            self = treeMaker.Ident(jcVariableDecl.name);
-            name = jcVariableDecl.name.toString();
+            itemKind = ValidationPlan.FIELD;
+            itemName = jcVariableDecl.name.toString();
+            name = itemName;
         }
         // 方法
         else if (kind == Tree.Kind.METHOD) {
@@ -124,43 +200,44 @@ public class CustomRuleTranslator extends BaseTranslator {
             typeName = TreeUtil.getReturnTypeName(methodDecl);
             // 过滤无返回值方法或构造方法
             if (null == typeName) {
-                return;
+                return null;
             }
             // 过滤带参方法
             if (!methodDecl.getParameters().isEmpty()) {
-                return;
+                return null;
             }
 
             symbol = methodDecl.sym;
-
-            // 获取方法引用
-            Name methodName = methodDecl.name;
-            JCTree.JCIdent ident = treeMaker.Ident(methodName);
-            self = treeMaker.Apply(TreeUtil.emptyExpression(), ident, TreeUtil.emptyExpression());
-
-            // 使用临时变量保存方法回调数据
-            localVar = treeMaker.VarDef(treeMaker.Modifiers(0L), methodName, methodDecl.restype, self);
-            self = treeMaker.Ident(localVar.name);
-
-            name = methodName.toString() + "()";
+            itemKind = ValidationPlan.METHOD;
+            itemName = methodDecl.name.toString();
+            name = itemName + "()";
         } else {
-            return;
+            return null;
         }
 
         // 非规则元素
         if (!items.contains(name)) {
-            return;
+            return null;
         }
 
         byte classType = getClassType(typeName);
-        java.util.List<Regulation> regulations = RegulationBuilder.findBasicRule(symbol, typeName, classType);
+        checkSizeCost(symbol, classType);
+        java.util.List<Regulation> regulations = RegulationBuilder.findBasicRule(symbol, typeName, classType, actionData);
+
+        // 获取元素类型规则
+        ElementRegulation elementRegulation = buildElementRule(symbol, classType, actionData, ordered);
+        if (null != elementRegulation) {
+            regulations.add(elementRegulation);
+        }
         boolean notEmpty = !regulations.isEmpty();
 
         Boolean checkNull = RegulationBuilder.checkNotNull(symbol, classType, notEmpty);
         // 非原始类型增加空校验/非空包装
         if (null != checkNull) {
             if (checkNull) {
-                regulations.add(new NullCheckRegulation());
+                NullCheckRegulation nullCheckRegulation = new NullCheckRegulation();
+                nullCheckRegulation.setActionData(actionData);
+                regulations.add(nullCheckRegulation);
             } else {
                 // 无规则不使用非空包装
                 if (notEmpty) {
@@ -170,56 +247,19 @@ public class CustomRuleTranslator extends BaseTranslator {
         }
 
         if (regulations.isEmpty()) {
-            return;
+            return null;
         }
 
-        // 方法调用，增加临时变量规则
-        if (localVar != null) {
-            regulations.add(new LocalVariableRegulation(localVar));
+        if (!ordered) {
+            regulations = RegulationOptimizer.order(regulations);
         }
 
-        rules.put(self, regulations);
-    }
-
-    /**
-     * 创建代码块
-     * @param ruleMap 规则集合
-     * @return 代码块
-     */
-    private JCTree.JCBlock createBody(Map<JCTree.JCExpression, java.util.List<Regulation>> ruleMap) {
-        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
-
-
-        for (Map.Entry<JCTree.JCExpression, java.util.List<Regulation>> entry : ruleMap.entrySet()) {
-            JCTree.JCExpression self = entry.getKey();
-            java.util.List<Regulation> regulations = entry.getValue();
-
-            // 当前字段规则链
-            ListBuffer<JCTree.JCStatement> thisStatements = RegulationExecutor
-                    .newExecutor(regulations)
-                    .execute(self, self.toString());
-
-            statements.append(getBlock(thisStatements));
+        // 方法调用使用临时变量保存返回数据
+        int cost = RegulationOptimizer.getCost(regulations);
+        if (itemKind == ValidationPlan.METHOD) {
+            cost += Regulation.COST_CALL;
         }
-
-        // 校验通过返回 null
-        JCTree.JCReturn returnStatement = treeMaker.Return(syntaxTreeMaker.nullNode);
-        statements.append(returnStatement);
-        return getBlock(statements);
+        return new ValidationPlan.Item(itemKind, itemName, regulations, null, null, null, cost);
     }
 
-    /**
-     * 创建校验方法
-     * @param methodName 方法名
-     * @param body 方法体
-     * @param isInterface 是否接口类型
-     * @return 方法元素
-     */
-    private JCTree.JCMethodDecl createMethod(String methodName, JCTree.JCBlock body, boolean isInterface) {
-        return treeMaker.MethodDef(treeMaker.Modifiers(TreeUtil.getNewMethodFlag(isInterface)),
-                syntaxTreeMaker.getName(methodName),
-                syntaxTreeMaker.findClass(String.class.getName()),
-                List.<JCTree.JCTypeParameter>nil(), List.<JCTree.JCVariableDecl>nil(), TreeUtil.emptyExpression(),
-                body, null);
-    }
 }
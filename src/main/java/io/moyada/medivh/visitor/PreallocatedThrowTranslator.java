@@ -0,0 +1,80 @@
+package io.moyada.medivh.visitor;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree;
+import io.moyada.medivh.support.ClassMemberSupport;
+import io.moyada.medivh.support.SyntaxTreeMaker;
+
+import javax.annotation.processing.Messager;
+
+/**
+ * 预创建异常生成器
+ * 将信息为常量的异常构造替换为类中的静态常量，相同异常与信息共用同一实例
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+class PreallocatedThrowTranslator extends BaseTranslator {
+
+    // 预创建异常属性名前缀
+    private static final String FIELD_PREFIX = "medivh$ex";
+
+    // 新增成员
+    private final ClassMemberSupport classMemberSupport;
+
+    // 所属类
+    private final Symbol.ClassSymbol classSymbol;
+
+    PreallocatedThrowTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager,
+                                ClassMemberSupport classMemberSupport, Symbol.ClassSymbol classSymbol) {
+        super(syntaxTreeMaker, messager);
+        this.classMemberSupport = classMemberSupport;
+        this.classSymbol = classSymbol;
+    }
+
+    /**
+     * 是否可以在类中定义静态异常
+     * @param methodSymbol 校验方法
+     * @return 非内部类且非枚举构造方法返回 true
+     */
+    static boolean isSupported(Symbol.MethodSymbol methodSymbol) {
+        Symbol.ClassSymbol classSymbol = methodSymbol.enclClass();
+        // 内部类无法定义静态属性
+        if (classSymbol.isInner()) {
+            return false;
+        }
+        // 枚举构造方法无法引用静态属性
+        return !methodSymbol.isConstructor() || (classSymbol.flags() & Flags.ENUM) == 0;
+    }
+
+    @Override
+    public void visitThrow(JCTree.JCThrow jcThrow) {
+        super.visitThrow(jcThrow);
+        this.result = jcThrow;
+
+        if (!(jcThrow.expr instanceof JCTree.JCNewClass)) {
+            return;
+        }
+        JCTree.JCNewClass newClass = (JCTree.JCNewClass) jcThrow.expr;
+        if (newClass.args.size() != 1 || !(newClass.args.head instanceof JCTree.JCLiteral)) {
+            return;
+        }
+        Object message = ((JCTree.JCLiteral) newClass.args.head).getValue();
+        if (!(message instanceof String)) {
+            return;
+        }
+
+        String exceptionName = newClass.clazz.toString();
+        String key = "exception " + exceptionName + " " + message;
+        String fieldName = classMemberSupport.getMemberName(classSymbol, key);
+        if (null == fieldName) {
+            fieldName = classMemberSupport.nextMemberName(classSymbol, FIELD_PREFIX);
+
+            JCTree.JCVariableDecl field = syntaxTreeMaker.newVar(fieldName, Flags.PRIVATE | Flags.STATIC | Flags.FINAL,
+                    exceptionName, newClass);
+            classMemberSupport.addMember(classSymbol, key, fieldName, field);
+        }
+
+        jcThrow.expr = treeMaker.Ident(syntaxTreeMaker.getName(fieldName));
+    }
+}
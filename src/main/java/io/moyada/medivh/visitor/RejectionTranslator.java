@@ -0,0 +1,83 @@
+package io.moyada.medivh.visitor;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
+import io.moyada.medivh.support.ClassMemberSupport;
+import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.RejectionSupport;
+import io.moyada.medivh.support.SyntaxTreeMaker;
+import io.moyada.medivh.support.TypeTag;
+
+import javax.annotation.processing.Messager;
+
+/**
+ * 拒绝计数生成器
+ * 将按参数与规则计数的调用替换为按类中静态常量编号计数，编号在类初始化时注册，相同方法、参数与规则共用同一编号
+ * 无法定义静态属性时每次失败注册后计数
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+class RejectionTranslator extends BaseTranslator {
+
+    // 计数点编号属性名前缀
+    private static final String FIELD_PREFIX = "medivh$reject";
+
+    // 新增成员
+    private final ClassMemberSupport classMemberSupport;
+
+    // 定义编号的类，为 null 不定义编号
+    private final Symbol.ClassSymbol classSymbol;
+
+    // 校验方法
+    private final String method;
+
+    RejectionTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager,
+                        ClassMemberSupport classMemberSupport, Symbol.ClassSymbol classSymbol, String method) {
+        super(syntaxTreeMaker, messager);
+        this.classMemberSupport = classMemberSupport;
+        this.classSymbol = classSymbol;
+        this.method = method;
+    }
+
+    @Override
+    public void visitApply(JCTree.JCMethodInvocation invocation) {
+        super.visitApply(invocation);
+        this.result = invocation;
+
+        if (!RejectionSupport.isReject(invocation)) {
+            return;
+        }
+
+        JCTree.JCExpression parameter = invocation.args.head;
+        JCTree.JCExpression rule = invocation.args.tail.head;
+        if (null == classSymbol) {
+            invocation.args = List.of(register(parameter, rule));
+            return;
+        }
+
+        String key = "reject " + method + " " + ((JCTree.JCLiteral) parameter).getValue() + " " + ((JCTree.JCLiteral) rule).getValue();
+        String fieldName = classMemberSupport.getMemberName(classSymbol, key);
+        if (null == fieldName) {
+            fieldName = classMemberSupport.nextMemberName(classSymbol, FIELD_PREFIX);
+
+            JCTree.JCVariableDecl field = syntaxTreeMaker.newVar(fieldName, Flags.PRIVATE | Flags.STATIC | Flags.FINAL,
+                    TypeTag.INT, register(parameter, rule));
+            classMemberSupport.addMember(classSymbol, key, fieldName, field);
+        }
+
+        invocation.args = List.<JCTree.JCExpression>of(treeMaker.Ident(syntaxTreeMaker.getName(fieldName)));
+    }
+
+    /**
+     * 创建注册计数点的表达式
+     * @param parameter 参数或字段
+     * @param rule 规则
+     * @return Rejections.register(method, parameter, rule)
+     */
+    private JCTree.JCExpression register(JCTree.JCExpression parameter, JCTree.JCExpression rule) {
+        return syntaxTreeMaker.getMethod(syntaxTreeMaker.findClass(ElementOptions.RUNTIME_REJECTIONS), RejectionSupport.REGISTER_METHOD,
+                List.of(syntaxTreeMaker.newElement(TypeTag.CLASS, method), parameter, rule));
+    }
+}
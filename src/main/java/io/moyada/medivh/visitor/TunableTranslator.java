@@ -0,0 +1,97 @@
+package io.moyada.medivh.visitor;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.List;
+import io.moyada.medivh.support.ClassMemberSupport;
+import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.SyntaxTreeMaker;
+import io.moyada.medivh.support.TunableSupport;
+
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic;
+
+/**
+ * 可调整边界生成器
+ * 将按名称读取边界的调用替换为读取类中静态常量句柄，相同名称与默认值共用同一句柄
+ * 接口、枚举等无法直接定义静态属性时，句柄定义在嵌套的持有类中
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+class TunableTranslator extends BaseTranslator {
+
+    // 边界句柄属性名前缀
+    private static final String FIELD_PREFIX = "medivh$tunable";
+
+    // 新增成员
+    private final ClassMemberSupport classMemberSupport;
+
+    // 定义句柄的类
+    private final Symbol.ClassSymbol classSymbol;
+
+    // 是否定义在持有类中
+    private final boolean holder;
+
+    TunableTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager,
+                      ClassMemberSupport classMemberSupport, Symbol.ClassSymbol classSymbol, boolean holder) {
+        super(syntaxTreeMaker, messager);
+        this.classMemberSupport = classMemberSupport;
+        this.classSymbol = classSymbol;
+        this.holder = holder;
+    }
+
+    @Override
+    public void visitApply(JCTree.JCMethodInvocation invocation) {
+        super.visitApply(invocation);
+        this.result = invocation;
+
+        if (!TunableSupport.isValue(invocation)) {
+            return;
+        }
+        // 可调整边界由 medivh-runtime 提供
+        if (null == syntaxTreeMaker.getTypeElement(ElementOptions.RUNTIME_TUNABLES)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Tunable Error] Can't find " + ElementOptions.RUNTIME_TUNABLES +
+                    ", please add medivh-runtime to the compile classpath to use tunable bound.");
+            return;
+        }
+
+        JCTree.JCExpression name = invocation.args.head;
+        JCTree.JCExpression defaultValue = invocation.args.tail.head;
+        String key = "tunable " + ((JCTree.JCLiteral) name).getValue() + " " + defaultValue;
+        JCTree.JCExpression handle;
+        if (holder) {
+            String fieldName = classMemberSupport.getHolderMemberName(classSymbol, key);
+            if (null == fieldName) {
+                fieldName = classMemberSupport.nextMemberName(classSymbol, FIELD_PREFIX);
+                classMemberSupport.addHolderMember(classSymbol, key, fieldName,
+                        newHandle(fieldName, Flags.STATIC | Flags.FINAL, name, defaultValue));
+            }
+            handle = classMemberSupport.getHolderMember(fieldName);
+        } else {
+            String fieldName = classMemberSupport.getMemberName(classSymbol, key);
+            if (null == fieldName) {
+                fieldName = classMemberSupport.nextMemberName(classSymbol, FIELD_PREFIX);
+                classMemberSupport.addMember(classSymbol, key, fieldName,
+                        newHandle(fieldName, Flags.PRIVATE | Flags.STATIC | Flags.FINAL, name, defaultValue));
+            }
+            handle = treeMaker.Ident(syntaxTreeMaker.getName(fieldName));
+        }
+
+        invocation.args = List.of(handle);
+    }
+
+    /**
+     * 创建边界句柄属性
+     * @param fieldName 属性名
+     * @param flags 属性标记
+     * @param name 边界名称
+     * @param defaultValue 默认值
+     * @return 句柄属性节点
+     */
+    private JCTree.JCVariableDecl newHandle(String fieldName, long flags, JCTree.JCExpression name, JCTree.JCExpression defaultValue) {
+        JCTree.JCExpression register = syntaxTreeMaker.getMethod(syntaxTreeMaker.findClass(ElementOptions.RUNTIME_TUNABLES),
+                TunableSupport.REGISTER_METHOD, List.of(name, defaultValue));
+        return syntaxTreeMaker.newVar(fieldName, flags, TunableSupport.HANDLE_CLASS, register);
+    }
+}
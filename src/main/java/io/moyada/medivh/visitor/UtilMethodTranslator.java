@@ -5,12 +5,17 @@ import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.ProcessorContext;
 import io.moyada.medivh.support.SyntaxTreeMaker;
 import io.moyada.medivh.support.TypeTag;
 import io.moyada.medivh.util.TreeUtil;
 
 import javax.annotation.processing.Messager;
 import javax.tools.Diagnostic;
+import java.nio.CharBuffer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * 工具方法生成器
@@ -19,6 +24,13 @@ import javax.tools.Diagnostic;
  **/
 public class UtilMethodTranslator extends BaseTranslator {
 
+    // 空白字符串方法参数类型，调用时按参数静态类型选择重载，避免 CharSequence.charAt 调用点多态
+    private static final String[] BLANK_TYPES = {CharSequence.class.getName(), String.class.getName(),
+            StringBuilder.class.getName(), CharBuffer.class.getName()};
+
+    // 空白字符位表，第 n 位表示字符 n 是否为 Character.isWhitespace 中的空白字符，64 至 127 无空白字符
+    private static final long WHITESPACE_MASK = 0x1F0003E00L;
+
     // 根类名
     private String className;
 
@@ -41,6 +53,7 @@ public class UtilMethodTranslator extends BaseTranslator {
         posScanner = new PosScanner(jcClassDecl);
 
         makeIsBlankMethod(jcClassDecl, ElementOptions.BLANK_METHOD);
+        makeSizeOfMethod(jcClassDecl, ElementOptions.SIZE_METHOD);
         this.result = jcClassDecl;
     }
 
@@ -50,27 +63,104 @@ public class UtilMethodTranslator extends BaseTranslator {
      * @param methodName 方法名
      */
     private void makeIsBlankMethod(JCTree.JCClassDecl jcClassDecl, String methodName) {
-        JCTree.JCMethodDecl isBlankMethod = createIsBlankMethod(methodName);
-        if (null == isBlankMethod) {
-            return;
+        boolean whitespace = ElementOptions.current().isBlankWhitespace();
+        for (String typeName : BLANK_TYPES) {
+            jcClassDecl.defs = jcClassDecl.defs.append(createIsBlankMethod(methodName, typeName, whitespace));
         }
+        ProcessorContext.current().setUtilClass(className);
+        messager.printMessage(Diagnostic.Kind.NOTE, "Create method \"" + methodName + "\" in " + className);
+    }
 
-        jcClassDecl.defs = jcClassDecl.defs.append(isBlankMethod);
-        ElementOptions.UTIL_CLASS = className;
+    /**
+     * 设置有界集合计数方法，分别接收 Collection 与 Map
+     * @param jcClassDecl 类节点
+     * @param methodName 方法名
+     */
+    private void makeSizeOfMethod(JCTree.JCClassDecl jcClassDecl, String methodName) {
+        JCTree.JCMethodDecl collectionMethod = createCollectionSizeOfMethod(methodName);
+        JCTree.JCMethodDecl mapMethod = createMapSizeOfMethod(methodName);
+
+        jcClassDecl.defs = jcClassDecl.defs.append(collectionMethod).append(mapMethod);
         messager.printMessage(Diagnostic.Kind.NOTE, "Create method \"" + methodName + "\" in " + className);
     }
 
     /**
-     * 创建空包字符串校验方法
+     * 创建集合计数方法，计数至上限为止
+     * @param methodName 方法名
+     * @return 返回新方法
+     */
+    private JCTree.JCMethodDecl createCollectionSizeOfMethod(String methodName) {
+        // define Collection collection, int limit parameter
+        JCTree.JCVariableDecl collectionVar = syntaxTreeMaker.newVar("collection", Flags.PARAMETER, Collection.class.getName(), null);
+        JCTree.JCVariableDecl limitVar = syntaxTreeMaker.newVar("limit", Flags.PARAMETER, TypeTag.INT, null);
+
+        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
+
+        // int count = 0;
+        JCTree.JCVariableDecl countVar = syntaxTreeMaker.newLocalVar("count", TypeTag.INT, syntaxTreeMaker.zeroIntNode);
+        JCTree.JCIdent count = treeMaker.Ident(countVar.name);
+        statements.append(countVar);
+
+        // Iterator iterator = collection.iterator();
+        JCTree.JCMethodInvocation getIterator = syntaxTreeMaker.getMethod(treeMaker.Ident(collectionVar.name),
+                "iterator", TreeUtil.emptyExpression());
+        JCTree.JCVariableDecl iteratorVar = syntaxTreeMaker.newLocalVar("iterator", Iterator.class.getName(), getIterator);
+        JCTree.JCIdent iterator = treeMaker.Ident(iteratorVar.name);
+        statements.append(iteratorVar);
+
+        // while (count < limit && iterator.hasNext()) { body ... }
+        JCTree.JCExpression underLimit = syntaxTreeMaker.newBinary(TypeTag.LT, count, treeMaker.Ident(limitVar.name));
+        JCTree.JCExpression hasNext = syntaxTreeMaker.getMethod(iterator, "hasNext", TreeUtil.emptyExpression());
+        JCTree.JCExpression condition = syntaxTreeMaker.newBinary(TypeTag.AND, underLimit, hasNext);
+
+        // body start
+        // iterator.next();
+        // count = count + 1;
+        ListBuffer<JCTree.JCStatement> body = TreeUtil.newStatement();
+        body.append(treeMaker.Exec(syntaxTreeMaker.getMethod(iterator, "next", TreeUtil.emptyExpression())));
+        JCTree.JCLiteral onePlus = syntaxTreeMaker.newElement(TypeTag.INT, 1);
+        body.append(treeMaker.Exec(treeMaker.Assign(count, syntaxTreeMaker.newBinary(TypeTag.PLUS, count, onePlus))));
+        // body end
+
+        statements.append(treeMaker.WhileLoop(condition, getBlock(body)));
+        statements.append(treeMaker.Return(count));
+
+        return createPublicStaticMethod(methodName, TypeTag.INT, List.of(collectionVar, limitVar), getBlock(statements));
+    }
+
+    /**
+     * 创建映射计数方法，使用键集合计数
      * @param methodName 方法名
      * @return 返回新方法
      */
-    private JCTree.JCMethodDecl createIsBlankMethod(String methodName) {
+    private JCTree.JCMethodDecl createMapSizeOfMethod(String methodName) {
+        // define Map map, int limit parameter
+        JCTree.JCVariableDecl mapVar = syntaxTreeMaker.newVar("map", Flags.PARAMETER, Map.class.getName(), null);
+        JCTree.JCVariableDecl limitVar = syntaxTreeMaker.newVar("limit", Flags.PARAMETER, TypeTag.INT, null);
+
+        // return sizeOf(map.keySet(), limit);
+        JCTree.JCMethodInvocation keySet = syntaxTreeMaker.getMethod(treeMaker.Ident(mapVar.name), "keySet", TreeUtil.emptyExpression());
+        JCTree.JCMethodInvocation sizeOf = treeMaker.Apply(TreeUtil.emptyExpression(),
+                treeMaker.Ident(syntaxTreeMaker.getName(methodName)),
+                List.<JCTree.JCExpression>of(keySet, treeMaker.Ident(limitVar.name)));
+
+        return createPublicStaticMethod(methodName, TypeTag.INT, List.of(mapVar, limitVar),
+                treeMaker.Block(0, List.<JCTree.JCStatement>of(treeMaker.Return(sizeOf))));
+    }
+
+    /**
+     * 创建空白字符串校验方法
+     * @param methodName 方法名
+     * @param typeName 参数类型
+     * @param whitespace 是否按 Character.isWhitespace 判断空白字符
+     * @return 返回新方法
+     */
+    private JCTree.JCMethodDecl createIsBlankMethod(String methodName, String typeName, boolean whitespace) {
         JCTree.JCReturn returnTrue = treeMaker.Return(syntaxTreeMaker.trueNode);
         JCTree.JCReturn returnFalse = treeMaker.Return(syntaxTreeMaker.falseNode);
 
         // define String str parameter
-        JCTree.JCVariableDecl var = syntaxTreeMaker.newVar("str", Flags.PARAMETER, CharSequence.class.getName(), null);
+        JCTree.JCVariableDecl var = syntaxTreeMaker.newVar("str", Flags.PARAMETER, typeName, null);
         JCTree.JCIdent str = treeMaker.Ident(var.name);
 
         ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
@@ -112,7 +202,7 @@ public class UtilMethodTranslator extends BaseTranslator {
         JCTree.JCExpressionStatement charAt = syntaxTreeMaker.assignCallback(str,  ch,"charAt", paramArgs);
 
         // if (ch != ' ') { return false; }
-        JCTree.JCExpression isNotEmtyp = syntaxTreeMaker.newBinary(TypeTag.NE, ch, syntaxTreeMaker.emptyCh);
+        JCTree.JCExpression isNotEmtyp = whitespace ? isNotWhitespace(ch) : syntaxTreeMaker.newBinary(TypeTag.NE, ch, syntaxTreeMaker.emptyCh);
         JCTree.JCIf notEqualsReturn = treeMaker.If(isNotEmtyp, returnFalse, null);
         // body end
 
@@ -125,22 +215,44 @@ public class UtilMethodTranslator extends BaseTranslator {
 
         statements.append(returnTrue);
 
-        return createPublicStaticMethod(methodName, List.of(var), getBlock(statements));
+        return createPublicStaticMethod(methodName, TypeTag.BOOLEAN, List.of(var), getBlock(statements));
+    }
+
+    /**
+     * 创建非空白字符判断，ASCII 字符查位表，其余字符使用 Character.isWhitespace
+     * ch < 64 ? (WHITESPACE_MASK >> ch & 1L) == 0L : ch < 128 || !Character.isWhitespace(ch)
+     * @param ch 字符
+     * @return 非空白字符为 true 的表达式
+     */
+    private JCTree.JCExpression isNotWhitespace(JCTree.JCExpression ch) {
+        JCTree.JCExpression inMask = syntaxTreeMaker.newBinary(TypeTag.LT, ch, syntaxTreeMaker.newElement(TypeTag.INT, 64));
+        JCTree.JCExpression shift = syntaxTreeMaker.newBinary(TypeTag.SR, syntaxTreeMaker.newElement(TypeTag.LONG, WHITESPACE_MASK), ch);
+        JCTree.JCExpression bit = syntaxTreeMaker.newBinary(TypeTag.BITAND, shift, syntaxTreeMaker.newElement(TypeTag.LONG, 1L));
+        JCTree.JCExpression notMasked = syntaxTreeMaker.newBinary(TypeTag.EQ, bit, syntaxTreeMaker.newElement(TypeTag.LONG, 0L));
+
+        JCTree.JCExpression ascii = syntaxTreeMaker.newBinary(TypeTag.LT, ch, syntaxTreeMaker.newElement(TypeTag.INT, 128));
+        JCTree.JCExpression isWhitespace = syntaxTreeMaker.getMethod(syntaxTreeMaker.findClass(Character.class.getName()),
+                "isWhitespace", List.of(ch));
+        JCTree.JCExpression notWhitespace = syntaxTreeMaker.newBinary(TypeTag.OR, ascii, syntaxTreeMaker.newUnary(TypeTag.NOT, isWhitespace));
+
+        return treeMaker.Conditional(inMask, notMasked, notWhitespace);
     }
 
     /**
      * 创建静态公共方法
      * @param methodName 方法名
+     * @param returnType 返回类型
      * @param var 方法参数
      * @param body 方法内容
      * @return 方法元素
      */
-    private JCTree.JCMethodDecl createPublicStaticMethod(String methodName, List<JCTree.JCVariableDecl> var, JCTree.JCBlock body) {
+    private JCTree.JCMethodDecl createPublicStaticMethod(String methodName, TypeTag returnType,
+                                                         List<JCTree.JCVariableDecl> var, JCTree.JCBlock body) {
         TreeUtil.visit(var, posScanner);
 
         return treeMaker.MethodDef(treeMaker.Modifiers(Flags.PUBLIC | Flags.STATIC),
                 syntaxTreeMaker.getName(methodName),
-                syntaxTreeMaker.getPrimitiveType(TypeTag.BOOLEAN),
+                syntaxTreeMaker.getPrimitiveType(returnType),
                 List.<JCTree.JCTypeParameter>nil(), var, TreeUtil.emptyExpression(),
                 body, null);
     }
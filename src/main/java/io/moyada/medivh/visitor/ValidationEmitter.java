@@ -0,0 +1,730 @@
+package io.moyada.medivh.visitor;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.ListBuffer;
+import com.sun.tools.javac.util.Name;
+import io.moyada.medivh.regulation.EqualsRegulation;
+import io.moyada.medivh.support.*;
+import io.moyada.medivh.util.CheckUtil;
+import io.moyada.medivh.util.TreeUtil;
+import io.moyada.medivh.util.TypeUtil;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.ElementKind;
+import javax.tools.Diagnostic;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 校验语句生成器
+ * 将 {@link ValidationPlan} 转换为语法树语句，替换方法体或创建自定义规则校验方法
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+class ValidationEmitter {
+
+    // 校验开关属性名前缀
+    private static final String SWITCH_PREFIX = "medivh$disabled";
+
+    // 规则码信息表属性名前缀
+    private static final String MESSAGES_PREFIX = "medivh$messages";
+
+    // 信息输出提供器
+    private final Messager messager;
+
+    // 语法创建工具
+    private final SyntaxTreeMaker syntaxTreeMaker;
+
+    // 语法树构造器
+    private final TreeMaker treeMaker;
+
+    // 阶段统计
+    private final ProcessorProfile profile;
+
+    // 新增成员
+    private final ClassMemberSupport classMemberSupport;
+
+    // 字节码增长报告，仅生成方法校验时使用
+    private final ByteCodeReport byteCodeReport;
+
+    ValidationEmitter(SyntaxTreeMaker syntaxTreeMaker, Messager messager, ProcessorProfile profile,
+                      ClassMemberSupport classMemberSupport, ByteCodeReport byteCodeReport) {
+        this.syntaxTreeMaker = syntaxTreeMaker;
+        this.messager = messager;
+        this.profile = profile;
+        this.classMemberSupport = classMemberSupport;
+        this.byteCodeReport = byteCodeReport;
+
+        this.treeMaker = syntaxTreeMaker.getTreeMaker();
+    }
+
+    /**
+     * 生成方法参数校验，在原始逻辑前加入校验语句
+     * @param plan 校验计划
+     * @param methodDecl 方法节点
+     */
+    void emitMethod(ValidationPlan plan, JCTree.JCMethodDecl methodDecl) {
+        Symbol.MethodSymbol methodSymbol = methodDecl.sym;
+
+        // 创建临时变量提取引用
+        JCTree.JCVariableDecl msg;
+        if (ElementOptions.current().isRuleCode()) {
+            msg = syntaxTreeMaker.newLocalVar(plan.getVariable(), TypeTag.INT, null);
+        } else {
+            msg = syntaxTreeMaker.newLocalVar(plan.getVariable(), String.class.getName(), null);
+        }
+        JCTree.JCIdent ident = treeMaker.Ident(msg.name);
+
+        // 同一动作只创建一次返回语句
+        Map<ValidationPlan.Action, JCTree.JCStatement> returns = new HashMap<ValidationPlan.Action, JCTree.JCStatement>();
+
+        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
+        for (ValidationPlan.Item item : plan.getItems()) {
+            statements.append(emitParam(item, methodSymbol, ident, returns));
+        }
+
+        messager.printMessage(Diagnostic.Kind.NOTE, "processing  =====>  Build validation for " + plan.getTarget() + "()");
+
+        String signature = methodSymbol.owner + "." + TreeUtil.getSignature(methodSymbol);
+        // 枚举构造方法无法引用静态属性
+        boolean enumConstructor = methodSymbol.isConstructor() && (methodSymbol.enclClass().flags() & Flags.ENUM) != 0;
+        Symbol.ClassSymbol memberClass = enumConstructor ? null : getMemberClass(methodSymbol.enclClass());
+
+        // 计数编号在失败动作外提前替换，计数保留在校验方法中
+        if (ElementOptions.current().isMetrics()) {
+            statements = translate(new RejectionTranslator(syntaxTreeMaker, messager, classMemberSupport, memberClass, signature), statements);
+        }
+
+        if (ElementOptions.current().isOutlineAction()) {
+            statements = outlineAction(methodSymbol, statements);
+        }
+
+        statements = translate(new TunableTranslator(syntaxTreeMaker, messager, classMemberSupport,
+                getStaticClass(methodSymbol.enclClass()), null == memberClass), statements);
+
+        statements.prepend(msg);
+
+        // 校验语句置于开关判断内，开关为静态常量，关闭时由 JIT 常量折叠消除
+        String switchProperty = ElementOptions.current().getSwitchProperty();
+        if (null != switchProperty) {
+            JCTree.JCExpression enabled = syntaxTreeMaker.newUnary(TypeTag.NOT, getSwitch(methodSymbol, switchProperty));
+            JCTree.JCStatement guard = treeMaker.If(enabled, getBlock(statements), null);
+            statements = TreeUtil.newStatement();
+            statements.append(guard);
+        }
+
+        for (JCTree.JCStatement statement : statements) {
+            profile.addStatements(statement);
+        }
+        // 加入原始逻辑
+        List<JCTree.JCStatement> oldStatements = methodDecl.body.stats;
+        int size = oldStatements.size();
+        for (int i = 0; i < size; i++) {
+            statements.append(oldStatements.get(i));
+        }
+
+        JCTree.JCBlock block = getBlock(statements);
+        block.setPos(methodDecl.body.getPreferredPosition());
+        byteCodeReport.record(signature, ByteCodeScanner.estimate(methodDecl.body), ByteCodeScanner.estimate(block));
+        methodDecl.body = block;
+    }
+
+    /**
+     * 获取校验关闭开关，类初始化时读取一次系统参数保存为静态常量
+     * 开关记录为是否关闭，类初始化完成前调用的方法读取到默认值 false ，仍然执行校验
+     * 接口与枚举构造方法无法引用类中新增的静态属性，定义在持有类中
+     * @param methodSymbol 方法元素
+     * @param property 系统参数名
+     * @return 开关表达式
+     */
+    private JCTree.JCExpression getSwitch(Symbol.MethodSymbol methodSymbol, String property) {
+        Symbol.ClassSymbol classSymbol = getStaticClass(methodSymbol.enclClass());
+        String key = "switch " + property;
+        if ((classSymbol.flags() & Flags.INTERFACE) != 0 ||
+                methodSymbol.isConstructor() && (methodSymbol.enclClass().flags() & Flags.ENUM) != 0) {
+            String fieldName = classMemberSupport.getHolderMemberName(classSymbol, key);
+            if (null == fieldName) {
+                fieldName = classMemberSupport.nextMemberName(classSymbol, SWITCH_PREFIX);
+
+                JCTree.JCVariableDecl field = syntaxTreeMaker.newVar(fieldName, Flags.STATIC | Flags.FINAL,
+                        TypeTag.BOOLEAN, isDisabled(property));
+                classMemberSupport.addHolderMember(classSymbol, key, fieldName, field);
+            }
+            return classMemberSupport.getHolderMember(fieldName);
+        }
+
+        String fieldName = classMemberSupport.getMemberName(classSymbol, key);
+        if (null == fieldName) {
+            fieldName = classMemberSupport.nextMemberName(classSymbol, SWITCH_PREFIX);
+
+            JCTree.JCVariableDecl field = syntaxTreeMaker.newVar(fieldName, Flags.PRIVATE | Flags.STATIC | Flags.FINAL,
+                    TypeTag.BOOLEAN, isDisabled(property));
+            classMemberSupport.addMember(classSymbol, key, fieldName, field);
+        }
+        return treeMaker.Ident(syntaxTreeMaker.getName(fieldName));
+    }
+
+    /**
+     * 获取定义静态属性的类，内部类、局部类无法定义静态属性，使用最近的外部类
+     * @param classSymbol 校验逻辑所在类
+     * @return 静态类
+     */
+    private Symbol.ClassSymbol getStaticClass(Symbol.ClassSymbol classSymbol) {
+        while (classSymbol.isInner() ||
+                !(classSymbol.owner instanceof Symbol.ClassSymbol || classSymbol.owner instanceof Symbol.PackageSymbol)) {
+            classSymbol = classSymbol.owner.enclClass();
+        }
+        return classSymbol;
+    }
+
+    /**
+     * 获取定义可调整边界句柄、拒绝计数编号的类
+     * 接口属性均为公开属性，枚举常量先于新增属性初始化，两者中不定义，可调整边界句柄定义在持有类中，拒绝计数保留按名称读取
+     * @param classSymbol 校验逻辑所在类
+     * @return 无法定义静态属性返回 null
+     */
+    private Symbol.ClassSymbol getMemberClass(Symbol.ClassSymbol classSymbol) {
+        classSymbol = getStaticClass(classSymbol);
+        if ((classSymbol.flags() & (Flags.INTERFACE | Flags.ENUM)) != 0) {
+            return null;
+        }
+        return classSymbol;
+    }
+
+    /**
+     * 转换校验语句
+     * @param translator 语法树转换器
+     * @param statements 校验语句链
+     * @return 转换后的校验语句链
+     */
+    private ListBuffer<JCTree.JCStatement> translate(BaseTranslator translator, ListBuffer<JCTree.JCStatement> statements) {
+        ListBuffer<JCTree.JCStatement> translated = TreeUtil.newStatement();
+        for (JCTree.JCStatement statement : statements) {
+            translated.append(translator.translate(statement));
+        }
+        return translated;
+    }
+
+    /**
+     * 获取读取开关的表达式，系统参数为 false 时关闭校验
+     * @param property 系统参数名
+     * @return "false".equalsIgnoreCase(System.getProperty(property))
+     */
+    private JCTree.JCExpression isDisabled(String property) {
+        JCTree.JCExpression value = syntaxTreeMaker.getMethod(syntaxTreeMaker.findClass(System.class.getName()), "getProperty",
+                List.<JCTree.JCExpression>of(syntaxTreeMaker.newElement(TypeTag.CLASS, property)));
+        return syntaxTreeMaker.getMethod(syntaxTreeMaker.newElement(TypeTag.CLASS, Boolean.FALSE.toString()),
+                "equalsIgnoreCase", List.of(value));
+    }
+
+    /**
+     * 生成单个参数校验代码块
+     * @param item 参数校验项
+     * @param methodSymbol 方法元素
+     * @param msgField 临时变量
+     * @param returns 已创建的返回语句
+     * @return 校验代码块
+     */
+    private JCTree.JCStatement emitParam(ValidationPlan.Item item, Symbol.MethodSymbol methodSymbol, JCTree.JCIdent msgField,
+                                         Map<ValidationPlan.Action, JCTree.JCStatement> returns) {
+        ValidationPlan.Action action = item.getAction();
+        JCTree.JCStatement returnValue = getReturn(action, returns);
+
+        // 参数标识
+        JCTree.JCIdent self = treeMaker.Ident(syntaxTreeMaker.getName(item.getName()));
+        String varName = item.getName();
+
+        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
+
+        // 嵌套校验，将校验结果赋值给临时变量
+        if (null != item.getCheckMethod()) {
+            JCTree.JCStatement nestedAction;
+            EqualsRegulation equalsRegulation;
+            if (null != item.getMessageMethod()) {
+                // 失败时通过规则码获取信息
+                nestedAction = getAction(action, returnValue,
+                        syntaxTreeMaker.getMethod(self, item.getMessageMethod(), List.<JCTree.JCExpression>of(msgField)));
+                equalsRegulation = new EqualsRegulation(TypeUtil.PRIMITIVE, TypeTag.INT, 0, false);
+            } else {
+                nestedAction = getAction(action, returnValue, msgField);
+                equalsRegulation = new EqualsRegulation(TypeUtil.OBJECT, false);
+            }
+
+            // 拒绝计数记录为嵌套校验方法
+            equalsRegulation.setRule(item.getCheckMethod() + "()");
+            statements.append(syntaxTreeMaker.assignCallback(self, msgField, item.getCheckMethod(), TreeUtil.emptyExpression()));
+            statements = equalsRegulation.handle(syntaxTreeMaker, statements, varName, msgField, nestedAction);
+        }
+
+        // 当 returnValue 为 null 时使用规则处理数据创建校验处理动作
+        statements = RegulationExecutor.newExecutor(syntaxTreeMaker, item.getRegulations())
+                .setStatement(statements)
+                .setAction(returnValue)
+                .execute(self, varName);
+
+        JCTree.JCBlock block = getBlock(statements);
+        if (action.isPreallocate() && PreallocatedThrowTranslator.isSupported(methodSymbol)) {
+            block = new PreallocatedThrowTranslator(syntaxTreeMaker, messager, classMemberSupport, methodSymbol.enclClass()).translate(block);
+        }
+        return block;
+    }
+
+    /**
+     * 生成自定义规则校验方法，规则码模式下同时生成信息方法
+     * @param plan 校验计划
+     * @param classDecl 类节点
+     * @param isInterface 是否接口类型
+     */
+    void emitRules(ValidationPlan plan, JCTree.JCClassDecl classDecl, boolean isInterface) {
+        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
+
+        for (ValidationPlan.Item item : plan.getItems()) {
+            Name name = syntaxTreeMaker.getName(item.getName());
+            JCTree.JCExpression self;
+            JCTree.JCVariableDecl localVar = null;
+
+            if (item.getKind() == ValidationPlan.METHOD) {
+                // 使用临时变量保存方法回调数据
+                JCTree.JCExpression call = treeMaker.Apply(TreeUtil.emptyExpression(), treeMaker.Ident(name), TreeUtil.emptyExpression());
+                localVar = treeMaker.VarDef(treeMaker.Modifiers(0L), name, getReturnType(classDecl, name), call);
+                self = treeMaker.Ident(localVar.name);
+            } else {
+                self = treeMaker.Ident(name);
+            }
+
+            // 当前字段规则链
+            ListBuffer<JCTree.JCStatement> thisStatements = RegulationExecutor
+                    .newExecutor(syntaxTreeMaker, item.getRegulations())
+                    .execute(self, self.toString());
+            if (null != localVar) {
+                thisStatements.prepend(localVar);
+            }
+
+            statements.append(getBlock(thisStatements));
+        }
+
+        String methodName = plan.getVariable();
+        Symbol.ClassSymbol memberClass = getMemberClass(classDecl.sym);
+        if (ElementOptions.current().isMetrics()) {
+            statements = translate(new RejectionTranslator(syntaxTreeMaker, messager, classMemberSupport, memberClass,
+                    plan.getTarget() + "." + methodName + "()"), statements);
+        }
+        statements = translate(new TunableTranslator(syntaxTreeMaker, messager, classMemberSupport,
+                getStaticClass(classDecl.sym), null == memberClass), statements);
+
+        // 校验通过返回 null 或 0
+        boolean useCode = null != plan.getCodeTable();
+        JCTree.JCReturn returnStatement = treeMaker.Return(useCode ? syntaxTreeMaker.zeroIntNode : syntaxTreeMaker.nullNode);
+        statements.append(returnStatement);
+
+        JCTree.JCMethodDecl method = createMethod(methodName, getBlock(statements), isInterface, useCode);
+        classDecl.defs = classDecl.defs.append(method);
+        profile.addStatements(method.body);
+
+        if (useCode) {
+            JCTree.JCMethodDecl messageMethod = createMessageMethod(methodName + CheckUtil.MESSAGE_METHOD_SUFFIX,
+                    plan.getCodeTable(), classDecl.sym, isInterface);
+            TreeUtil.visit(messageMethod.params, new PosScanner(classDecl));
+            classDecl.defs = classDecl.defs.append(messageMethod);
+            profile.addStatements(messageMethod.body);
+        }
+    }
+
+    /**
+     * 获取无参方法声明的返回类型
+     * @param classDecl 类节点
+     * @param name 方法名
+     * @return 返回类型节点
+     */
+    private JCTree.JCExpression getReturnType(JCTree.JCClassDecl classDecl, Name name) {
+        for (JCTree def : classDecl.defs) {
+            if (!(def instanceof JCTree.JCMethodDecl)) {
+                continue;
+            }
+            JCTree.JCMethodDecl methodDecl = (JCTree.JCMethodDecl) def;
+            if (methodDecl.name == name && methodDecl.getParameters().isEmpty()) {
+                return methodDecl.restype;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 将校验失败动作外提至类私有方法，减少校验方法字节码体积
+     * @param methodSymbol 方法元素
+     * @param statements 校验语句链
+     * @return 外提后的校验语句链
+     */
+    private ListBuffer<JCTree.JCStatement> outlineAction(Symbol.MethodSymbol methodSymbol, ListBuffer<JCTree.JCStatement> statements) {
+        ColdActionTranslator translator = new ColdActionTranslator(syntaxTreeMaker, messager, classMemberSupport, methodSymbol);
+
+        ListBuffer<JCTree.JCStatement> outlined = TreeUtil.newStatement();
+        for (JCTree.JCStatement statement : statements) {
+            outlined.append(translator.translate(statement));
+        }
+        return outlined;
+    }
+
+    /**
+     * 获取嵌套校验的处理动作语句
+     * @param action 校验动作
+     * @param returnValue 返回语句，抛出异常时为 null
+     * @param detail 嵌套校验信息
+     * @return 处理语句
+     */
+    private JCTree.JCStatement getAction(ValidationPlan.Action action, JCTree.JCStatement returnValue, JCTree.JCExpression detail) {
+        if (null != returnValue) {
+            return returnValue;
+        }
+
+        String exceptionName = action.getExceptionName();
+        String info = action.getInfo();
+        // 生成的异常在读取时拼接信息
+        if (exceptionName.equals(ProcessorContext.current().getExceptionClass())) {
+            JCTree.JCExpression head = syntaxTreeMaker.newElement(TypeTag.CLASS, info);
+            JCTree.JCExpression exception = syntaxTreeMaker.NewClass(exceptionName, List.of(head, detail));
+            return syntaxTreeMaker.newThrow(exception);
+        }
+
+        JCTree.JCExpression message = syntaxTreeMaker.concatStatement(info, detail);
+        return syntaxTreeMaker.newMsgThrow(exceptionName, message);
+    }
+
+    /**
+     * 获取动作的返回语句，返回对象无法创建时结束编译
+     * @param action 校验动作
+     * @param returns 已创建的返回语句
+     * @return 返回语句，抛出异常时为 null
+     */
+    private JCTree.JCStatement getReturn(ValidationPlan.Action action, Map<ValidationPlan.Action, JCTree.JCStatement> returns) {
+        if (action.isThrow()) {
+            return null;
+        }
+        JCTree.JCStatement statement = returns.get(action);
+        if (null == statement) {
+            statement = getReturn(action.getReturnType(), action.getStaticMethod(), action.getValues());
+            if (statement == null) {
+                System.exit(1);
+            }
+            returns.put(action, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * 获取返回对象语句
+     * 当返回类型无法匹配则打印错误信息
+     * @param classType 返回类型
+     * @param method 方法名
+     * @param values 返回数据
+     * @return 返回语句
+     */
+    private JCTree.JCStatement getReturn(String classType, String method, String[] values) {
+        JCTree.JCExpression returnValue;
+        Symbol.ClassSymbol classSymbol = syntaxTreeMaker.getTypeElement(classType);
+        boolean errorType;
+        if (null == classSymbol) {
+            // primitive type
+            errorType = false;
+        } else {
+            errorType = TreeUtil.isAbsOrInter(classSymbol.flags());
+        }
+
+        Character primitive = TypeUtil.getPrimitiveType(classType);
+
+        // 返回 null
+        if (CheckUtil.isReturnNull(values)) {
+            // 返回空对象
+            if (null != primitive) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't return <nulltype> value to " + classType);
+            }
+            returnValue = syntaxTreeMaker.nullNode;
+            return treeMaker.Return(returnValue);
+        }
+
+        // 调用静态方法
+        if (!method.isEmpty()) {
+            List<JCTree.JCExpression> paramType;
+            if (values.length == 0) {
+                paramType = TreeUtil.emptyExpression();
+            } else {
+                paramType = getParamType(classSymbol, false, values);
+                if (null == paramType) {
+                    // 无匹配的静态方法
+                    messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find match param static method from " + classType + " by " + Arrays.toString(values));
+                }
+            }
+            JCTree.JCExpression clazzType = syntaxTreeMaker.findClass(classType);
+            returnValue = syntaxTreeMaker.getMethod(clazzType, method, paramType);
+            return treeMaker.Return(returnValue);
+        }
+
+        // 无法创建抽象类和接口
+        if (errorType) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find constructor from abstract or interface, return type is " + classType);
+            return null;
+        }
+
+        int length = values.length;
+        if (length == 0) {
+            JCTree.JCExpression returnExpr;
+            if (null != primitive) {
+                returnExpr = syntaxTreeMaker.getDefaultPrimitiveValue(primitive);
+                if (null == returnExpr) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find primitive return, " +
+                            "please make sure that system options is correct.");
+                }
+            } else {
+                returnExpr = getEmptyType(classType);
+            }
+            return treeMaker.Return(returnExpr);
+        } else if (length == 1) {
+            String value = values[0];
+            if (value.isEmpty()) {
+                // 返回空构造方法
+                return treeMaker.Return(getEmptyType(classType));
+            }
+
+            // 基本类型
+            TypeTag baseType = TypeUtil.getBaseType(classType);
+            if (null != baseType) {
+                Object tagValue = TreeUtil.getValue(baseType, value);
+                if (null == tagValue) {
+                    // 数据有误
+                    messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't convert " + value + " to " + classType);
+                }
+                returnValue = syntaxTreeMaker.newElement(baseType, tagValue);
+                return treeMaker.Return(returnValue);
+            }
+        }
+
+        Symbol.ClassSymbol typeElement = syntaxTreeMaker.getTypeElement(classType);
+        if (typeElement.isInner()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Unsupported return inner class " + classType);
+        }
+        // 类构造方法
+        List<JCTree.JCExpression> paramType = getParamType(classSymbol, true, values);
+        if (null == paramType) {
+            // 无匹配的构造方法
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find match param constructor from " + classType + " by " + Arrays.toString(values));
+        }
+        returnValue = syntaxTreeMaker.NewClass(classType, paramType);
+        return treeMaker.Return(returnValue);
+    }
+
+    /**
+     * 返回空构造方法语句
+     * 当类型为基础类型则打印错误
+     * @param returnTypeName 返回类型
+     * @return 构造函数语句
+     */
+    private JCTree.JCExpression getEmptyType(String returnTypeName) {
+        if (null != TypeUtil.getBaseType(returnTypeName)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find return value to " + returnTypeName);
+        }
+        Symbol.ClassSymbol typeElement = syntaxTreeMaker.getTypeElement(returnTypeName);
+        if (typeElement.isInner()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Unsupported return inner class " + returnTypeName);
+        }
+        return syntaxTreeMaker.NewClass(returnTypeName, List.<JCTree.JCExpression>nil());
+    }
+
+    /**
+     * 参数转换
+     * @param classSymbol 解析类节点
+     * @param isConstruct 解析构造方法还是静态方法
+     * @param values 参数数据
+     * @return 返回对应参数元素
+     */
+    private List<JCTree.JCExpression> getParamType(Symbol.ClassSymbol classSymbol, boolean isConstruct, String[] values) {
+        int length = values.length;
+
+        List<JCTree.JCExpression> param = null;
+
+        boolean findParam;
+        for (Symbol element : classSymbol.getEnclosedElements()) {
+
+            // 构造方法
+            if (isConstruct) {
+                if (!element.isConstructor()) {
+                    continue;
+                }
+            } else {
+                // 静态方法
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                if (!element.isStatic()) {
+                    continue;
+                }
+            }
+
+            Symbol.MethodSymbol methodSymbol = (Symbol.MethodSymbol) element;
+            List<Symbol.VarSymbol> parameters = methodSymbol.getParameters();
+
+            // 参数个数一致
+            if (parameters.size() != values.length) {
+                continue;
+            }
+
+            findParam = true;
+            for (int i = 0; findParam && i < length; i++) {
+                Symbol.VarSymbol varSymbol = parameters.get(i);
+                String value = values[i];
+
+                String typeName = TreeUtil.getOriginalTypeName(varSymbol);
+                TypeTag baseType = TypeUtil.getBaseType(typeName);
+
+                JCTree.JCExpression argsVal;
+
+                if (CheckUtil.isNull(value)) {
+                    // 原生类型无法返回 null
+                    if (TypeUtil.isPrimitive(typeName)) {
+                        param = null;
+                        findParam = false;
+                        continue;
+                    }
+                    argsVal = syntaxTreeMaker.nullNode;
+                } else {
+                    // 不支持复杂对象
+                    if (null == baseType) {
+                        param = null;
+                        findParam = false;
+                        continue;
+                    }
+
+                    Object data = TreeUtil.getValue(baseType, value);
+                    // 数据与类型不匹配
+                    if (null == data) {
+                        param = null;
+                        findParam = false;
+                        continue;
+                    }
+                    argsVal = syntaxTreeMaker.newElement(baseType, data);
+                }
+
+                if (null == param) {
+                    param = List.of(argsVal);
+                } else {
+                    param = param.append(argsVal);
+                }
+            }
+
+            if (param != null) {
+                return param;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 创建校验方法
+     * @param methodName 方法名
+     * @param body 方法体
+     * @param isInterface 是否接口类型
+     * @param useCode 是否返回规则码
+     * @return 方法元素
+     */
+    private JCTree.JCMethodDecl createMethod(String methodName, JCTree.JCBlock body, boolean isInterface, boolean useCode) {
+        JCTree.JCExpression returnType = useCode ? syntaxTreeMaker.getPrimitiveType(TypeTag.INT) :
+                syntaxTreeMaker.findClass(String.class.getName());
+        return treeMaker.MethodDef(treeMaker.Modifiers(TreeUtil.getNewMethodFlag(isInterface)),
+                syntaxTreeMaker.getName(methodName),
+                returnType,
+                List.<JCTree.JCTypeParameter>nil(), List.<JCTree.JCVariableDecl>nil(), TreeUtil.emptyExpression(),
+                body, null);
+    }
+
+    /**
+     * 创建规则码信息方法，仅在需要信息时调用
+     * 子类的校验方法覆盖父类同名方法，信息方法同样为实例方法，保证与实际校验方法的规则码对应
+     * @param methodName 方法名
+     * @param codeTable 规则码信息表
+     * @param classSymbol 规则类
+     * @param isInterface 是否接口类型
+     * @return 方法元素
+     */
+    private JCTree.JCMethodDecl createMessageMethod(String methodName, java.util.List<String> codeTable,
+                                                   Symbol.ClassSymbol classSymbol, boolean isInterface) {
+        JCTree.JCVariableDecl param = syntaxTreeMaker.newVar("code", Flags.PARAMETER, TypeTag.INT, null);
+        JCTree.JCIdent code = treeMaker.Ident(param.name);
+
+        // return code > -1 && medivh$messages0.length > code ? medivh$messages0[code] : null;
+        JCTree.JCExpression inRange = syntaxTreeMaker.newBinary(TypeTag.AND,
+                syntaxTreeMaker.newBinary(TypeTag.GT, code, syntaxTreeMaker.newElement(TypeTag.INT, -1)),
+                syntaxTreeMaker.newBinary(TypeTag.GT, syntaxTreeMaker.Select(getMessageTable(classSymbol, codeTable), "length"), code));
+        JCTree.JCExpression message = treeMaker.Conditional(inRange,
+                treeMaker.Indexed(getMessageTable(classSymbol, codeTable), code), syntaxTreeMaker.nullNode);
+        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
+        statements.append(treeMaker.Return(message));
+
+        return treeMaker.MethodDef(treeMaker.Modifiers(TreeUtil.getNewMethodFlag(isInterface)),
+                syntaxTreeMaker.getName(methodName),
+                syntaxTreeMaker.findClass(String.class.getName()),
+                List.<JCTree.JCTypeParameter>nil(), List.of(param), TreeUtil.emptyExpression(),
+                getBlock(statements), null);
+    }
+
+    /**
+     * 获取规则码信息表，下标为规则码，0 表示校验通过
+     * 保存为静态常量，接口、枚举中定义在持有类中
+     * @param classSymbol 规则类
+     * @param codeTable 规则码信息表
+     * @return 信息表引用
+     */
+    private JCTree.JCExpression getMessageTable(Symbol.ClassSymbol classSymbol, java.util.List<String> codeTable) {
+        Symbol.ClassSymbol staticClass = getStaticClass(classSymbol);
+        String key = "messages " + classSymbol.className();
+        if (null == getMemberClass(classSymbol)) {
+            String fieldName = classMemberSupport.getHolderMemberName(staticClass, key);
+            if (null == fieldName) {
+                fieldName = classMemberSupport.nextMemberName(staticClass, MESSAGES_PREFIX);
+                classMemberSupport.addHolderMember(staticClass, key, fieldName,
+                        newMessageTable(fieldName, Flags.STATIC | Flags.FINAL, codeTable));
+            }
+            return classMemberSupport.getHolderMember(fieldName);
+        }
+
+        String fieldName = classMemberSupport.getMemberName(staticClass, key);
+        if (null == fieldName) {
+            fieldName = classMemberSupport.nextMemberName(staticClass, MESSAGES_PREFIX);
+            classMemberSupport.addMember(staticClass, key, fieldName,
+                    newMessageTable(fieldName, Flags.PRIVATE | Flags.STATIC | Flags.FINAL, codeTable));
+        }
+        return treeMaker.Ident(syntaxTreeMaker.getName(fieldName));
+    }
+
+    /**
+     * 创建规则码信息表属性
+     * @param fieldName 属性名
+     * @param flags 属性标记
+     * @param codeTable 规则码信息表
+     * @return new String[]{null, "...", ...}
+     */
+    private JCTree.JCVariableDecl newMessageTable(String fieldName, long flags, java.util.List<String> codeTable) {
+        ListBuffer<JCTree.JCExpression> messages = new ListBuffer<JCTree.JCExpression>();
+        messages.append(syntaxTreeMaker.nullNode);
+        for (String message : codeTable) {
+            messages.append(syntaxTreeMaker.newElement(TypeTag.CLASS, message));
+        }
+        JCTree.JCExpression stringType = syntaxTreeMaker.findClass(String.class.getName());
+        JCTree.JCExpression init = treeMaker.NewArray(syntaxTreeMaker.findClass(String.class.getName()),
+                List.<JCTree.JCExpression>nil(), messages.toList());
+        return syntaxTreeMaker.newVar(fieldName, flags, treeMaker.TypeArray(stringType), init);
+    }
+
+    /**
+     * 获取表达式的代码块
+     * @param statements 表达式语句链
+     * @return 代码块
+     */
+    private JCTree.JCBlock getBlock(ListBuffer<JCTree.JCStatement> statements) {
+        return treeMaker.Block(0, statements.toList());
+    }
+}
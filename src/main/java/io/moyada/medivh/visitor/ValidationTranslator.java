@@ -2,8 +2,6 @@ package io.moyada.medivh.visitor;
 
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.tree.JCTree;
-import com.sun.tools.javac.util.List;
-import com.sun.tools.javac.util.ListBuffer;
 import io.moyada.medivh.annotation.Return;
 import io.moyada.medivh.annotation.Throw;
 import io.moyada.medivh.regulation.*;
@@ -13,66 +11,95 @@ import io.moyada.medivh.util.TreeUtil;
 import io.moyada.medivh.util.TypeUtil;
 
 import javax.annotation.processing.Messager;
+import javax.lang.model.SourceVersion;
 import javax.tools.Diagnostic;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * 方法校验逻辑生成器
- * 对定义的注解的方法增加入参合法性校验
+ * 对定义的注解的方法分析入参规则创建校验计划，再由 {@link ValidationEmitter} 增加入参合法性校验
  * @author xueyikang
  * @since 1.0
  **/
 public class ValidationTranslator extends BaseTranslator {
 
-    // 可继承元素校验信息
-    private final Map<Symbol, CheckData> classCheck = new HashMap<Symbol, CheckData>();
+    // 参数校验开销由低到高
+    private static final Comparator<ValidationPlan.Item> COST_ORDER = new Comparator<ValidationPlan.Item>() {
+        @Override
+        public int compare(ValidationPlan.Item o1, ValidationPlan.Item o2) {
+            return o1.getCost() - o2.getCost();
+        }
+    };
+
+    // 可继承元素校验动作
+    private final Map<Symbol, ValidationPlan.Action> classAction = new HashMap<Symbol, ValidationPlan.Action>();
+
+    // 阶段统计
+    private final ProcessorProfile profile;
+
+    // 校验语句生成器
+    private final ValidationEmitter emitter;
 
-    public ValidationTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager) {
-        super(syntaxTreeMaker, messager);
+    public ValidationTranslator(SyntaxTreeMaker syntaxTreeMaker, Messager messager, ClassTypeSupport classTypeSupport,
+                                ClassMemberSupport classMemberSupport, ByteCodeReport byteCodeReport, ProcessorProfile profile) {
+        super(syntaxTreeMaker, messager, classTypeSupport);
+        this.profile = profile;
+        this.emitter = new ValidationEmitter(syntaxTreeMaker, messager, profile, classMemberSupport, byteCodeReport);
     }
 
     @Override
     public void visitMethodDef(JCTree.JCMethodDecl methodDecl) {
         super.visitMethodDef(methodDecl);
 
-        Symbol.MethodSymbol methodSymbol = methodDecl.sym;
-        if (CheckUtil.isExclusive(methodSymbol)) {
+        ValidationPlan plan = buildPlan(methodDecl);
+        if (null == plan) {
             return;
         }
+        profile.addRules(plan);
+
+        emitter.emitMethod(plan, methodDecl);
+        this.result = methodDecl;
+    }
 
-        String fullName = TreeUtil.getFullName(methodSymbol);
+    /**
+     * 分析方法参数规则，创建校验计划
+     * @param methodDecl 方法节点
+     * @return 校验计划，无需校验返回 null
+     */
+    private ValidationPlan buildPlan(JCTree.JCMethodDecl methodDecl) {
+        Symbol.MethodSymbol methodSymbol = methodDecl.sym;
+        if (CheckUtil.isExclusive(methodSymbol)) {
+            return null;
+        }
 
         // 返回类型
         String returnTypeName = TreeUtil.getReturnTypeName(methodDecl);
 
-        // 创建临时变量提取引用
-        JCTree.JCVariableDecl msg = syntaxTreeMaker.newLocalVar(CheckUtil.getTmpVar(methodSymbol), String.class.getName(), null);
-        JCTree.JCIdent ident = treeMaker.Ident(msg.name);
-
         // 方法域校验信息
-        CheckData defaultCheck = getDefaultCheckData(methodSymbol, returnTypeName);
+        ValidationPlan.Action defaultAction = getDefaultAction(methodSymbol, returnTypeName);
 
-        ListBuffer<JCTree.JCStatement> statements = buildLogic(defaultCheck, methodDecl.params, returnTypeName, ident);
-        if (statements.isEmpty()) {
-            return;
+        boolean ordered = CheckUtil.isOrdered(methodSymbol);
+        java.util.List<ValidationPlan.Item> items = new ArrayList<ValidationPlan.Item>(methodDecl.params.size());
+        for (JCTree.JCVariableDecl param : methodDecl.params) {
+            ValidationPlan.Item item = getParamItem(defaultAction, param.sym, returnTypeName, ordered);
+            if (null == item) {
+                continue;
+            }
+            items.add(item);
         }
-
-        messager.printMessage(Diagnostic.Kind.NOTE, "processing  =====>  Build validation for " + fullName + "()");
-
-        statements.prepend(msg);
-        // 加入原始逻辑
-        List<JCTree.JCStatement> oldStatements = methodDecl.body.stats;
-        int size = oldStatements.size();
-        for (int i = 0; i < size; i++) {
-            statements.append(oldStatements.get(i));
+        if (items.isEmpty()) {
+            return null;
         }
 
-        JCTree.JCBlock block = getBlock(statements);
-        block.setPos(methodDecl.body.getPreferredPosition());
-        methodDecl.body = block;
-        this.result = methodDecl;
+        // 低开销参数优先校验，开销相同保持声明顺序
+        if (!ordered) {
+            Collections.sort(items, COST_ORDER);
+        }
+        return new ValidationPlan(TreeUtil.getFullName(methodSymbol), CheckUtil.getTmpVar(methodSymbol), items, null);
     }
 
     /**
@@ -81,22 +108,22 @@ public class ValidationTranslator extends BaseTranslator {
      * @param returnTypeName 方法返回类型
      * @return 校验信息
      */
-    private CheckData getDefaultCheckData(Symbol symbol, String returnTypeName) {
-        CheckData checkData = getCheckData(symbol, returnTypeName);
-        if (null != checkData) {
-            return checkData;
+    private ValidationPlan.Action getDefaultAction(Symbol symbol, String returnTypeName) {
+        ValidationPlan.Action action = getAction(symbol, returnTypeName);
+        if (null != action) {
+            return action;
         }
 
         Symbol classSymbol = symbol.getEnclosingElement();
-        checkData = classCheck.get(classSymbol);
-        if (null != checkData) {
-            return checkData;
+        action = classAction.get(classSymbol);
+        if (null != action) {
+            return action;
         }
-        checkData = getThrow(classSymbol);
-        if (null != checkData) {
-            classCheck.put(symbol, checkData);
+        action = getThrow(classSymbol);
+        if (null != action) {
+            classAction.put(symbol, action);
         }
-        return checkData;
+        return action;
     }
 
     /**
@@ -106,14 +133,14 @@ public class ValidationTranslator extends BaseTranslator {
      * @param returnTypeName 方法返回类型
      * @return 返回匹配校验信息
      */
-    private CheckData getCheckData(Symbol symbol, String returnTypeName) {
-        CheckData checkData = getThrow(symbol);
-        if (null != checkData) {
-            return checkData;
+    private ValidationPlan.Action getAction(Symbol symbol, String returnTypeName) {
+        ValidationPlan.Action action = getThrow(symbol);
+        if (null != action) {
+            return action;
         }
 
-        checkData = getReturn(symbol, returnTypeName);
-        return checkData;
+        action = getReturn(symbol, returnTypeName);
+        return action;
     }
 
     /**
@@ -121,30 +148,72 @@ public class ValidationTranslator extends BaseTranslator {
      * @param symbol 元素
      * @return 存在标记注解则返回
      */
-    private CheckData getThrow(Symbol symbol) {
-        Throw throwAttr = TreeUtil.getAnnotation(symbol, Throw.class);
-        if (null != throwAttr) {
+    private ValidationPlan.Action getThrow(Symbol symbol) {
+        RuleDescriptor descriptor = RuleDescriptor.of(symbol);
+        if (descriptor.hasThrow()) {
             // 默认异常类
-            String exception = getException(symbol);
+            String exception = getException(descriptor);
 
-            String message = throwAttr.message();
+            boolean preallocate = descriptor.isPreallocate();
+            if (preallocate) {
+                exception = getPreallocatedException(exception);
+            } else if (descriptor.isStackless()) {
+                exception = getStacklessException(exception);
+            }
+
+            String message = descriptor.getThrowMessage();
             if (message.isEmpty()) {
-                message = ElementOptions.MESSAGE;
+                message = ElementOptions.current().getMessage();
             }
             message += ElementOptions.ACTION_INFO;
 
-            return new CheckData(exception, message);
+            return ValidationPlan.Action.newThrow(exception, message, preallocate);
         }
         return null;
     }
 
+    /**
+     * 获取不填充堆栈的异常，当配置异常无法接收该异常则打印错误信息
+     * @param exception 配置异常
+     * @return 异常类名
+     */
+    private String getStacklessException(String exception) {
+        if (!isSubClass(IllegalArgumentException.class.getName(), exception)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Exception Error] Stackless exception extends " +
+                    IllegalArgumentException.class.getName() + ", can't be thrown as " + exception);
+        }
+        return ProcessorContext.current().getExceptionClass();
+    }
+
+    /**
+     * 获取预创建的异常，当配置异常无法接收该异常或源码版本无法关闭抑制异常则打印错误信息
+     * 共享的异常实例需关闭抑制异常与异常原因，避免 try-with-resources 与 initCause 修改共享实例，
+     * 仅 RuntimeException 提供关闭抑制异常的构造函数，因此预创建异常无法作为 IllegalArgumentException 抛出
+     * @param exception 配置异常
+     * @return 异常类名
+     */
+    private String getPreallocatedException(String exception) {
+        if (!isSubClass(RuntimeException.class.getName(), exception)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Exception Error] Preallocated exception extends " +
+                    RuntimeException.class.getName() + " to disable suppressed exceptions of the shared instance, can't be thrown as " +
+                    exception + ", please set value() to " + RuntimeException.class.getName() + " or use stackless() instead.");
+        }
+        // RuntimeException(String, Throwable, boolean, boolean) 自 Java 7 起提供
+        SourceVersion sourceVersion = ProcessorContext.current().getSourceVersion();
+        if (sourceVersion.compareTo(SourceVersion.RELEASE_6) <= 0) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "[Exception Error] Preallocated exception can't disable suppressed exceptions " +
+                    "with source version " + sourceVersion + ", please use stackless() instead.");
+        }
+        return ProcessorContext.current().getPreallocatedClass();
+    }
+
     /**
      * 获取配置异常，但异常构造函数非法则打印错误信息
-     * @param symbol 元素
+     * @param descriptor 规则描述
      * @return 异常类名
      */
-    private String getException(Symbol symbol) {
-        String exception = TreeUtil.getAnnotationValue(symbol, Throw.class.getName(), "value()");
+    private String getException(RuleDescriptor descriptor) {
+        String exception = descriptor.getThrowType();
         if (null == exception) {
             exception = IllegalArgumentException.class.getName();
         } else {
@@ -162,9 +231,9 @@ public class ValidationTranslator extends BaseTranslator {
      * @param returnTypeName 方法返回类型
      * @return 校验信息
      */
-    private CheckData getReturn(Symbol symbol, String returnTypeName) {
-        Return returnAttr = TreeUtil.getAnnotation(symbol, Return.class);
-        if (null == returnAttr) {
+    private ValidationPlan.Action getReturn(Symbol symbol, String returnTypeName) {
+        RuleDescriptor descriptor = RuleDescriptor.of(symbol);
+        if (!descriptor.hasReturn()) {
             return null;
         }
         // 无效的返回类型，void
@@ -174,10 +243,10 @@ public class ValidationTranslator extends BaseTranslator {
         }
 
         // 有指定类型
-        String type = TreeUtil.getAnnotationValue(symbol, Return.class.getName(), "type()");
+        String type = descriptor.getReturnType();
 
         // 静态方法
-        String staticMethod = returnAttr.staticMethod();
+        String staticMethod = descriptor.getStaticMethod();
 
         if (null != type && !type.equals(Object.class.getName())) {
             if (staticMethod.isEmpty()) {
@@ -194,208 +263,64 @@ public class ValidationTranslator extends BaseTranslator {
             }
         }
 
-        JCTree.JCStatement statement = getReturn(returnTypeName, staticMethod, returnAttr.value());
-        if (statement == null) {
-            System.exit(1);
-        }
-        return new CheckData(statement);
+        return ValidationPlan.Action.newReturn(returnTypeName, staticMethod, descriptor.getReturnValue());
     }
 
     /**
-     * 获取返回对象语句
-     * 当返回类型无法匹配则打印错误信息
-     * @param classType 返回类型
-     * @param method 方法名
-     * @param values 返回数据
-     * @return 返回语句
-     */
-    private JCTree.JCStatement getReturn(String classType, String method, String[] values) {
-        JCTree.JCExpression returnValue;
-        Symbol.ClassSymbol classSymbol = syntaxTreeMaker.getTypeElement(classType);
-        boolean errorType;
-        if (null == classSymbol) {
-            // primitive type
-            errorType = false;
-        } else {
-            errorType = TreeUtil.isAbsOrInter(classSymbol.flags());
-        }
-
-        Character primitive = TypeUtil.getPrimitiveType(classType);
-
-        // 返回 null
-        if (CheckUtil.isReturnNull(values)) {
-            // 返回空对象
-            if (null != primitive) {
-                messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't return <nulltype> value to " + classType);
-            }
-            returnValue = syntaxTreeMaker.nullNode;
-            return treeMaker.Return(returnValue);
-        }
-
-        // 调用静态方法
-        if (!method.isEmpty()) {
-            List<JCTree.JCExpression> paramType;
-            if (values.length == 0) {
-                paramType = TreeUtil.emptyExpression();
-            } else {
-                paramType = getParamType(classSymbol, false, values);
-                if (null == paramType) {
-                    // 无匹配的静态方法
-                    messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find match param static method from " + classType + " by " + Arrays.toString(values));
-                }
-            }
-            JCTree.JCExpression clazzType = syntaxTreeMaker.findClass(classType);
-            returnValue = syntaxTreeMaker.getMethod(clazzType, method, paramType);
-            return treeMaker.Return(returnValue);
-        }
-
-        // 无法创建抽象类和接口
-        if (errorType) {
-            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find constructor from abstract or interface, return type is " + classType);
-            return null;
-        }
-
-        int length = values.length;
-        if (length == 0) {
-            JCTree.JCExpression returnExpr;
-            if (null != primitive) {
-                returnExpr = syntaxTreeMaker.getDefaultPrimitiveValue(primitive);
-                if (null == returnExpr) {
-                    messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find primitive return, " +
-                            "please make sure that system options is correct.");
-                }
-            } else {
-                returnExpr = getEmptyType(classType);
-            }
-            return treeMaker.Return(returnExpr);
-        } else if (length == 1) {
-            String value = values[0];
-            if (value.isEmpty()) {
-                // 返回空构造方法
-                return treeMaker.Return(getEmptyType(classType));
-            }
-
-            // 基本类型
-            TypeTag baseType = TypeUtil.getBaseType(classType);
-            if (null != baseType) {
-                Object tagValue = TreeUtil.getValue(baseType, value);
-                if (null == tagValue) {
-                    // 数据有误
-                    messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't convert " + value + " to " + classType);
-                }
-                returnValue = syntaxTreeMaker.newElement(baseType, tagValue);
-                return treeMaker.Return(returnValue);
-            }
-        }
-
-        Symbol.ClassSymbol typeElement = syntaxTreeMaker.getTypeElement(classType);
-        if (typeElement.isInner()) {
-            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Unsupported return inner class " + classType);
-        }
-        // 类构造方法
-        List<JCTree.JCExpression> paramType = getParamType(classSymbol, true, values);
-        if (null == paramType) {
-            // 无匹配的构造方法
-            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find match param constructor from " + classType + " by " + Arrays.toString(values));
-        }
-        returnValue = syntaxTreeMaker.NewClass(classType, paramType);
-        return treeMaker.Return(returnValue);
-    }
-
-    /**
-     * 返回空构造方法语句
-     * 当类型为基础类型则打印错误
-     * @param returnTypeName 返回类型
-     * @return 构造函数语句
-     */
-    private JCTree.JCExpression getEmptyType(String returnTypeName) {
-        if (null != TypeUtil.getBaseType(returnTypeName)) {
-            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Can't find return value to " + returnTypeName);
-        }
-        Symbol.ClassSymbol typeElement = syntaxTreeMaker.getTypeElement(returnTypeName);
-        if (typeElement.isInner()) {
-            messager.printMessage(Diagnostic.Kind.ERROR, "[Return Error] Unsupported return inner class " + returnTypeName);
-        }
-        return syntaxTreeMaker.NewClass(returnTypeName, List.<JCTree.JCExpression>nil());
-    }
-
-    /**
-     * 构建校验逻辑
+     * 获取参数校验项
      *
-     * @param defaultCheck 默认校验信息
-     * @param params 参数
+     * @param defaultAction 默认校验动作
+     * @param symbol 参数元素
      * @param returnTypeName 方法返回类型
-     * @param msgField 临时变量
-     * @return 校验语句链
+     * @param ordered 是否保持规则声明顺序
+     * @return 参数校验项，无需校验返回 null
      */
-    private ListBuffer<JCTree.JCStatement> buildLogic(CheckData defaultCheck, List<JCTree.JCVariableDecl> params,
-                                                     String returnTypeName, JCTree.JCIdent msgField) {
-
-        // 建立校验逻辑
-        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
-
-        for (JCTree.JCVariableDecl param : params) {
-            JCTree.JCStatement paramStatements = getParamStatement(defaultCheck, param, returnTypeName, msgField);
-            if (null == paramStatements) {
-                continue;
-            }
-            statements.append(paramStatements);
-        }
-
-        return statements;
-    }
-
-    /**
-     * 获取参数语句
-     *
-     * @param defaultCheck 默认校验信息
-     * @param param 参数
-     * @param returnTypeName 方法返回类型
-     * @param msgField 临时变量
-     * @return 单条参数校验代码块语句
-     */
-    private JCTree.JCStatement getParamStatement(CheckData defaultCheck, JCTree.JCVariableDecl param, String returnTypeName, JCTree.JCIdent msgField) {
-        Symbol.VarSymbol symbol = param.sym;
+    private ValidationPlan.Item getParamItem(ValidationPlan.Action defaultAction, Symbol.VarSymbol symbol,
+                                             String returnTypeName, boolean ordered) {
         if (CheckUtil.isExclusive(symbol)) {
             return null;
         }
 
-        // 字段域校验信息
-        CheckData checkData = getCheckData(symbol, returnTypeName);
-        if (null == checkData) {
-            if (null == defaultCheck) {
+        // 字段域校验动作
+        ValidationPlan.Action action = getAction(symbol, returnTypeName);
+        if (null == action) {
+            if (null == defaultAction) {
                 return null;
             }
-            checkData = defaultCheck;
+            action = defaultAction;
         }
 
         // 获取参数类型
         String paramTypeName = TreeUtil.getOriginalTypeName(symbol);
         byte classType = getClassType(paramTypeName);
+        checkSizeCost(symbol, classType);
 
-        // 参数标识
-        JCTree.JCIdent self = treeMaker.Ident(param.name);
-        // 参数名
-        String varName = param.name.toString();
-
-        // 获取校验动作
-        ActionData actionData = checkData.buildActionData();
+        // 获取校验动作，返回数据时为 null
+        ActionData actionData = action.getActionData();
 
         // 获取基础类型规则
         java.util.List<Regulation> regulations = RegulationBuilder.findBasicRule(symbol, paramTypeName, classType, actionData);
+
+        // 获取元素类型规则
+        ElementRegulation elementRegulation = buildElementRule(symbol, classType, actionData, ordered);
+        if (null != elementRegulation) {
+            regulations.add(elementRegulation);
+        }
         boolean isEmpty = regulations.isEmpty();
 
-        ListBuffer<JCTree.JCStatement> statements = TreeUtil.newStatement();
+        int cost = Regulation.COST_NONE;
+        String checkMethod = null;
+        String messageMethod = null;
 
         // 无基础类型规则则检测自定义规则
-        if (isEmpty && CheckUtil.isRegulable(paramTypeName)) {
-            // 将校验结果赋值给临时变量
-            JCTree.JCStatement action = checkData.getAction(msgField);
-            EqualsRegulation equalsRegulation = new EqualsRegulation(TypeUtil.OBJECT, false);
-
-            statements.append(syntaxTreeMaker.assignCallback(self, msgField, CheckUtil.getCheckMethod(paramTypeName), TreeUtil.emptyExpression()));
-            statements = equalsRegulation.handle(syntaxTreeMaker, statements, varName, msgField, action);
+        if (isEmpty && CheckUtil.isRegulable(messager, paramTypeName, symbol.asType().asElement())) {
+            checkMethod = CheckUtil.getCheckMethod(paramTypeName);
+            if (ElementOptions.current().isRuleCode()) {
+                // 失败时通过规则码获取信息
+                messageMethod = CheckUtil.getMessageMethod(paramTypeName);
+            }
 
+            cost += Regulation.COST_NESTED;
             isEmpty = false;
         }
 
@@ -420,65 +345,12 @@ public class ValidationTranslator extends BaseTranslator {
             return null;
         }
 
-        // 当 checkData.returnValue 为 null 时使用 actionData 创建校验处理动作
-        statements = RegulationExecutor.newExecutor(regulations)
-                .setStatement(statements)
-                .setAction(checkData.returnValue)
-                .execute(self, varName);
-        return getBlock(statements);
-    }
-
-    /**
-     * 检验逻辑
-     */
-    class CheckData {
-
-        private ActionData actionData;
-
-        // Return 表达式
-        private JCTree.JCStatement returnValue;
-
-        // Throw 类型
-        private String exceptionName;
-
-        // 信息
-        private String info;
-
-        CheckData(JCTree.JCStatement returnValue) {
-            this.returnValue = returnValue;
+        if (!ordered) {
+            regulations = RegulationOptimizer.order(regulations);
         }
+        cost += RegulationOptimizer.getCost(regulations);
 
-        CheckData(String exceptionName, String info) {
-            this.exceptionName = exceptionName;
-            this.info = info;
-        }
-
-        /**
-         * 创建校验处理数据
-         * @return 处理数据
-         */
-        ActionData buildActionData() {
-            if (null != returnValue) {
-                return null;
-            }
-            if (null == actionData) {
-                actionData = new ActionData(BaseRegulation.THROW, exceptionName, info);
-            }
-            return actionData;
-        }
-
-        /**
-         * 获取处理动作语句
-         * @param msgField 临时变量
-         * @return 处理语句
-         */
-        private JCTree.JCStatement getAction(JCTree.JCIdent msgField) {
-            if (null != returnValue) {
-                return returnValue;
-            }
-
-            JCTree.JCExpression message = syntaxTreeMaker.concatStatement(info, msgField);
-            return syntaxTreeMaker.newMsgThrow(exceptionName, message);
-        }
+        return new ValidationPlan.Item(ValidationPlan.PARAM, symbol.name.toString(), regulations,
+                checkMethod, messageMethod, action, cost);
     }
 }
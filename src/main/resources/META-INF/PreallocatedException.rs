@@ -0,0 +1,12 @@
+/**
+ * Thrown by generated validation with preallocated instances shared by all callers,
+ * stack trace, suppressed exceptions and cause are disabled so that a shared instance never changes.
+ */
+public class PreallocatedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreallocatedException(String message) {
+        super(message, null, false, false);
+    }
+}
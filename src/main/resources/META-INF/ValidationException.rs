@@ -0,0 +1,36 @@
+/**
+ * Thrown by generated validation, stack trace is not filled for performance.
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String detail;
+
+    public ValidationException(String message) {
+        super(message);
+        this.detail = null;
+    }
+
+    /**
+     * Message is composed when it is read.
+     */
+    public ValidationException(String message, String detail) {
+        super(message);
+        this.detail = detail;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        if (null == detail) {
+            return message;
+        }
+        return message + detail;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
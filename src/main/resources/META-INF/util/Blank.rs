@@ -0,0 +1,59 @@
+    public static boolean isBlank(CharSequence str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(String str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(StringBuilder str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBlank(java.nio.CharBuffer str) {
+        int length = str.length();
+        if (length == 0) {
+            return true;
+        }
+        char ch;
+        for (int i = 0; i < length; i++) {
+            ch = str.charAt(i);
+            if (ch != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
@@ -0,0 +1,13 @@
+    public static int sizeOf(java.util.Collection<?> collection, int limit) {
+        int count = 0;
+        java.util.Iterator<?> iterator = collection.iterator();
+        while (count < limit && iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    public static int sizeOf(java.util.Map<?, ?> map, int limit) {
+        return sizeOf(map.keySet(), limit);
+    }
@@ -0,0 +1,37 @@
+package cn.moyada.test.example;
+
+import io.moyada.medivh.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+@Throw
+public class CaseElement {
+
+    public int tags(List<@NotBlank String> tags) {
+        return tags.size();
+    }
+
+    public int scores(@Min(0) int[] scores) {
+        return scores.length;
+    }
+
+    public void prices(Map<@NotNull String, @DecimalMin(0) Double> prices) {
+    }
+
+    public void groups(List<@Size(min = 1, max = 10) List<@NotBlank String>> groups) {
+    }
+
+    public void names(List<? extends @NotBlank CharSequence> names) {
+    }
+
+    public void codes(String @Size(max = 5) [] codes) {
+    }
+
+    public void matrix(int[] @Size(min = 2, max = 2) [] matrix) {
+    }
+}
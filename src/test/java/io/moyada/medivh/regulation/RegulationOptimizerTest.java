@@ -0,0 +1,106 @@
+package io.moyada.medivh.regulation;
+
+import io.moyada.medivh.support.ElementOptions;
+import io.moyada.medivh.support.ProcessorContext;
+import io.moyada.medivh.support.TypeTag;
+import io.moyada.medivh.util.TypeUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 规则链优化与开销估算测试，只使用规则数据，不依赖编译过程
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class RegulationOptimizerTest {
+
+    @Before
+    public void bind() {
+        new ProcessorContext(new ElementOptions(new HashMap<String, String>())).bind();
+    }
+
+    @After
+    public void unbind() {
+        ProcessorContext.unbind();
+    }
+
+    @Test
+    public void testCost() {
+        Assert.assertEquals(Regulation.COST_COMPARE, new NullCheckRegulation().getCost());
+        Assert.assertEquals(Regulation.COST_SCAN, new NotBlankRegulation().getCost());
+        Assert.assertEquals(Regulation.COST_LENGTH, new SizeRangeRegulation(1, 10, TypeUtil.STRING).getCost());
+        Assert.assertEquals(Regulation.COST_CALL, new SizeRangeRegulation(null, 10, TypeUtil.COLLECTION).getCost());
+        Assert.assertEquals(Regulation.COST_SCAN, new SizeRangeRegulation(null, 10, TypeUtil.COLLECTION, true).getCost());
+        // 最小值为 1 的集合使用 isEmpty()
+        Assert.assertEquals(Regulation.COST_CALL, new SizeRangeRegulation(1, null, TypeUtil.COLLECTION, true).getCost());
+
+        List<Regulation> regulations = Arrays.<Regulation>asList(new NullCheckRegulation(), new NotBlankRegulation(),
+                new SizeRangeRegulation(1, 10, TypeUtil.STRING));
+        Assert.assertEquals(Regulation.COST_COMPARE + Regulation.COST_SCAN + Regulation.COST_LENGTH,
+                RegulationOptimizer.getCost(regulations));
+    }
+
+    @Test
+    public void testOrder() {
+        Regulation blank = new NotBlankRegulation();
+        Regulation size = new SizeRangeRegulation(1, 10, TypeUtil.STRING);
+        Regulation wrapper = new NotNullWrapperRegulation();
+        Regulation first = new NumberRegulation(TypeTag.INT, 1, null);
+        Regulation second = new NumberRegulation(TypeTag.INT, null, 10);
+
+        List<Regulation> ordered = RegulationOptimizer.order(Arrays.asList(blank, first, size, second, wrapper));
+        // 开销相同保持原有顺序，非空包装保持原有位置
+        Assert.assertEquals(Arrays.asList(first, second, size, blank, wrapper), ordered);
+    }
+
+    @Test
+    public void testOptimize() {
+        Regulation nullCheck = new NullCheckRegulation();
+        Regulation blank = new NotBlankRegulation();
+        SizeRangeRegulation size = new SizeRangeRegulation(1, 10, TypeUtil.STRING);
+        List<Regulation> regulations = Arrays.asList(nullCheck, new NullCheckRegulation(), new NotNullWrapperRegulation(), blank, size);
+
+        List<Regulation> optimized = RegulationOptimizer.optimize(regulations);
+        Assert.assertEquals(3, optimized.size());
+        Assert.assertSame(nullCheck, optimized.get(0));
+        Assert.assertSame(blank, optimized.get(1));
+
+        // 空白判断已包含最小长度 1，只保留最大长度
+        SizeRangeRegulation dropped = (SizeRangeRegulation) optimized.get(2);
+        Assert.assertNotSame(size, dropped);
+        Assert.assertEquals(Arrays.asList("name.length() great than 10"), dropped.getMessages("name"));
+        Assert.assertEquals(Arrays.asList("name.length() less than 1", "name.length() great than 10"), size.getMessages("name"));
+
+        // 只有最小长度时整个规则被移除
+        optimized = RegulationOptimizer.optimize(Arrays.<Regulation>asList(blank, new SizeRangeRegulation(1, null, TypeUtil.STRING)));
+        Assert.assertEquals(Arrays.asList(blank), optimized);
+    }
+
+    @Test
+    public void testMergeRange() {
+        NumberRegulation range = new NumberRegulation(TypeTag.INT, 1, 10);
+        List<Regulation> optimized = RegulationOptimizer.optimize(Arrays.<Regulation>asList(range));
+
+        NumberRegulation merged = (NumberRegulation) optimized.get(0);
+        Assert.assertTrue(merged.isSingleCompare());
+        // 优化不修改计划中的原规则
+        Assert.assertFalse(range.isSingleCompare());
+        Assert.assertEquals(range.getMessages("x"), merged.getMessages("x"));
+
+        Assert.assertSame(merged, merged.mergeRange());
+
+        // 浮点数、单边范围、可调整边界不合并
+        NumberRegulation decimal = new NumberRegulation(TypeTag.DOUBLE, 1D, 10D);
+        Assert.assertSame(decimal, decimal.mergeRange());
+        NumberRegulation single = new NumberRegulation(TypeTag.INT, 1, null);
+        Assert.assertSame(single, single.mergeRange());
+        NumberRegulation tunable = new NumberRegulation(TypeTag.INT, 1, 10, null, "x.max");
+        Assert.assertSame(tunable, tunable.mergeRange());
+    }
+}
@@ -0,0 +1,96 @@
+package io.moyada.medivh.support;
+
+import io.moyada.medivh.regulation.BaseRegulation;
+import io.moyada.medivh.regulation.NotBlankRegulation;
+import io.moyada.medivh.regulation.NullCheckRegulation;
+import io.moyada.medivh.regulation.NumberRegulation;
+import io.moyada.medivh.regulation.Regulation;
+import io.moyada.medivh.regulation.SizeRangeRegulation;
+import io.moyada.medivh.util.TypeUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 校验计划测试，计划创建后可序列化缓存，规则码在创建计划时登记
+ * @author xueyikang
+ * @since 1.3.2
+ **/
+public class ValidationPlanTest {
+
+    @Before
+    public void bind() {
+        new ProcessorContext(new ElementOptions(new HashMap<String, String>())).bind();
+    }
+
+    @After
+    public void unbind() {
+        ProcessorContext.unbind();
+    }
+
+    @Test
+    public void testMessages() {
+        List<Regulation> regulations = Arrays.<Regulation>asList(new NullCheckRegulation(), new NotBlankRegulation(),
+                new SizeRangeRegulation(1, 10, TypeUtil.STRING), new NumberRegulation(TypeTag.INT, 1, 10));
+
+        // 开启优化时空白判断已包含最小长度
+        Assert.assertEquals(Arrays.asList("name is null", "name is blank", "name.length() great than 10",
+                "name less than 1", "name great than 10"), RegulationExecutor.getMessages(regulations, "name"));
+    }
+
+    @Test
+    public void testCode() {
+        List<String> codeTable = new ArrayList<String>(Arrays.asList("a is null", "b is blank"));
+        ActionData actionData = new ActionData(BaseRegulation.RETURN_CODE, codeTable);
+
+        Assert.assertEquals(1, actionData.getCode("a is null"));
+        Assert.assertEquals(2, actionData.getCode("b is blank"));
+        try {
+            actionData.getCode("c is null");
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        NullCheckRegulation nullCheck = new NullCheckRegulation();
+        nullCheck.setActionData(new ActionData(BaseRegulation.THROW, IllegalArgumentException.class.getName(), "invalid "));
+        List<Regulation> regulations = Arrays.<Regulation>asList(nullCheck, new NotBlankRegulation(),
+                new SizeRangeRegulation(1, 10, TypeUtil.STRING), new NumberRegulation(TypeTag.INT, 1, 10));
+
+        ValidationPlan.Item item = new ValidationPlan.Item(ValidationPlan.PARAM, "name", regulations, null, null,
+                ValidationPlan.Action.newThrow(IllegalArgumentException.class.getName(), "invalid ", false), 0);
+        ValidationPlan plan = new ValidationPlan("a.B.c(java.lang.String)", "mvar_0",
+                Collections.singletonList(item), Collections.singletonList("name is null"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream stream = new ObjectOutputStream(out);
+        stream.writeObject(plan);
+        stream.close();
+        ValidationPlan copy = (ValidationPlan) new ObjectInputStream(new ByteArrayInputStream(out.toByteArray())).readObject();
+
+        Assert.assertEquals(plan.getTarget(), copy.getTarget());
+        Assert.assertEquals(plan.getCodeTable(), copy.getCodeTable());
+        ValidationPlan.Item copyItem = copy.getItems().get(0);
+        Assert.assertEquals(item.getRegulations().size(), copyItem.getRegulations().size());
+        Assert.assertEquals(RegulationExecutor.getMessages(item.getRegulations(), "name"),
+                RegulationExecutor.getMessages(copyItem.getRegulations(), "name"));
+        try {
+            copy.getCodeTable().add("name is blank");
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+}